@@ -85,4 +85,17 @@ public @interface OnClassLoadEvent {
      */
     boolean skipSynthetic() default true;
 
+    /**
+     * Class annotations (fully qualified names) to filter classes before the method is invoked. The method is invoked
+     * only if the class is annotated by any of them, on REDEFINE also if the class being redefined was annotated
+     * (e.g. annotation removal). Only annotations declared directly on the class are checked, the same as
+     * AnnotationHelper.hasAnnotation().
+     * <p/>
+     * The class annotations are read from class file bytes without creating CtClass, use it for handlers
+     * registered on all classes (classNameRegexp = ".*") to avoid CtClass creation for unrelated classes.
+     *
+     * @return annotations to filter, empty to disable the filter
+     */
+    String[] annotations() default {};
+
 }
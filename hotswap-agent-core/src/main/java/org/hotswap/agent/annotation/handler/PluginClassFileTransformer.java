@@ -33,11 +33,13 @@ import org.hotswap.agent.config.PluginManager;
 import org.hotswap.agent.javassist.CannotCompileException;
 import org.hotswap.agent.javassist.ClassPool;
 import org.hotswap.agent.javassist.CtClass;
-import org.hotswap.agent.javassist.LoaderClassPath;
 import org.hotswap.agent.javassist.NotFoundException;
 import org.hotswap.agent.logging.AgentLogger;
+import org.hotswap.agent.util.AnnotationHelper;
 import org.hotswap.agent.util.AppClassLoaderExecutor;
+import org.hotswap.agent.util.ClassFileSummary;
 import org.hotswap.agent.util.HaClassFileTransformer;
+import org.hotswap.agent.util.classloader.CachingLoaderClassPath;
 import org.hotswap.agent.versions.DeploymentInfo;
 
 public class PluginClassFileTransformer implements HaClassFileTransformer {
@@ -130,7 +132,7 @@ public class PluginClassFileTransformer implements HaClassFileTransformer {
     private static CtClass createCtClass(byte[] bytes, ClassLoader classLoader) throws IOException {
         ClassPool cp = new ClassPool();
         cp.appendSystemPath();
-        cp.appendClassPath(new LoaderClassPath(classLoader));
+        cp.appendClassPath(new CachingLoaderClassPath(classLoader));
 
         return cp.makeClass(new ByteArrayInputStream(bytes));
     }
@@ -146,6 +148,37 @@ public class PluginClassFileTransformer implements HaClassFileTransformer {
                 ;
     }
 
+    /**
+     * Check annotations filter of the handler. The class passes if it is annotated by any of annotations or
+     * the class being redefined was annotated.
+     */
+    protected static boolean matchesAnnotations(String[] annotations, String className, Class<?> redefiningClass, byte[] bytes) {
+        if (annotations.length == 0) {
+            return true;
+        }
+
+        try {
+            ClassFileSummary summary = ClassFileSummary.read(bytes);
+            for (String annotation : annotations) {
+                if (summary.hasAnnotation(annotation)) {
+                    return true;
+                }
+            }
+        } catch (IllegalArgumentException e) {
+            LOGGER.trace("Unable to read class file summary of '{}', annotations filter skipped.", e, className);
+            return true;
+        }
+
+        if (redefiningClass != null) {
+            for (String annotation : annotations) {
+                if (AnnotationHelper.hasAnnotation(redefiningClass, annotation)) {
+                    return true;
+                }
+            }
+        }
+        return false;
+    }
+
     /**
      * Transformation callback as registered in initMethod:
      * hotswapTransformer.registerTransformer(). Resolve method parameters to
@@ -168,6 +201,11 @@ public class PluginClassFileTransformer implements HaClassFileTransformer {
             }
         }
 
+        // skip classes without required annotations
+        if (!matchesAnnotations(pluginAnnotation.getAnnotation().annotations(), className, redefiningClass, bytes)) {
+            return bytes;
+        }
+
         // ensure classloader initiated
         if (classLoader != null) {
             pluginManager.initClassLoader(classLoader, protectionDomain);
@@ -196,7 +234,7 @@ public class PluginClassFileTransformer implements HaClassFileTransformer {
                 ClassPool classPool = new ClassPool();
                 classPool.appendSystemPath();
                 LOGGER.trace("Adding loader classpath " + classLoader);
-                classPool.appendClassPath(new LoaderClassPath(classLoader));
+                classPool.appendClassPath(new CachingLoaderClassPath(classLoader));
                 args.add(classPool);
             } else if (type.isAssignableFrom(CtClass.class)) {
                 try {
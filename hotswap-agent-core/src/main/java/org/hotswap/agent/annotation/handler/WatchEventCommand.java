@@ -34,10 +34,10 @@ import org.hotswap.agent.annotation.FileEvent;
 import org.hotswap.agent.command.MergeableCommand;
 import org.hotswap.agent.javassist.ClassPool;
 import org.hotswap.agent.javassist.CtClass;
-import org.hotswap.agent.javassist.LoaderClassPath;
 import org.hotswap.agent.javassist.NotFoundException;
 import org.hotswap.agent.logging.AgentLogger;
 import org.hotswap.agent.util.IOUtils;
+import org.hotswap.agent.util.classloader.CachingLoaderClassPath;
 import org.hotswap.agent.watch.WatchFileEvent;
 
 /**
@@ -216,7 +216,7 @@ public class WatchEventCommand<T extends Annotation> extends MergeableCommand {
         File file = new File(uri);
         if (file.exists()) {
           ClassPool cp = new ClassPool();
-          cp.appendClassPath(new LoaderClassPath(classLoader));
+          cp.appendClassPath(new CachingLoaderClassPath(classLoader));
           return cp.makeClass(new ByteArrayInputStream(IOUtils.toByteArray(uri)));
         }
         return null;
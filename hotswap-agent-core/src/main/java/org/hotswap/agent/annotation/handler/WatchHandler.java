@@ -30,6 +30,7 @@ import java.util.Enumeration;
 
 import org.hotswap.agent.config.PluginManager;
 import org.hotswap.agent.logging.AgentLogger;
+import org.hotswap.agent.util.classloader.CachingLoaderClassPath;
 import org.hotswap.agent.watch.WatchEventListener;
 import org.hotswap.agent.watch.WatchFileEvent;
 
@@ -140,6 +141,8 @@ public class WatchHandler<T extends Annotation> implements PluginHandler<T> {
         pluginManager.getWatcher().addEventListener(classLoader, uri, new WatchEventListener() {
             @Override
             public void onEvent(WatchFileEvent event) {
+                // evict before the command is scheduled, its transformation must read the new class file
+                CachingLoaderClassPath.invalidate(classLoader, event.getURI());
                 WatchEventCommand<T> command = WatchEventCommand.createCmdForEvent(pluginAnnotation, event, classLoader);
                 if (command != null) {
                     pluginManager.getScheduler().scheduleCommand(command, watchEventDTO.getTimeout());
@@ -21,9 +21,9 @@ package org.hotswap.agent.config;
 import java.util.ArrayList;
 import java.util.Arrays;
 import java.util.Collections;
-import java.util.HashMap;
 import java.util.List;
 import java.util.Map;
+import java.util.concurrent.ConcurrentHashMap;
 
 import org.hotswap.agent.HotswapAgent;
 import org.hotswap.agent.annotation.Plugin;
@@ -35,6 +35,11 @@ import org.hotswap.agent.util.scanner.ClassPathScanner;
 
 /**
  * Registry to support plugin manager.
+ * <p/>
+ * Plugin instances are looked up on each call of a plugin method from application code (see
+ * {@link org.hotswap.agent.util.PluginManagerInvoker}). Lookups do not lock the registry - the registry maps are
+ * concurrent, only registration and removal of an instance are synchronized on the instance map of a plugin class.
+ * A reverse map plugin instance -&gt; classloader is maintained for {@link #getAppClassLoader(Object)}.
  *
  * @author Jiri Bubnik
  */
@@ -43,7 +48,10 @@ public class PluginRegistry {
     private static AgentLogger LOGGER = AgentLogger.getLogger(PluginRegistry.class);
 
     // plugin class -> Map (ClassLoader -> Plugin instance)
-    protected Map<Class, Map<ClassLoader, Object>> registeredPlugins = Collections.synchronizedMap(new HashMap<Class, Map<ClassLoader, Object>>());
+    protected Map<Class, Map<ClassLoader, Object>> registeredPlugins = new ConcurrentHashMap<>();
+
+    // Plugin instance -> ClassLoader, maintained with registeredPlugins
+    private final Map<Object, ClassLoader> pluginClassLoaders = new ConcurrentHashMap<>();
 
     /**
      * Returns map of all registered plugins.
@@ -128,7 +136,7 @@ public class PluginRegistry {
                 if (registeredPlugins.containsKey(pluginClass))
                     continue;
 
-                registeredPlugins.put(pluginClass, Collections.synchronizedMap(new HashMap<ClassLoader, Object>()));
+                registeredPlugins.put(pluginClass, new ConcurrentHashMap<ClassLoader, Object>());
 
                 if (annotationProcessor.processAnnotations(pluginClass, pluginClass)) {
                     LOGGER.debug("Plugin registered {}.", pluginClass);
@@ -177,12 +185,16 @@ public class PluginRegistry {
         }
 
         Object pluginInstance = registeredPlugins.get(clazz).get(appClassLoader);
+        if (pluginInstance == null) {
+            // instantiation failed
+            return null;
+        }
 
         if (annotationProcessor.processAnnotations(pluginInstance)) {
             LOGGER.info("Plugin '{}' initialized in ClassLoader '{}'.", pluginClass, appClassLoader);
         } else {
             LOGGER.error("Plugin '{}' NOT initialized in ClassLoader '{}', error while processing annotations.", pluginClass, appClassLoader);
-            registeredPlugins.get(clazz).remove(appClassLoader);
+            removePlugin(registeredPlugins.get(clazz), appClassLoader);
         }
 
         return pluginInstance;
@@ -191,6 +203,9 @@ public class PluginRegistry {
     public void initializePluginInstance(Object pluginInstance) {
         registeredPlugins.put(pluginInstance.getClass(),
                 Collections.singletonMap(pluginInstance.getClass().getClassLoader(), pluginInstance));
+        if (pluginInstance.getClass().getClassLoader() != null) {
+            pluginClassLoaders.put(pluginInstance, pluginInstance.getClass().getClassLoader());
+        }
         if (!annotationProcessor.processAnnotations(pluginInstance)) {
             throw new IllegalStateException("Unable to initialize plugin");
         }
@@ -198,7 +213,8 @@ public class PluginRegistry {
     }
 
     /**
-     * Returns plugin instance by it's type and classLoader.
+     * Returns plugin instance by it's type and classLoader. The instance is registered in the classLoader or
+     * in the nearest parent classloader.
      *
      * @param pluginClass type of the plugin
      * @param classLoader classloader of the plugin
@@ -213,17 +229,14 @@ public class PluginRegistry {
                     "Please check your mapPreviousState.");
         }
 
-        if (!registeredPlugins.containsKey(pluginClass))
+        Map<ClassLoader, Object> pluginInstances = registeredPlugins.get(pluginClass);
+        if (pluginInstances == null)
             throw new IllegalArgumentException(String.format("Plugin %s is not known to the registry.", pluginClass));
 
-        Map<ClassLoader, Object> pluginInstances = registeredPlugins.get(pluginClass);
-        synchronized(pluginInstances) {
-            for (Map.Entry<ClassLoader, Object> registeredClassLoaderEntry : pluginInstances.entrySet()) {
-                if (isParentClassLoader(registeredClassLoaderEntry.getKey(), classLoader)) {
-                    //noinspection unchecked
-                    return (T) registeredClassLoaderEntry.getValue();
-                }
-            }
+        Object pluginInstance = findPlugin(pluginInstances, classLoader);
+        if (pluginInstance != null) {
+            //noinspection unchecked
+            return (T) pluginInstance;
         }
 
         // not found
@@ -243,26 +256,45 @@ public class PluginRegistry {
     }
 
     public boolean doHasPlugin(Class<?> pluginClass, ClassLoader classLoader, boolean checkParent, boolean createIfMissing) {
-        if (!registeredPlugins.containsKey(pluginClass))
+        Map<ClassLoader, Object> pluginInstances = registeredPlugins.get(pluginClass);
+        if (pluginInstances == null)
             return false;
 
-        Map<ClassLoader, Object> pluginInstances = registeredPlugins.get(pluginClass);
-        synchronized (pluginInstances) {
-            for (Map.Entry<ClassLoader, Object> registeredClassLoaderEntry : pluginInstances.entrySet()) {
-                if (checkParent && isParentClassLoader(registeredClassLoaderEntry.getKey(), classLoader)) {
-                    return true;
-                } else if (registeredClassLoaderEntry.getKey().equals(classLoader)) {
+        if (hasPlugin(pluginInstances, classLoader, checkParent))
+            return true;
+
+        if (createIfMissing) {
+            synchronized (pluginInstances) {
+                if (hasPlugin(pluginInstances, classLoader, checkParent))
                     return true;
-                }
-            }
-            if (createIfMissing) {
+
                 Object pluginInstance = instantiate((Class<Object>) pluginClass);
-                pluginInstances.put(classLoader, pluginInstance);
+                if (pluginInstance != null) {
+                    pluginInstances.put(classLoader, pluginInstance);
+                    pluginClassLoaders.put(pluginInstance, classLoader);
+                }
             }
         }
         return false;
     }
 
+    private boolean hasPlugin(Map<ClassLoader, Object> pluginInstances, ClassLoader classLoader, boolean checkParent) {
+        if (checkParent)
+            return findPlugin(pluginInstances, classLoader) != null;
+        else
+            return classLoader != null && pluginInstances.containsKey(classLoader);
+    }
+
+    // plugin instance registered in the classloader or in the nearest parent classloader, null if not found
+    private Object findPlugin(Map<ClassLoader, Object> pluginInstances, ClassLoader classLoader) {
+        for (ClassLoader cl = classLoader; cl != null; cl = cl.getParent()) {
+            Object pluginInstance = pluginInstances.get(cl);
+            if (pluginInstance != null)
+                return pluginInstance;
+        }
+        return null;
+    }
+
     /**
      * Search for the plugin in the registry and return associated classloader.
      *
@@ -270,15 +302,17 @@ public class PluginRegistry {
      * @return the classloader this plugin is associated with
      */
     public ClassLoader getAppClassLoader(Object plugin) {
-        // search with for loop. Maybe performance improvement to create reverse map if this is used heavily
+        ClassLoader classLoader = pluginClassLoaders.get(plugin);
+        if (classLoader != null)
+            return classLoader;
+
+        // instance map registered directly to registeredPlugins, search with for loop
         Class<Object> clazz = getPluginClass(plugin.getClass().getName());
         Map<ClassLoader, Object> pluginInstances = registeredPlugins.get(clazz);
         if (pluginInstances != null) {
-            synchronized(pluginInstances) {
-                for (Map.Entry<ClassLoader, Object> entry : pluginInstances.entrySet()) {
-                    if (entry.getValue().equals(plugin))
-                        return entry.getKey();
-                }
+            for (Map.Entry<ClassLoader, Object> entry : pluginInstances.entrySet()) {
+                if (entry.getValue().equals(plugin))
+                    return entry.getKey();
             }
         }
         throw new IllegalArgumentException("Plugin not found in the registry " + plugin);
@@ -299,16 +333,6 @@ public class PluginRegistry {
         }
     }
 
-    // check if parentClassLoader is parent of classLoader
-    private boolean isParentClassLoader(ClassLoader parentClassLoader, ClassLoader classLoader) {
-        if (parentClassLoader.equals(classLoader))
-            return true;
-        else if (classLoader.getParent() != null)
-            return isParentClassLoader(parentClassLoader, classLoader.getParent());
-        else
-            return false;
-    }
-
     /**
      * Create a new instance of the plugin.
      *
@@ -333,9 +357,16 @@ public class PluginRegistry {
      */
     public void closeClassLoader(ClassLoader classLoader) {
         LOGGER.debug("Closing classloader {}.", classLoader);
-        synchronized (registeredPlugins) {
-            for (Map<ClassLoader, Object> plugins : registeredPlugins.values()) {
-                plugins.remove(classLoader);
+        for (Map<ClassLoader, Object> plugins : registeredPlugins.values()) {
+            removePlugin(plugins, classLoader);
+        }
+    }
+
+    private void removePlugin(Map<ClassLoader, Object> pluginInstances, ClassLoader classLoader) {
+        synchronized (pluginInstances) {
+            Object pluginInstance = pluginInstances.remove(classLoader);
+            if (pluginInstance != null) {
+                pluginClassLoaders.remove(pluginInstance);
             }
         }
     }
@@ -24,9 +24,9 @@ import java.io.OutputStream;
 import java.net.URL;
 import java.security.ProtectionDomain;
 import java.util.ArrayList;
-import java.util.Enumeration;
 import java.util.Hashtable;
 import java.util.Iterator;
+import java.util.concurrent.ConcurrentHashMap;
 
 import org.hotswap.agent.javassist.bytecode.ClassFile;
 import org.hotswap.agent.javassist.bytecode.Descriptor;
@@ -115,7 +115,14 @@ public class ClassPool {
 
     protected ClassPoolTail source;
     protected ClassPool parent;
-    protected Hashtable classes;        // should be synchronous
+    protected ConcurrentHashMap classes;        // lock-free reads
+
+    /* striped locks serializing the creation of a CtClass, a cache hit
+       in get0() does not take any lock.  The number of locks is fixed,
+       names with the same stripe share the lock.
+     */
+    private static final int CLASS_LOCK_STRIPES = 64;
+    private final Object[] classLocks = newClassLocks();
 
     /**
      * Table of registered cflow variables.
@@ -156,7 +163,7 @@ public class ClassPool {
      * @see javassist.ClassPool#getDefault()
      */
     public ClassPool(ClassPool parent) {
-        this.classes = new Hashtable(INIT_HASH_SIZE);
+        this.classes = new ConcurrentHashMap(INIT_HASH_SIZE);
         this.source = new ClassPoolTail();
         this.parent = parent;
         if (parent == null) {
@@ -195,16 +202,23 @@ public class ClassPool {
      * @see ClassClassPath
      * @see LoaderClassPath
      */
-    public static synchronized ClassPool getDefault() {
-        if (defaultPool == null) {
-            defaultPool = new ClassPool(null);
-            defaultPool.appendSystemPath();
+    public static ClassPool getDefault() {
+        ClassPool pool = defaultPool;
+        if (pool == null) {
+            synchronized (ClassPool.class) {
+                pool = defaultPool;
+                if (pool == null) {
+                    pool = new ClassPool(null);
+                    pool.appendSystemPath();
+                    defaultPool = pool;
+                }
+            }
         }
 
-        return defaultPool;
+        return pool;
     }
 
-    private static ClassPool defaultPool = null;
+    private static volatile ClassPool defaultPool = null;
 
     /**
      * Provide a hook so that subclasses can do their own
@@ -253,9 +267,9 @@ public class ClassPool {
     void compress() {
         if (compressCount++ > COMPRESS_THRESHOLD) {
             compressCount = 0;
-            Enumeration e = classes.elements();
-            while (e.hasMoreElements())
-                ((CtClass)e.nextElement()).compress();
+            Iterator e = classes.values().iterator();
+            while (e.hasNext())
+                ((CtClass)e.next()).compress();
         }
     }
 
@@ -385,14 +399,38 @@ public class ClassPool {
      * CtClass object from the hash table and inserts it with the new
      * name.  Don't delegate to the parent.
      */
-    synchronized void classNameChanged(String oldname, CtClass clazz) {
-        CtClass c = (CtClass)getCached(oldname);
-        if (c == clazz)             // must check this equation.
-            removeCached(oldname);  // see getAndRename().
+    void classNameChanged(String oldname, CtClass clazz) {
+        synchronized (getClassLock(oldname)) {
+            CtClass c = (CtClass)getCached(oldname);
+            if (c == clazz)             // must check this equation.
+                removeCached(oldname);  // see getAndRename().
+        }
 
         String newName = clazz.getName();
-        checkNotFrozen(newName);
-        cacheCtClass(newName, clazz, false);
+        synchronized (getClassLock(newName)) {
+            checkNotFrozen(newName);
+            cacheCtClass(newName, clazz, false);
+        }
+    }
+
+    private static Object[] newClassLocks() {
+        Object[] locks = new Object[CLASS_LOCK_STRIPES];
+        for (int i = 0; i < locks.length; i++)
+            locks[i] = new Object();
+
+        return locks;
+    }
+
+    /**
+     * Returns the lock guarding the creation and removal of the CtClass
+     * with the given name.  The lock is only taken on a cache miss.
+     * Do not take the lock of another name while holding it.
+     *
+     * @param classname     a fully-qualified class name.
+     */
+    protected final Object getClassLock(String classname) {
+        int h = classname.hashCode();
+        return classLocks[(h ^ (h >>> 16)) & (CLASS_LOCK_STRIPES - 1)];
     }
 
     /**
@@ -415,8 +453,17 @@ public class ClassPool {
         CtClass clazz;
         if (classname == null)
             clazz = null;
-        else
-            clazz = get0(classname, true);
+        else {
+            try {
+                clazz = get0(classname, true);
+            }
+            catch (NotFoundException e) {
+                CompiledSnippetCache.recordLookup(classname, null);
+                throw e;
+            }
+
+            CompiledSnippetCache.recordLookup(classname, clazz);
+        }
 
         if (clazz == null)
             throw new NotFoundException(classname);
@@ -491,7 +538,25 @@ public class ClassPool {
      * @param useCache      false if the cached CtClass must be ignored.
      * @return null     if the class could not be found.
      */
-    protected synchronized CtClass get0(String classname, boolean useCache)
+    protected CtClass get0(String classname, boolean useCache)
+        throws NotFoundException
+    {
+        if (useCache) {
+            CtClass clazz = getCached(classname);
+            if (clazz != null)
+                return clazz;
+        }
+
+        synchronized (getClassLock(classname)) {
+            return get1(classname, useCache);
+        }
+    }
+
+    /*
+     * Invoked by get0() with the lock of classname held.  The cache is
+     * checked again since another thread may have created the class.
+     */
+    private CtClass get1(String classname, boolean useCache)
         throws NotFoundException
     {
         CtClass clazz = null;
@@ -823,13 +888,15 @@ public class ClassPool {
      * @param superclass the super class.
      * @throws RuntimeException if the existing class is frozen.
      */
-    public synchronized CtClass makeClass(String classname, CtClass superclass)
+    public CtClass makeClass(String classname, CtClass superclass)
         throws RuntimeException
     {
-        checkNotFrozen(classname);
-        CtClass clazz = new CtNewClass(classname, this, false, superclass);
-        cacheCtClass(classname, clazz, true);
-        return clazz;
+        synchronized (getClassLock(classname)) {
+            checkNotFrozen(classname);
+            CtClass clazz = new CtNewClass(classname, this, false, superclass);
+            cacheCtClass(classname, clazz, true);
+            return clazz;
+        }
     }
 
     /**
@@ -839,11 +906,13 @@ public class ClassPool {
      * @param classname     a fully-qualified class name.
      * @return      the nested class.
      */
-    synchronized CtClass makeNestedClass(String classname) {
-        checkNotFrozen(classname);
-        CtClass clazz = new CtNewClass(classname, this, false, null);
-        cacheCtClass(classname, clazz, true);
-        return clazz;
+    CtClass makeNestedClass(String classname) {
+        synchronized (getClassLock(classname)) {
+            checkNotFrozen(classname);
+            CtClass clazz = new CtNewClass(classname, this, false, null);
+            cacheCtClass(classname, clazz, true);
+            return clazz;
+        }
     }
 
     /**
@@ -867,13 +936,15 @@ public class ClassPool {
      * @param superclass the super interface.
      * @throws RuntimeException if the existing interface is frozen.
      */
-    public synchronized CtClass makeInterface(String name, CtClass superclass)
+    public CtClass makeInterface(String name, CtClass superclass)
         throws RuntimeException
     {
-        checkNotFrozen(name);
-        CtClass clazz = new CtNewClass(name, this, true, superclass);
-        cacheCtClass(name, clazz, true);
-        return clazz;
+        synchronized (getClassLock(name)) {
+            checkNotFrozen(name);
+            CtClass clazz = new CtNewClass(name, this, true, superclass);
+            cacheCtClass(name, clazz, true);
+            return clazz;
+        }
     }
 
     /**
@@ -0,0 +1,352 @@
+/*
+ * Javassist, a Java-bytecode translator toolkit.
+ * Copyright (C) 1999- Shigeru Chiba. All Rights Reserved.
+ *
+ * The contents of this file are subject to the Mozilla Public License Version
+ * 1.1 (the "License"); you may not use this file except in compliance with
+ * the License.  Alternatively, the contents of this file may be used under
+ * the terms of the GNU Lesser General Public License Version 2.1 or later,
+ * or the Apache License Version 2.0.
+ *
+ * Software distributed under the License is distributed on an "AS IS" basis,
+ * WITHOUT WARRANTY OF ANY KIND, either express or implied. See the License
+ * for the specific language governing rights and limitations under the
+ * License.
+ */
+
+package org.hotswap.agent.javassist;
+
+import java.util.Iterator;
+import java.util.LinkedHashMap;
+import java.util.Map;
+
+import org.hotswap.agent.javassist.bytecode.BadBytecode;
+import org.hotswap.agent.javassist.bytecode.ClassFile;
+import org.hotswap.agent.javassist.bytecode.CodeAttribute;
+import org.hotswap.agent.javassist.bytecode.ConstPool;
+import org.hotswap.agent.javassist.bytecode.FieldInfo;
+import org.hotswap.agent.javassist.bytecode.LocalVariableAttribute;
+import org.hotswap.agent.javassist.bytecode.MethodInfo;
+
+/**
+ * Cache of compiled source snippets.
+ *
+ * <p>The same source is often compiled into the same class loaded by
+ * several class loaders (or into a class transformed again).  The compiled
+ * code is kept as a template with its own constant pool and it is copied
+ * into the constant pool of the target class on a cache hit, so the
+ * compiler does not parse, type-check and generate the source again.
+ *
+ * <p>The cache key covers the compilation context: the source, the
+ * declaring class and its superclass, the packages imported by the class
+ * pool and, for inserted code, the method descriptor and parameter names.
+ * Classes are resolved by the class pool of the target class, they may
+ * differ between class loaders.  So all the class lookups made while the
+ * source is compiled are recorded, including the names not found.  A
+ * template is used only if each of these names resolves in the target
+ * class pool to a class with the same fingerprint (modifiers, supertypes,
+ * fields with constant values and methods), and if the declaring class
+ * has the same fingerprint.  Otherwise the source is compiled again, so a
+ * new overload or a changed inlined constant is picked up.
+ */
+final class CompiledSnippetCache {
+    private static final int MAX_SIZE = 512;
+
+    private static final Map<String,Template> templates
+        = new LinkedHashMap<String,Template>(64, 0.75f, true) {
+            private static final long serialVersionUID = 1L;
+
+            @Override
+            protected boolean removeEldestEntry(Map.Entry<String,Template> eldest) {
+                return size() > MAX_SIZE;
+            }
+        };
+
+    // fingerprint of a class not found in the class pool
+    private static final long ABSENT = 0L;
+
+    private static final ThreadLocal<Lookups> recording = new ThreadLocal<Lookups>();
+
+    private CompiledSnippetCache() {}
+
+    /**
+     * Returns the key of code inserted into a method body
+     * by <code>insertBefore()</code>.
+     */
+    static String insertBeforeKey(String src, CtClass declaring,
+                                  MethodInfo minfo, CodeAttribute ca)
+    {
+        StringBuilder sb = new StringBuilder("before:");
+        appendClass(sb, declaring);
+        sb.append(minfo.getName()).append(minfo.getDescriptor())
+          .append(minfo.getAccessFlags()).append(';');
+        // parameter names are visible to the compiled source
+        LocalVariableAttribute va = (LocalVariableAttribute)
+                ca.getAttribute(LocalVariableAttribute.tag);
+        if (va != null) {
+            int n = va.tableLength();
+            for (int i = 0; i < n; ++i)
+                if (va.startPc(i) == 0)
+                    sb.append(va.index(i)).append(va.variableName(i))
+                      .append(va.descriptor(i)).append(',');
+        }
+
+        return sb.append(';').append(src).toString();
+    }
+
+    /**
+     * Returns the key of a method compiled by <code>CtNewMethod.make()</code>.
+     */
+    static String methodKey(String src, CtClass declaring,
+                            String delegateObj, String delegateMethod)
+    {
+        StringBuilder sb = new StringBuilder("method:");
+        appendClass(sb, declaring);
+        sb.append(delegateObj).append(';').append(delegateMethod).append(';');
+        return sb.append(src).toString();
+    }
+
+    private static void appendClass(StringBuilder sb, CtClass declaring) {
+        sb.append(declaring.getName()).append(';')
+          .append(declaring.getClassFile2().getSuperclass()).append(';');
+        // simple class names are resolved in the imported packages
+        Iterator<String> it = declaring.getClassPool().getImportedPackages();
+        while (it.hasNext())
+            sb.append(it.next()).append(',');
+
+        sb.append(';');
+    }
+
+    /**
+     * Returns a copy of the cached code in the constant pool
+     * of the declaring class or null.
+     */
+    static CodeAttribute getCode(String key, CtClass declaring) {
+        Template template = get(key, declaring);
+        if (template == null || !(template.compiled instanceof CodeAttribute))
+            return null;
+
+        CodeAttribute code = (CodeAttribute)template.compiled;
+
+        return (CodeAttribute)code.copy(declaring.getClassFile2().getConstPool(), null);
+    }
+
+    /**
+     * Records compiled code.
+     *
+     * @param code      the code in the constant pool of the declaring class.
+     */
+    static void putCode(String key, CtClass declaring, CodeAttribute code,
+                        Lookups lookups)
+    {
+        ConstPool cp = new ConstPool(declaring.getName());
+        put(key, declaring, code.copy(cp, null), lookups);
+    }
+
+    /**
+     * Returns a copy of the cached method in the constant pool
+     * of the declaring class or null.
+     */
+    static CtMethod getMethod(String key, CtClass declaring) {
+        Template template = get(key, declaring);
+        if (template == null || !(template.compiled instanceof MethodInfo))
+            return null;
+
+        MethodInfo minfo = (MethodInfo)template.compiled;
+
+        try {
+            ConstPool cp = declaring.getClassFile2().getConstPool();
+            return new CtMethod(new MethodInfo(cp, minfo.getName(), minfo, null),
+                                declaring);
+        }
+        catch (BadBytecode e) {
+            return null;
+        }
+    }
+
+    /**
+     * Records a compiled method.
+     */
+    static void putMethod(String key, CtClass declaring, CtMethod method,
+                          Lookups lookups)
+    {
+        MethodInfo minfo = method.getMethodInfo2();
+        try {
+            ConstPool cp = new ConstPool(declaring.getName());
+            put(key, declaring, new MethodInfo(cp, minfo.getName(), minfo, null),
+                lookups);
+        }
+        catch (BadBytecode e) {
+            // not cached
+        }
+    }
+
+    /**
+     * Starts recording of the classes looked up by the class pools
+     * in the current thread.  It must be paired with
+     * <code>stopRecording()</code> in a finally block.
+     */
+    static Lookups startRecording() {
+        Lookups lookups = new Lookups(recording.get());
+        recording.set(lookups);
+        return lookups;
+    }
+
+    static void stopRecording(Lookups lookups) {
+        recording.set(lookups.outer);
+        if (lookups.outer != null)
+            for (Map.Entry<String,CtClass> e: lookups.classes.entrySet())
+                lookups.outer.record(e.getKey(), e.getValue());
+    }
+
+    /**
+     * Invoked by <code>ClassPool</code> on each class lookup.
+     *
+     * @param clazz     the class or null if not found.
+     */
+    static void recordLookup(String classname, CtClass clazz) {
+        Lookups lookups = recording.get();
+        if (lookups != null)
+            lookups.record(classname, clazz);
+    }
+
+    /* Returns the template if all the classes looked up by the compiler
+     * are the same in the class pool of the declaring class.
+     */
+    private static Template get(String key, CtClass declaring) {
+        Template template;
+        synchronized (templates) {
+            template = templates.get(key);
+        }
+
+        if (template == null
+            || template.declaring != fingerprint(declaring))
+            return null;
+
+        ClassPool pool = declaring.getClassPool();
+        for (int i = 0; i < template.classnames.length; i++) {
+            CtClass cc = pool.getOrNull(template.classnames[i]);
+            if (template.fingerprints[i] != (cc == null ? ABSENT : fingerprint(cc)))
+                return null;
+        }
+
+        return template;
+    }
+
+    private static void put(String key, CtClass declaring, Object compiled,
+                            Lookups lookups)
+    {
+        int n = lookups.classes.size();
+        String[] classnames = new String[n];
+        long[] fingerprints = new long[n];
+        int i = 0;
+        for (Map.Entry<String,CtClass> e: lookups.classes.entrySet()) {
+            classnames[i] = e.getKey();
+            fingerprints[i++] = e.getValue() == null ? ABSENT
+                                                     : fingerprint(e.getValue());
+        }
+
+        Template template = new Template(compiled, fingerprint(declaring),
+                                         classnames, fingerprints);
+        synchronized (templates) {
+            templates.put(key, template);
+        }
+    }
+
+    /* Hash of everything the compiler may read from the class:
+     * modifiers, supertypes, fields with their constant values (they are
+     * inlined) and methods (they select the overload and the instruction).
+     */
+    static long fingerprint(CtClass cc) {
+        Fingerprint fp = new Fingerprint();
+        fp.add(cc.getName());
+        ClassFile cf = cc.isPrimitive() || cc.isArray() ? null : cc.getClassFile2();
+        if (cf != null) {
+            fp.add(cc.getModifiers());
+            fp.add(cf.getSuperclass());
+            for (String name: cf.getInterfaces())
+                fp.add(name);
+
+            ConstPool cp = cf.getConstPool();
+            for (FieldInfo finfo: cf.getFields()) {
+                fp.add(finfo.getName());
+                fp.add(finfo.getDescriptor());
+                fp.add(finfo.getAccessFlags());
+                int index = finfo.getConstantValue();
+                if (index != 0)
+                    fp.add(String.valueOf(cp.getLdcValue(index)));
+            }
+
+            for (MethodInfo minfo: cf.getMethods()) {
+                fp.add(minfo.getName());
+                fp.add(minfo.getDescriptor());
+                fp.add(minfo.getAccessFlags());
+            }
+        }
+
+        long h = fp.hash;
+        return h == ABSENT ? ABSENT + 1 : h;
+    }
+
+    /* FNV-1a hash.
+     */
+    private static final class Fingerprint {
+        long hash = 0xcbf29ce484222325L;
+
+        void add(String s) {
+            if (s == null)
+                add(-1);
+            else {
+                for (int i = 0; i < s.length(); i++)
+                    addChar(s.charAt(i));
+
+                addChar(';');
+            }
+        }
+
+        void add(int value) {
+            addChar((char)(value >>> 16));
+            addChar((char)value);
+            addChar(';');
+        }
+
+        private void addChar(char c) {
+            hash = (hash ^ c) * 0x100000001b3L;
+        }
+    }
+
+    /* Classes looked up in the current thread, null if not found.
+     */
+    static final class Lookups {
+        final Lookups outer;
+        final Map<String,CtClass> classes = new LinkedHashMap<String,CtClass>();
+
+        Lookups(Lookups outer) {
+            this.outer = outer;
+        }
+
+        void record(String classname, CtClass clazz) {
+            if (!classes.containsKey(classname))
+                classes.put(classname, clazz);
+        }
+    }
+
+    /* A compiled CodeAttribute or MethodInfo with the fingerprints of
+     * the declaring class and of the classes looked up by the compiler.
+     */
+    private static final class Template {
+        final Object compiled;
+        final long declaring;
+        final String[] classnames;
+        final long[] fingerprints;
+
+        Template(Object compiled, long declaring, String[] classnames,
+                 long[] fingerprints)
+        {
+            this.compiled = compiled;
+            this.declaring = declaring;
+            this.classnames = classnames;
+            this.fingerprints = fingerprints;
+        }
+    }
+}
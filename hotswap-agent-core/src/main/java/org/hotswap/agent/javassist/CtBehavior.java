@@ -776,17 +776,33 @@ public abstract class CtBehavior extends CtMember {
             throw new CannotCompileException("no method body");
 
         CodeIterator iterator = ca.iterator();
-        Javac jv = new Javac(cc);
+        String key = CompiledSnippetCache.insertBeforeKey(src, cc, methodInfo, ca);
         try {
-            int nvars = jv.recordParams(getParameterTypes(),
-                                        Modifier.isStatic(getModifiers()));
-            jv.recordParamNames(ca, nvars);
-            jv.recordLocalVariables(ca, 0);
-            jv.recordType(getReturnType0());
-            jv.compileStmnt(src);
-            Bytecode b = jv.getBytecode();
-            int stack = b.getMaxStack();
-            int locals = b.getMaxLocals();
+            CodeAttribute code = CompiledSnippetCache.getCode(key, cc);
+            if (code == null) {
+                CompiledSnippetCache.Lookups lookups
+                    = CompiledSnippetCache.startRecording();
+                try {
+                    Javac jv = new Javac(cc);
+                    int nvars = jv.recordParams(getParameterTypes(),
+                                                Modifier.isStatic(getModifiers()));
+                    jv.recordParamNames(ca, nvars);
+                    jv.recordLocalVariables(ca, 0);
+                    jv.recordType(getReturnType0());
+                    jv.compileStmnt(src);
+                    Bytecode b = jv.getBytecode();
+                    code = new CodeAttribute(methodInfo.getConstPool(),
+                                             b.getMaxStack(), b.getMaxLocals(),
+                                             b.get(), b.getExceptionTable());
+                    CompiledSnippetCache.putCode(key, cc, code, lookups);
+                }
+                finally {
+                    CompiledSnippetCache.stopRecording(lookups);
+                }
+            }
+
+            int stack = code.getMaxStack();
+            int locals = code.getMaxLocals();
 
             if (stack > ca.getMaxStack())
                 ca.setMaxStack(stack);
@@ -794,8 +810,8 @@ public abstract class CtBehavior extends CtMember {
             if (locals > ca.getMaxLocals())
                 ca.setMaxLocals(locals);
 
-            int pos = iterator.insertEx(b.get());
-            iterator.insert(b.getExceptionTable(), pos);
+            int pos = iterator.insertEx(code.getCode());
+            iterator.insert(code.getExceptionTable(), pos);
             if (rebuild)
                 methodInfo.rebuildStackMapIf6(cc.getClassPool(), cc.getClassFile2());
         }
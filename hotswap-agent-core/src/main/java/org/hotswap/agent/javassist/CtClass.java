@@ -17,7 +17,6 @@
 package org.hotswap.agent.javassist;
 
 import java.io.BufferedOutputStream;
-import java.io.ByteArrayOutputStream;
 import java.io.DataOutputStream;
 import java.io.File;
 import java.io.FileOutputStream;
@@ -27,6 +26,7 @@ import java.net.URL;
 import java.security.ProtectionDomain;
 import java.util.Collection;
 
+import org.hotswap.agent.javassist.bytecode.ByteStream;
 import org.hotswap.agent.javassist.bytecode.ClassFile;
 import org.hotswap.agent.javassist.bytecode.Descriptor;
 import org.hotswap.agent.javassist.bytecode.Opcode;
@@ -1519,7 +1519,7 @@ public abstract class CtClass {
      * @return the contents of the class file.
      */
     public byte[] toBytecode() throws IOException, CannotCompileException {
-        ByteArrayOutputStream barray = new ByteArrayOutputStream();
+        ByteStream barray = new ByteStream(estimateClassfileSize());
         DataOutputStream out = new DataOutputStream(barray);
         try {
             toBytecode(out);
@@ -1687,6 +1687,11 @@ public abstract class CtClass {
         throw new RuntimeException("not available in " + getName());
     }
 
+    /* Returns the initial size of the output buffer of toBytecode().
+     * This method is overridden by CtClassType.
+     */
+    int estimateClassfileSize() { return 1024; }
+
     /* Invoked from ClassPool#compress().
      * This method is overridden by CtClassType.
      */
@@ -18,7 +18,6 @@ package org.hotswap.agent.javassist;
 
 import java.io.BufferedInputStream;
 import java.io.ByteArrayInputStream;
-import java.io.ByteArrayOutputStream;
 import java.io.DataInputStream;
 import java.io.DataOutputStream;
 import java.io.IOException;
@@ -37,6 +36,7 @@ import org.hotswap.agent.javassist.bytecode.AccessFlag;
 import org.hotswap.agent.javassist.bytecode.AnnotationsAttribute;
 import org.hotswap.agent.javassist.bytecode.AttributeInfo;
 import org.hotswap.agent.javassist.bytecode.BadBytecode;
+import org.hotswap.agent.javassist.bytecode.ByteStream;
 import org.hotswap.agent.javassist.bytecode.Bytecode;
 import org.hotswap.agent.javassist.bytecode.ClassFile;
 import org.hotswap.agent.javassist.bytecode.CodeAttribute;
@@ -263,11 +263,11 @@ class CtClassType extends CtClass {
         if (classfile == null || hasMemberCache() != null)
             return;
 
-        ByteArrayOutputStream barray = new ByteArrayOutputStream();
+        ByteStream barray = new ByteStream(classfile.estimateSize());
         DataOutputStream out = new DataOutputStream(barray);
         try {
             classfile.write(out);
-            barray.close();
+            out.flush();
             rawClassfile = barray.toByteArray();
             classfile = null;
         }
@@ -1634,6 +1634,17 @@ class CtClassType extends CtClass {
         }
     }
 
+    @Override
+    int estimateClassfileSize() {
+        ClassFile cf = classfile;
+        if (cf != null && isModified())
+            return cf.estimateSize();
+        else if (rawClassfile != null)
+            return rawClassfile.length;
+        else
+            return super.estimateClassfileSize();
+    }
+
     private void dumpClassFile(ClassFile cf) throws IOException
     {
         DataOutputStream dump = makeFileOutput(debugDump);
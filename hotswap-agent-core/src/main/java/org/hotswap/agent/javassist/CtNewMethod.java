@@ -71,18 +71,31 @@ public class CtNewMethod {
                                 String delegateObj, String delegateMethod)
         throws CannotCompileException
     {
-        Javac compiler = new Javac(declaring);
+        String key = CompiledSnippetCache.methodKey(src, declaring,
+                                                    delegateObj, delegateMethod);
+        CtMethod cached = CompiledSnippetCache.getMethod(key, declaring);
+        if (cached != null)
+            return cached;
+
+        CompiledSnippetCache.Lookups lookups = CompiledSnippetCache.startRecording();
         try {
+            Javac compiler = new Javac(declaring);
             if (delegateMethod != null)
                 compiler.recordProceed(delegateObj, delegateMethod);
 
             CtMember obj = compiler.compile(src);
-            if (obj instanceof CtMethod)
+            if (obj instanceof CtMethod) {
+                CompiledSnippetCache.putMethod(key, declaring, (CtMethod)obj,
+                                               lookups);
                 return (CtMethod)obj;
+            }
         }
         catch (CompileError e) {
             throw new CannotCompileException(e);
         }
+        finally {
+            CompiledSnippetCache.stopRecording(lookups);
+        }
 
         throw new CannotCompileException("not a method");
     }
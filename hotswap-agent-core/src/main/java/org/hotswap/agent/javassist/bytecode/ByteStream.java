@@ -19,7 +19,12 @@ package org.hotswap.agent.javassist.bytecode;
 import java.io.IOException;
 import java.io.OutputStream;
 
-final class ByteStream extends OutputStream {
+/**
+ * Growable byte array output stream.  Unlike
+ * <code>java.io.ByteArrayOutputStream</code>, its methods are not
+ * synchronized.
+ */
+public final class ByteStream extends OutputStream {
     private byte[] buf;
     private int count;
 
@@ -883,6 +883,26 @@ public final class ClassFile {
         thisclassname = constPool.getClassInfo(thisClass);
     }
 
+    /**
+     * Returns an upper bound of the size of the class file written by
+     * <code>write()</code>.  It is used to presize the output buffer.
+     */
+    public int estimateSize() {
+        int size = 10 + constPool.estimateSize() + 8;
+        if (interfaces != null)
+            size += interfaces.length * 2;
+
+        size += 2;
+        for (FieldInfo finfo:fields)
+            size += 8 + AttributeInfo.getLength(finfo.getAttributes());
+
+        size += 2;
+        for (MethodInfo minfo:methods)
+            size += 8 + AttributeInfo.getLength(minfo.getAttributes());
+
+        return size + 2 + AttributeInfo.getLength(attributes);
+    }
+
     /**
      * Writes a class file represented by this object into an output stream.
      */
@@ -16,6 +16,7 @@
 
 package org.hotswap.agent.javassist.bytecode;
 
+import java.io.ByteArrayInputStream;
 import java.io.DataInputStream;
 import java.io.DataOutputStream;
 import java.io.IOException;
@@ -46,6 +47,12 @@ public class CodeAttribute extends AttributeInfo implements Opcode {
     private ExceptionTable exceptions;
     private List<AttributeInfo> attributes;
 
+    /* attribute body (after attribute_length) read from a class file,
+       it is decoded into the fields above on the first access.
+       null if decoded.
+     */
+    private volatile byte[] raw;
+
     /**
      * Constructs a <code>Code_attribute</code>.
      *
@@ -98,22 +105,48 @@ public class CodeAttribute extends AttributeInfo implements Opcode {
         throws IOException
     {
         super(cp, name_id, (byte[])null);
-        @SuppressWarnings("unused")
         int attr_len = in.readInt();
+        raw = new byte[attr_len];
+        in.readFully(raw);
+    }
+
+    /*
+     * Decodes the attribute body read from a class file.  Method bodies
+     * are decoded only when the code, the exception table or the nested
+     * attributes are accessed, reading names, signatures or annotations
+     * of a class does not decode them.
+     */
+    private void decode() {
+        if (raw != null)
+            decode0();
+    }
 
-        maxStack = in.readUnsignedShort();
-        maxLocals = in.readUnsignedShort();
+    private synchronized void decode0() {
+        byte[] body = raw;
+        if (body == null)
+            return;
 
-        int code_len = in.readInt();
-        info = new byte[code_len];
-        in.readFully(info);
+        try {
+            DataInputStream in = new DataInputStream(new ByteArrayInputStream(body));
+            maxStack = in.readUnsignedShort();
+            maxLocals = in.readUnsignedShort();
 
-        exceptions = new ExceptionTable(cp, in);
+            int code_len = in.readInt();
+            info = new byte[code_len];
+            in.readFully(info);
 
-        attributes = new ArrayList<AttributeInfo>();
-        int num = in.readUnsignedShort();
-        for (int i = 0; i < num; ++i)
-            attributes.add(AttributeInfo.read(cp, in));
+            exceptions = new ExceptionTable(getConstPool(), in);
+
+            attributes = new ArrayList<AttributeInfo>();
+            int num = in.readUnsignedShort();
+            for (int i = 0; i < num; ++i)
+                attributes.add(AttributeInfo.read(getConstPool(), in));
+        }
+        catch (IOException e) {
+            throw new RuntimeException("invalid Code attribute: " + e.getMessage(), e);
+        }
+
+        raw = null;
     }
 
     /**
@@ -165,12 +198,25 @@ public class CodeAttribute extends AttributeInfo implements Opcode {
      */
     @Override
     public int length() {
+        byte[] body = raw;
+        if (body != null)
+            return body.length + 6;
+
         return 18 + info.length + exceptions.size() * 8
                + AttributeInfo.getLength(attributes);
     }
 
     @Override
     void write(DataOutputStream out) throws IOException {
+        byte[] body = raw;
+        if (body != null) {
+            // not decoded, write the original body
+            out.writeShort(name);
+            out.writeInt(body.length);
+            out.write(body);
+            return;
+        }
+
         out.writeShort(name);           // attribute_name_index
         out.writeInt(length() - 6);     // attribute_length
         out.writeShort(maxStack);       // max_stack
@@ -204,16 +250,19 @@ public class CodeAttribute extends AttributeInfo implements Opcode {
 
     @Override
     void renameClass(String oldname, String newname) {
+        decode();
         AttributeInfo.renameClass(attributes, oldname, newname);
     }
 
     @Override
     void renameClass(Map<String,String> classnames) {
+        decode();
         AttributeInfo.renameClass(attributes, classnames);
     }
 
     @Override
     void getRefClasses(Map<String,String> classnames) {
+        decode();
         AttributeInfo.getRefClasses(attributes, classnames);
     }
 
@@ -230,6 +279,7 @@ public class CodeAttribute extends AttributeInfo implements Opcode {
      * Returns <code>max_stack</code>.
      */
     public int getMaxStack() {
+        decode();
         return maxStack;
     }
 
@@ -237,6 +287,7 @@ public class CodeAttribute extends AttributeInfo implements Opcode {
      * Sets <code>max_stack</code>.
      */
     public void setMaxStack(int value) {
+        decode();
         maxStack = value;
     }
 
@@ -248,6 +299,7 @@ public class CodeAttribute extends AttributeInfo implements Opcode {
      * @return the newly computed value of <code>max_stack</code>
      */
     public int computeMaxStack() throws BadBytecode {
+        decode();
         maxStack = new CodeAnalyzer(this).computeMaxStack();
         return maxStack;
     }
@@ -256,6 +308,7 @@ public class CodeAttribute extends AttributeInfo implements Opcode {
      * Returns <code>max_locals</code>.
      */
     public int getMaxLocals() {
+        decode();
         return maxLocals;
     }
 
@@ -263,6 +316,7 @@ public class CodeAttribute extends AttributeInfo implements Opcode {
      * Sets <code>max_locals</code>.
      */
     public void setMaxLocals(int value) {
+        decode();
         maxLocals = value;
     }
 
@@ -270,6 +324,7 @@ public class CodeAttribute extends AttributeInfo implements Opcode {
      * Returns <code>code_length</code>.
      */
     public int getCodeLength() {
+        decode();
         return info.length;
     }
 
@@ -277,13 +332,17 @@ public class CodeAttribute extends AttributeInfo implements Opcode {
      * Returns <code>code[]</code>.
      */
     public byte[] getCode() {
+        decode();
         return info;
     }
 
     /**
      * Sets <code>code[]</code>.
      */
-    void setCode(byte[] newinfo) { super.set(newinfo); }
+    void setCode(byte[] newinfo) {
+        decode();
+        super.set(newinfo);
+    }
 
     /**
      * Makes a new iterator for reading this code attribute.
@@ -295,7 +354,10 @@ public class CodeAttribute extends AttributeInfo implements Opcode {
     /**
      * Returns <code>exception_table[]</code>.
      */
-    public ExceptionTable getExceptionTable() { return exceptions; }
+    public ExceptionTable getExceptionTable() {
+        decode();
+        return exceptions;
+    }
 
     /**
      * Returns <code>attributes[]</code>.
@@ -305,7 +367,10 @@ public class CodeAttribute extends AttributeInfo implements Opcode {
      *
      * @see AttributeInfo
      */
-    public List<AttributeInfo> getAttributes() { return attributes; }
+    public List<AttributeInfo> getAttributes() {
+        decode();
+        return attributes;
+    }
 
     /**
      * Returns the attribute with the specified name.
@@ -315,6 +380,7 @@ public class CodeAttribute extends AttributeInfo implements Opcode {
      * @return          an <code>AttributeInfo</code> object or null.
      */
     public AttributeInfo getAttribute(String name) {
+        decode();
         return AttributeInfo.lookup(attributes, name);
     }
 
@@ -327,6 +393,7 @@ public class CodeAttribute extends AttributeInfo implements Opcode {
      *                  Only the old stack map is removed. 
      */
     public void setAttribute(StackMapTable smt) {
+        decode();
         AttributeInfo.remove(attributes, StackMapTable.tag);
         if (smt != null)
             attributes.add(smt);
@@ -342,6 +409,7 @@ public class CodeAttribute extends AttributeInfo implements Opcode {
      * @since 3.12
      */
     public void setAttribute(StackMap sm) {
+        decode();
         AttributeInfo.remove(attributes, StackMap.tag);
         if (sm != null)
             attributes.add(sm);
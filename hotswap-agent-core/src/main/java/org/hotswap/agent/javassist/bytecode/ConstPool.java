@@ -1360,6 +1360,43 @@ public final class ConstPool
         return tag;
     }
 
+    /**
+     * Returns an upper bound of the size of the constant pool table
+     * in a class file.  Utf8 entries are counted exactly (in modified
+     * UTF-8), other entries are counted as 5 bytes, the largest size
+     * of an entry except long and double.
+     */
+    int estimateSize()
+    {
+        int size = 2;
+        LongVector v = items;
+        int n = numOfItems;
+        for (int i = 1; i < n; ++i) {
+            ConstInfo info = v.elementAt(i);
+            if (info instanceof Utf8Info)
+                size += 3 + utf8Length(((Utf8Info)info).string);
+            else
+                size += 5;      // 9 for long and double + 5 for the padding
+        }
+
+        return size;
+    }
+
+    /* Length of the string written by DataOutputStream.writeUTF().
+     */
+    private static int utf8Length(String s)
+    {
+        int len = s.length();
+        int size = len;
+        for (int i = 0; i < len; ++i) {
+            char c = s.charAt(i);
+            if (c == 0 || c > 0x7f)
+                size += c > 0x7ff ? 2 : 1;
+        }
+
+        return size;
+    }
+
     /**
      * Writes the contents of the constant pool table.
      */
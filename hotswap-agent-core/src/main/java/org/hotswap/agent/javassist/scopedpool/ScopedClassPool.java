@@ -120,7 +120,9 @@ public class ScopedClassPool extends ClassPool {
     public void close() {
         this.removeClassPath(classPath);
         classes.clear();
-        softcache.clear();
+        synchronized (softcache) {
+            softcache.clear();
+        }
     }
 
     /**
@@ -129,9 +131,13 @@ public class ScopedClassPool extends ClassPool {
      * @param classname
      *            the class to flush
      */
-    public synchronized void flushClass(String classname) {
-        classes.remove(classname);
-        softcache.remove(classname);
+    public void flushClass(String classname) {
+        synchronized (getClassLock(classname)) {
+            classes.remove(classname);
+            synchronized (softcache) {
+                softcache.remove(classname);
+            }
+        }
     }
 
     /**
@@ -140,11 +146,15 @@ public class ScopedClassPool extends ClassPool {
      * @param clazz
      *            the class
      */
-    public synchronized void soften(CtClass clazz) {
-        if (repository.isPrune())
-            clazz.prune();
-        classes.remove(clazz.getName());
-        softcache.put(clazz.getName(), clazz);
+    public void soften(CtClass clazz) {
+        synchronized (getClassLock(clazz.getName())) {
+            if (repository.isPrune())
+                clazz.prune();
+            classes.remove(clazz.getName());
+            synchronized (softcache) {
+                softcache.put(clazz.getName(), clazz);
+            }
+        }
     }
 
     /**
@@ -225,7 +235,10 @@ public class ScopedClassPool extends ClassPool {
         else {
             if (repository.isPrune())
                 c.prune();
-            softcache.put(classname, c);
+            // softcache is shared by all class names, class locks do not guard it
+            synchronized (softcache) {
+                softcache.put(classname, c);
+            }
         }
     }
 
@@ -264,18 +277,22 @@ public class ScopedClassPool extends ClassPool {
      * @throws NotFoundException
      *             when the class is not found
      */
-    public synchronized CtClass getLocally(String classname)
+    public CtClass getLocally(String classname)
             throws NotFoundException {
-        softcache.remove(classname);
-        CtClass clazz = (CtClass)classes.get(classname);
-        if (clazz == null) {
-            clazz = createCtClass(classname, true);
-            if (clazz == null)
-                throw new NotFoundException(classname);
-            super.cacheCtClass(classname, clazz, false);
-        }
+        synchronized (getClassLock(classname)) {
+            synchronized (softcache) {
+                softcache.remove(classname);
+            }
+            CtClass clazz = (CtClass)classes.get(classname);
+            if (clazz == null) {
+                clazz = createCtClass(classname, true);
+                if (clazz == null)
+                    throw new NotFoundException(classname);
+                super.cacheCtClass(classname, clazz, false);
+            }
 
-        return clazz;
+            return clazz;
+        }
     }
 
     /**
@@ -0,0 +1,241 @@
+/*
+ * Copyright 2013-2023 the HotswapAgent authors.
+ *
+ * This file is part of HotswapAgent.
+ *
+ * HotswapAgent is free software: you can redistribute it and/or modify it
+ * under the terms of the GNU General Public License as published by the
+ * Free Software Foundation, either version 2 of the License, or (at your
+ * option) any later version.
+ *
+ * HotswapAgent is distributed in the hope that it will be useful, but
+ * WITHOUT ANY WARRANTY; without even the implied warranty of
+ * MERCHANTABILITY or FITNESS FOR A PARTICULAR PURPOSE. See the GNU General
+ * Public License for more details.
+ *
+ * You should have received a copy of the GNU General Public License along
+ * with HotswapAgent. If not, see http://www.gnu.org/licenses/.
+ */
+package org.hotswap.agent.plugin.jdk;
+
+import java.lang.instrument.Instrumentation;
+import java.lang.ref.Reference;
+import java.lang.reflect.Field;
+import java.lang.reflect.Method;
+import java.lang.reflect.Modifier;
+import java.util.Collection;
+import java.util.HashSet;
+import java.util.Iterator;
+import java.util.Map;
+import java.util.Set;
+
+import org.hotswap.agent.config.PluginManager;
+import org.hotswap.agent.logging.AgentLogger;
+
+/**
+ * Evicts entries of redefined classes and their loaded subclasses from JDK caches:
+ * <ul>
+ *  <li> java.beans.Introspector - BeanInfo cache of all ThreadGroupContexts and ClassInfo cache
+ *  <li> java.io.ObjectStreamClass$Caches - localDescs and reflectors
+ * </ul>
+ * Reflective handles are resolved once in the constructor, a cache with inaccessible handles is skipped.
+ */
+class JdkCacheEvictor {
+
+    private static AgentLogger LOGGER = AgentLogger.getLogger(JdkCacheEvictor.class);
+
+    // java.beans.ThreadGroupContext.contexts (WeakIdentityMap) and its hash table
+    private Object threadGroupContexts;
+    private Field contextsTableField;
+    private Field entryValueField;
+    private Field entryNextField;
+    private Method removeBeanInfoMethod;
+    private Method flushFromCachesMethod;
+
+    // java.io.ObjectStreamClass$Caches - ConcurrentMap keyed by weak class references (java < 17)
+    private Map<?, ?> localDescsMap;
+    private Map<?, ?> reflectorsMap;
+
+    // java.io.ObjectStreamClass$Caches - ClassValue of ClassCache (java >= 17)
+    private ClassValue<?> localDescsClassValue;
+    private ClassValue<?> reflectorsClassValue;
+
+    JdkCacheEvictor() {
+        resolveIntrospectorHandles();
+        resolveObjectStreamHandles();
+    }
+
+    private void resolveIntrospectorHandles() {
+        try {
+            Class<?> threadGroupCtxClass = Class.forName("java.beans.ThreadGroupContext");
+            Class<?> introspectorClass = Class.forName("java.beans.Introspector");
+
+            Field contextsField = threadGroupCtxClass.getDeclaredField("contexts");
+            contextsField.setAccessible(true);
+            Object contexts = contextsField.get(null);
+            Field tableField = findField(contexts.getClass(), "table");
+            tableField.setAccessible(true);
+
+            removeBeanInfoMethod = threadGroupCtxClass.getDeclaredMethod("removeBeanInfo", Class.class);
+            removeBeanInfoMethod.setAccessible(true);
+            flushFromCachesMethod = introspectorClass.getMethod("flushFromCaches", Class.class);
+
+            contextsTableField = tableField;
+            threadGroupContexts = contexts;
+        } catch (Exception e) {
+            LOGGER.error("java.beans.Introspector caches are not accessible, eviction disabled. {}", e.getMessage());
+        }
+    }
+
+    private void resolveObjectStreamHandles() {
+        try {
+            Class<?> cachesClass = Class.forName("java.io.ObjectStreamClass$Caches");
+            Object localDescs = getStaticField(cachesClass, "localDescs");
+            Object reflectors = getStaticField(cachesClass, "reflectors");
+            if (localDescs instanceof Map && reflectors instanceof Map) {
+                localDescsMap = (Map<?, ?>) localDescs;
+                reflectorsMap = (Map<?, ?>) reflectors;
+            } else {
+                localDescsClassValue = getClassCacheMap(localDescs);
+                reflectorsClassValue = getClassCacheMap(reflectors);
+            }
+        } catch (Exception e) {
+            LOGGER.error("java.io.ObjectStreamClass$Caches not accessible, eviction disabled. {}", e.getMessage());
+        }
+    }
+
+    /**
+     * Evict cache entries of the classes and their subclasses.
+     *
+     * @param classes the redefined classes
+     */
+    void evict(Collection<Class<?>> classes) {
+        if (classes.isEmpty()) {
+            return;
+        }
+        Set<Class<?>> affected = withLoadedSubclasses(classes);
+        LOGGER.debug("Flushing {} classes from Introspector and ObjectStreamClass caches", affected.size());
+        doEvictIntrospector(affected);
+        doEvictObjectStream(affected);
+    }
+
+    private void doEvictIntrospector(Set<Class<?>> affected) {
+        if (threadGroupContexts == null) {
+            return;
+        }
+        try {
+            synchronized (threadGroupContexts) {
+                Object[] table = (Object[]) contextsTableField.get(threadGroupContexts);
+                if (table != null) {
+                    for (Object entry : table) {
+                        for (; entry != null; entry = entryNextField.get(entry)) {
+                            resolveEntryFields(entry);
+                            Object threadGroupContext = entryValueField.get(entry);
+                            if (threadGroupContext != null) {
+                                for (Class<?> clazz : affected) {
+                                    removeBeanInfoMethod.invoke(threadGroupContext, clazz);
+                                }
+                            }
+                        }
+                    }
+                }
+            }
+            for (Class<?> clazz : affected) {
+                flushFromCachesMethod.invoke(null, clazz);
+            }
+        } catch (Exception e) {
+            LOGGER.error("Introspector cache eviction failed. {}", e.getMessage());
+        }
+    }
+
+    private void doEvictObjectStream(Set<Class<?>> affected) {
+        try {
+            if (localDescsMap != null) {
+                removeByClassKey(localDescsMap, affected);
+                removeByClassKey(reflectorsMap, affected);
+            } else if (localDescsClassValue != null) {
+                for (Class<?> clazz : affected) {
+                    localDescsClassValue.remove(clazz);
+                    reflectorsClassValue.remove(clazz);
+                }
+            }
+        } catch (Exception e) {
+            LOGGER.error("ObjectStreamClass cache eviction failed. {}", e.getMessage());
+        }
+    }
+
+    // java < 17: keys are WeakClassKey / FieldReflectorKey, both weak references to the class
+    private static void removeByClassKey(Map<?, ?> map, Set<Class<?>> affected) {
+        for (Iterator<?> it = map.keySet().iterator(); it.hasNext(); ) {
+            Object key = it.next();
+            if (key instanceof Reference && affected.contains(((Reference<?>) key).get())) {
+                it.remove();
+            }
+        }
+    }
+
+    /*
+     * Cached metadata of a subclass contains metadata of its superclasses (e.g. superclass descriptor
+     * of ObjectStreamClass, inherited properties of BeanInfo), so loaded subclasses are evicted too.
+     */
+    private static Set<Class<?>> withLoadedSubclasses(Collection<Class<?>> classes) {
+        Set<Class<?>> result = new HashSet<>(classes);
+        Set<Class<?>> superClasses = new HashSet<>();
+        for (Class<?> clazz : classes) {
+            if (!Modifier.isFinal(clazz.getModifiers())) {
+                superClasses.add(clazz);
+            }
+        }
+        Instrumentation instrumentation = PluginManager.getInstance().getInstrumentation();
+        if (superClasses.isEmpty() || instrumentation == null) {
+            return result;
+        }
+        for (Class<?> loaded : instrumentation.getAllLoadedClasses()) {
+            if (loaded.isPrimitive() || loaded.isArray() || result.contains(loaded)) {
+                continue;
+            }
+            for (Class<?> superClass : superClasses) {
+                if (superClass.isAssignableFrom(loaded)) {
+                    result.add(loaded);
+                    break;
+                }
+            }
+        }
+        return result;
+    }
+
+    // WeakIdentityMap.Entry is resolved from the first entry found in the table
+    private void resolveEntryFields(Object entry) throws NoSuchFieldException {
+        if (entryValueField == null) {
+            Field valueField = findField(entry.getClass(), "value");
+            Field nextField = findField(entry.getClass(), "next");
+            valueField.setAccessible(true);
+            nextField.setAccessible(true);
+            entryNextField = nextField;
+            entryValueField = valueField;
+        }
+    }
+
+    private static Object getStaticField(Class<?> clazz, String name) throws Exception {
+        Field field = clazz.getDeclaredField(name);
+        field.setAccessible(true);
+        return field.get(null);
+    }
+
+    private static ClassValue<?> getClassCacheMap(Object classCache) throws Exception {
+        Field mapField = findField(classCache.getClass(), "map");
+        mapField.setAccessible(true);
+        return (ClassValue<?>) mapField.get(classCache);
+    }
+
+    private static Field findField(Class<?> clazz, String name) throws NoSuchFieldException {
+        for (Class<?> c = clazz; c != null; c = c.getSuperclass()) {
+            try {
+                return c.getDeclaredField(name);
+            } catch (NoSuchFieldException e) {
+                // continue with superclass
+            }
+        }
+        throw new NoSuchFieldException(name);
+    }
+}
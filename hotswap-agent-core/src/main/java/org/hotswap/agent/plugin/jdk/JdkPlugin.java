@@ -18,15 +18,18 @@
  */
 package org.hotswap.agent.plugin.jdk;
 
-import java.util.Map;
+import java.util.ArrayList;
+import java.util.Collection;
+import java.util.List;
+import java.util.Set;
+import java.util.concurrent.ConcurrentHashMap;
 
 import org.hotswap.agent.annotation.LoadEvent;
 import org.hotswap.agent.annotation.OnClassLoadEvent;
 import org.hotswap.agent.annotation.Plugin;
-import org.hotswap.agent.javassist.CtClass;
-import org.hotswap.agent.javassist.bytecode.ClassFile;
+import org.hotswap.agent.command.Command;
+import org.hotswap.agent.config.PluginManager;
 import org.hotswap.agent.logging.AgentLogger;
-import org.hotswap.agent.util.ReflectionHelper;
 
 /**
  * JdkPlugin plugin
@@ -36,6 +39,9 @@ import org.hotswap.agent.util.ReflectionHelper;
  *  <li> flush java.beans.Introspector caches
  *  <li> flush ObjectStream caches
  * </ul>
+ * Only entries of redefined classes and their loaded subclasses are flushed. Classes redefined together are
+ * collected and flushed by a single scheduled command after the redefinition.
+ *
  *  @author Vladimir Dvorak
  */
 @Plugin(name = "JdkPlugin",
@@ -53,81 +59,64 @@ public class JdkPlugin {
      */
     public static boolean reloadFlag;
 
-    @OnClassLoadEvent(classNameRegexp = ".*", events = LoadEvent.REDEFINE, skipSynthetic=false)
-    public static void flushBeanIntrospectorCaches(ClassLoader classLoader, CtClass ctClass) {
-        try {
-            LOGGER.debug("Flushing {} from introspector", ctClass.getName());
-
-            Class<?> clazz = classLoader.loadClass(ctClass.getName());
-            Class<?> threadGroupCtxClass = classLoader.loadClass("java.beans.ThreadGroupContext");
-            Class<?> introspectorClass = classLoader.loadClass("java.beans.Introspector");
+    // wait for other classes of the same redefinition before flushing
+    private static final int WAIT_ON_REDEFINE = 50;
 
-            synchronized (classLoader) {
-                Object contexts = ReflectionHelper.get(null, threadGroupCtxClass, "contexts");
-                Object table[] = (Object[]) ReflectionHelper.get(contexts, "table");
-
-                if (table != null) {
-                    for (Object o: table) {
-                        if (o != null) {
-                            Object threadGroupContext = ReflectionHelper.get(o, "value");
-                            if (threadGroupContext != null) {
-                                LOGGER.trace("Removing from threadGroupContext");
-                                ReflectionHelper.invoke(threadGroupContext, threadGroupCtxClass, "removeBeanInfo",
-                                        new Class[] { Class.class }, clazz);
-                            }
-                        }
-                    }
-                }
+    // redefined classes waiting for the flush command
+    private static final Set<Class<?>> redefinedClasses = ConcurrentHashMap.newKeySet();
 
-                ReflectionHelper.invoke(null, introspectorClass, "flushFromCaches",
-                    new Class[] { Class.class }, clazz);
+    private static final Command FLUSH_CACHES_COMMAND = new Command() {
+        @Override
+        public void executeCommand() {
+            try {
+                List<Class<?>> classes = new ArrayList<>(redefinedClasses);
+                redefinedClasses.removeAll(classes);
+                getEvictor().evict(classes);
+            } finally {
+                reloadFlag = false;
             }
-        } catch (Exception e) {
-            LOGGER.error("flushBeanIntrospectorCaches() exception {}.", e.getMessage());
-        } finally {
-            reloadFlag = false;
         }
-    }
 
-    @OnClassLoadEvent(classNameRegexp = ".*", events = LoadEvent.REDEFINE, skipSynthetic=false)
-    public static void flushObjectStreamCaches(ClassLoader classLoader, CtClass ctClass) {
-        Class<?> clazz;
-        Object localDescs;
-        Object reflectors;
-        try {
-            LOGGER.debug("Flushing {} from ObjectStreamClass caches", ctClass.getName());
-
-            clazz = classLoader.loadClass(ctClass.getName());
-            Class<?> objectStreamClassCache = classLoader.loadClass("java.io.ObjectStreamClass$Caches");
+        @Override
+        public String toString() {
+            return "JdkPlugin.FlushCachesCommand";
+        }
+    };
 
-            localDescs = ReflectionHelper.get(null, objectStreamClassCache, "localDescs");
-            reflectors = ReflectionHelper.get(null, objectStreamClassCache, "reflectors");
+    private static volatile JdkCacheEvictor evictor;
 
-        } catch (Exception e) {
-            LOGGER.error("flushObjectStreamCaches() java.io.ObjectStreamClass$Caches not found.", e.getMessage());
+    @OnClassLoadEvent(classNameRegexp = ".*", events = LoadEvent.REDEFINE, skipSynthetic=false)
+    public static void flushCaches(Class<?> classBeingRedefined) {
+        if (classBeingRedefined == null) {
             return;
         }
+        LOGGER.trace("Scheduling flush of {} from Introspector and ObjectStreamClass caches", classBeingRedefined.getName());
+        redefinedClasses.add(classBeingRedefined);
+        PluginManager.getInstance().getScheduler().scheduleCommand(FLUSH_CACHES_COMMAND, WAIT_ON_REDEFINE);
+    }
 
-        boolean java17;
-
-        try {
-            ((Map) localDescs).clear();
-            ((Map) reflectors).clear();
-            java17 = false;
-        } catch (Exception e) {
-            java17 = true;
-        }
+    /**
+     * Schedule flush of cache entries of the classes (and their subclasses) together with classes of the current
+     * redefinition. Used by other plugins for classes affected by a redefinition but not redefined themselves.
+     *
+     * @param classes the classes
+     */
+    public static void scheduleFlushCaches(Collection<Class<?>> classes) {
+        redefinedClasses.addAll(classes);
+        PluginManager.getInstance().getScheduler().scheduleCommand(FLUSH_CACHES_COMMAND, WAIT_ON_REDEFINE);
+    }
 
-        if (java17) {
-            try {
-                Object localDescsMap = ReflectionHelper.get(localDescs, "map");
-                ReflectionHelper.invoke(localDescsMap, localDescsMap.getClass(), "remove", new Class[] { Class.class }, clazz);
-                Object reflectorsMap = ReflectionHelper.get(reflectors, "map");
-                ReflectionHelper.invoke(reflectorsMap, reflectorsMap.getClass(), "remove", new Class[] { Class.class }, clazz);
-            } catch (Exception e) {
-                LOGGER.error("flushObjectStreamCaches() exception {}.", e.getMessage());
+    private static JdkCacheEvictor getEvictor() {
+        JdkCacheEvictor result = evictor;
+        if (result == null) {
+            synchronized (JdkPlugin.class) {
+                result = evictor;
+                if (result == null) {
+                    result = new JdkCacheEvictor();
+                    evictor = result;
+                }
             }
         }
+        return result;
     }
-
 }
@@ -0,0 +1,193 @@
+/*
+ * Copyright 2013-2023 the HotswapAgent authors.
+ *
+ * This file is part of HotswapAgent.
+ *
+ * HotswapAgent is free software: you can redistribute it and/or modify it
+ * under the terms of the GNU General Public License as published by the
+ * Free Software Foundation, either version 2 of the License, or (at your
+ * option) any later version.
+ *
+ * HotswapAgent is distributed in the hope that it will be useful, but
+ * WITHOUT ANY WARRANTY; without even the implied warranty of
+ * MERCHANTABILITY or FITNESS FOR A PARTICULAR PURPOSE. See the GNU General
+ * Public License for more details.
+ *
+ * You should have received a copy of the GNU General Public License along
+ * with HotswapAgent. If not, see http://www.gnu.org/licenses/.
+ */
+package org.hotswap.agent.plugin.jvm;
+
+import java.util.HashSet;
+import java.util.Set;
+
+import org.hotswap.agent.util.ClassFileReader;
+
+/**
+ * Minimal class file reader for anonymous class state.
+ * <p/>
+ * Reads only the parts of a class file needed by AnonymousClassInfos - class name, superclass, interfaces, member
+ * descriptors and InnerClasses/EnclosingMethod attributes. Unlike CtClass, referenced types are not resolved
+ * from the ClassPool, type names are taken from descriptors. Produces same signatures as
+ * {@link AnonymousClassInfo#AnonymousClassInfo(org.hotswap.agent.javassist.CtClass)}.
+ */
+public class AnonymousClassFileReader extends ClassFileReader {
+
+    private AnonymousClassFileReader(byte[] b) {
+        super(b);
+    }
+
+    /**
+     * Read anonymous class info (class, methods, fields and enclosing method signatures) from class file bytes.
+     *
+     * @param classFile class file bytes
+     * @return the info
+     */
+    public static AnonymousClassInfo readAnonymousClassInfo(byte[] classFile) {
+        return new AnonymousClassFileReader(classFile).toAnonymousClassInfo();
+    }
+
+    /**
+     * Read names of immediate nested classes declared in InnerClasses attribute (the same rule as
+     * CtClass.getNestedClasses()).
+     *
+     * @param classFile class file bytes
+     * @return java names of nested classes
+     */
+    public static Set<String> readNestedClassNames(byte[] classFile) {
+        return new AnonymousClassFileReader(classFile).getNestedClassNames();
+    }
+
+    private AnonymousClassInfo toAnonymousClassInfo() {
+        String className = getClassName(readUnsignedShort(header + 2));
+
+        int superIndex = readUnsignedShort(header + 4);
+        StringBuilder classSignature = new StringBuilder(superIndex == 0 ? "java.lang.Object" : getClassName(superIndex));
+        int interfacesCount = readUnsignedShort(header + 6);
+        int offset = header + 8;
+        for (int i = 0; i < interfacesCount; i++, offset += 2) {
+            classSignature.append(";");
+            classSignature.append(getClassName(readUnsignedShort(offset)));
+        }
+
+        StringBuilder fieldsSignature = new StringBuilder();
+        int fieldsCount = readUnsignedShort(offset);
+        offset += 2;
+        for (int i = 0; i < fieldsCount; i++) {
+            appendTypeName(fieldsSignature, getUtf8(readUnsignedShort(offset + 4)), 0);
+            fieldsSignature.append(" ");
+            fieldsSignature.append(getUtf8(readUnsignedShort(offset + 2)));
+            fieldsSignature.append(";");
+            offset = skipAttributes(offset + 6);
+        }
+
+        StringBuilder methodsSignature = new StringBuilder();
+        int methodsCount = readUnsignedShort(offset);
+        offset += 2;
+        for (int i = 0; i < methodsCount; i++) {
+            String name = getUtf8(readUnsignedShort(offset + 2));
+            if (!"<init>".equals(name) && !"<clinit>".equals(name)) {
+                appendMethodSignature(methodsSignature, name, getUtf8(readUnsignedShort(offset + 4)));
+            }
+            offset = skipAttributes(offset + 6);
+        }
+
+        StringBuilder enclosingMethodSignature = new StringBuilder();
+        int attribute = findAttribute(offset, "EnclosingMethod");
+        if (attribute != 0) {
+            int nameAndType = readUnsignedShort(attribute + 2);
+            // enclosing constructor or initializer is not a CtMethod, signature remains empty
+            if (nameAndType != 0) {
+                String name = getUtf8(readUnsignedShort(getConstantOffset(nameAndType)));
+                if (!"<init>".equals(name) && !"<clinit>".equals(name)) {
+                    appendMethodSignature(enclosingMethodSignature, name,
+                            getUtf8(readUnsignedShort(getConstantOffset(nameAndType) + 2)));
+                }
+            }
+        }
+
+        return new AnonymousClassInfo(className, classSignature.toString(), methodsSignature.toString(),
+                fieldsSignature.toString(), enclosingMethodSignature.toString());
+    }
+
+    private Set<String> getNestedClassNames() {
+        Set<String> result = new HashSet<>();
+        int attribute = findAttribute(getAttributesOffset(), "InnerClasses");
+        if (attribute == 0) {
+            return result;
+        }
+        String thisName = getClassName(readUnsignedShort(header + 2)) + "$";
+        int count = readUnsignedShort(attribute);
+        for (int i = 0, offset = attribute + 2; i < count; i++, offset += 8) {
+            int innerIndex = readUnsignedShort(offset);
+            if (innerIndex != 0) {
+                String name = getClassName(innerIndex);
+                // if it is an immediate nested class
+                if (name.startsWith(thisName) && name.lastIndexOf('$') < thisName.length()) {
+                    result.add(name);
+                }
+            }
+        }
+        return result;
+    }
+
+    private static void appendMethodSignature(StringBuilder sb, String name, String descriptor) {
+        int returnType = descriptor.indexOf(')') + 1;
+        appendTypeName(sb, descriptor, returnType);
+        sb.append(" ");
+        sb.append(name);
+        sb.append("(");
+        for (int i = 1; i < returnType - 1; ) {
+            i = appendTypeName(sb, descriptor, i);
+        }
+        sb.append(")");
+        sb.append(";");
+    }
+
+    // append java type name of the descriptor type at index, return index of the next type
+    private static int appendTypeName(StringBuilder sb, String descriptor, int index) {
+        int dimensions = 0;
+        while (descriptor.charAt(index) == '[') {
+            dimensions++;
+            index++;
+        }
+        char c = descriptor.charAt(index);
+        if (c == 'L') {
+            int end = descriptor.indexOf(';', index);
+            sb.append(descriptor, index + 1, end);
+            replaceSlashes(sb, sb.length() - (end - index - 1));
+            index = end + 1;
+        } else {
+            sb.append(primitiveName(c));
+            index++;
+        }
+        for (int i = 0; i < dimensions; i++) {
+            sb.append("[]");
+        }
+        return index;
+    }
+
+    private static void replaceSlashes(StringBuilder sb, int from) {
+        for (int i = from; i < sb.length(); i++) {
+            if (sb.charAt(i) == '/') {
+                sb.setCharAt(i, '.');
+            }
+        }
+    }
+
+    private static String primitiveName(char c) {
+        switch (c) {
+            case 'Z': return "boolean";
+            case 'B': return "byte";
+            case 'C': return "char";
+            case 'S': return "short";
+            case 'I': return "int";
+            case 'J': return "long";
+            case 'F': return "float";
+            case 'D': return "double";
+            case 'V': return "void";
+            default:
+                throw new IllegalArgumentException("Invalid descriptor type " + c);
+        }
+    }
+}
@@ -81,6 +81,15 @@ public class AnonymousClassInfo {
         this.className = className;
     }
 
+    AnonymousClassInfo(String className, String classSignature, String methodSignature, String fieldsSignature,
+                       String enclosingMethodSignature) {
+        this.className = className;
+        this.classSignature = classSignature;
+        this.methodSignature = methodSignature;
+        this.fieldsSignature = fieldsSignature;
+        this.enclosingMethodSignature = enclosingMethodSignature;
+    }
+
     private void getMethodSignature(StringBuilder methodsSignature, Method m) {
         methodsSignature.append(m.getReturnType().getName());
         methodsSignature.append(" ");
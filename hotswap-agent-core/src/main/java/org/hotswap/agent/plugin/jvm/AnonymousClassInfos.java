@@ -19,12 +19,13 @@
 package org.hotswap.agent.plugin.jvm;
 
 import org.hotswap.agent.javassist.ClassPool;
-import org.hotswap.agent.javassist.CtClass;
-import org.hotswap.agent.javassist.NotFoundException;
 import org.hotswap.agent.logging.AgentLogger;
+import org.hotswap.agent.util.IOUtils;
+import org.hotswap.agent.util.classloader.ClassLoaderHelper;
 
 import java.io.File;
-import java.lang.reflect.Method;
+import java.io.IOException;
+import java.net.URL;
 import java.util.*;
 
 /**
@@ -32,9 +33,10 @@ import java.util.*;
  * <p/>
  * This class will on construction search for all anonymous classes of the main class and calculate
  * superclass, interfaces, all methods signature and all fields signature. Depending on used constructor
- * this is done via reflection from ClassLoader (current loaded state) or from ClassPool via javaassist.
+ * this is done via reflection from ClassLoader (current loaded state) or from class files found by ClassPool.
  * Note that ClassPool uses LoadClassPath on the ClassLoader and hence are resources resolved via the
- * ClassLoader. Javaasist resolves the resource and returns bytcode as is in the resource file.
+ * ClassLoader. Class files are read by AnonymousClassFileReader without creating CtClasses, results are
+ * cached per class file and validated by the file modification time.
  * <p/>
  * Use mapPreviousState() to create compatible transition mapping between old state and new state. This mapping
  * is then used by plugin to swap class bytecoded to retain hotswap changes compatible
@@ -53,6 +55,13 @@ public class AnonymousClassInfos {
     // counter to create uniqueue class name
     static int uniqueClass = UNIQUE_CLASS_START_INDEX;
 
+    // max number of cached class files, the cache is cleared when exceeded
+    private static final int MAX_CACHED_CLASS_FILES = 1000;
+
+    // class file URL -> parsed anonymous class info / nested class names of a main class
+    private static final Map<String, CachedClassFile<AnonymousClassInfo>> anonymousClassFileCache = new HashMap<>();
+    private static final Map<String, CachedClassFile<Set<String>>> nestedClassNamesCache = new HashMap<>();
+
     // previous state
     AnonymousClassInfos previous;
 
@@ -78,14 +87,11 @@ public class AnonymousClassInfos {
         this.className = className;
 
         try {
-            // reflective call to check already loaded class (not to load a new one)
-            Method m = ClassLoader.class.getDeclaredMethod("findLoadedClass", new Class[]{String.class});
-            m.setAccessible(true);
-
             int i = 1;
             while (true) {
 
-                Class anonymous = (Class) m.invoke(classLoader, className + "$" + i);
+                // check already loaded class (not to load a new one)
+                Class anonymous = ClassLoaderHelper.findLoadedClass(classLoader, className + "$" + i);
                 if (anonymous == null)
                     break;
 
@@ -98,43 +104,92 @@ public class AnonymousClassInfos {
     }
 
     /**
-     * Create info of the new state from the classPool via javassist.
+     * Create info of the new state from class files resolved by the classPool.
      *
      * @param classPool classPool to resolve class files
      * @param className main class
      */
     public AnonymousClassInfos(ClassPool classPool, String className) {
         this.className = className;
-        lastModifiedTimestamp = lastModified(classPool, className);
 
-        // search for declared classes in new state to skip obsolete anonymous inner classes on filesystem
-        List<CtClass> declaredClasses;
-        try {
-            CtClass ctClass = classPool.get(className);
-            declaredClasses = Arrays.asList(ctClass.getNestedClasses());
-        } catch (NotFoundException e) {
+        URL mainClassUrl = classPool.find(className);
+        if (mainClassUrl == null) {
             throw new IllegalArgumentException("Class " + className + " not found.");
         }
+        lastModifiedTimestamp = lastModified(mainClassUrl);
 
+        // search for declared classes in new state to skip obsolete anonymous inner classes on filesystem
+        Set<String> declaredClasses;
+        try {
+            declaredClasses = readNestedClassNames(mainClassUrl);
+        } catch (IOException e) {
+            throw new IllegalArgumentException("Class " + className + " not found.", e);
+        }
 
         int i = 1;
         while (true) {
+            String anonymousName = className + "$" + i;
+            if (!declaredClasses.contains(anonymousName))
+                break; // skip obsolete classes
+            URL anonymousUrl = classPool.find(anonymousName);
+            // up to first not found class
+            if (anonymousUrl == null)
+                break;
             try {
-                CtClass anonymous = classPool.get(className + "$" + i);
-                if (!declaredClasses.contains(anonymous))
-                    break; // skip obsolete classes
-                anonymousClassInfoList.add(i - 1, new AnonymousClassInfo(anonymous));
+                anonymousClassInfoList.add(i - 1, readAnonymousClassInfo(anonymousUrl));
                 i++;
-            } catch (NotFoundException e) {
-                // up to first not found class
-                break;
             } catch (Exception e) {
-                throw new Error("Unable to create AnonymousClassInfo definition for class " + className + "$i", e);
+                throw new Error("Unable to create AnonymousClassInfo definition for class " + anonymousName, e);
             }
         }
         LOGGER.trace("Anonymous class '{}' scan finished with {} classes found", className, i - 1);
     }
 
+    private static Set<String> readNestedClassNames(URL url) throws IOException {
+        synchronized (nestedClassNamesCache) {
+            Set<String> nestedClassNames = getCached(nestedClassNamesCache, url);
+            if (nestedClassNames == null) {
+                nestedClassNames = AnonymousClassFileReader.readNestedClassNames(readClassFile(url));
+                putCached(nestedClassNamesCache, url, nestedClassNames);
+            }
+            return nestedClassNames;
+        }
+    }
+
+    private static AnonymousClassInfo readAnonymousClassInfo(URL url) throws IOException {
+        synchronized (anonymousClassFileCache) {
+            AnonymousClassInfo info = getCached(anonymousClassFileCache, url);
+            if (info == null) {
+                info = AnonymousClassFileReader.readAnonymousClassInfo(readClassFile(url));
+                putCached(anonymousClassFileCache, url, info);
+            }
+            return info;
+        }
+    }
+
+    private static byte[] readClassFile(URL url) throws IOException {
+        return IOUtils.toByteArray(url.openStream());
+    }
+
+    private static <T> T getCached(Map<String, CachedClassFile<T>> cache, URL url) {
+        CachedClassFile<T> cached = cache.get(url.toExternalForm());
+        if (cached != null && cached.lastModified == lastModified(url)) {
+            return cached.value;
+        }
+        return null;
+    }
+
+    // only class files with known modification time are cached
+    private static <T> void putCached(Map<String, CachedClassFile<T>> cache, URL url, T value) {
+        long lastModified = lastModified(url);
+        if (lastModified != 0) {
+            if (cache.size() >= MAX_CACHED_CLASS_FILES) {
+                cache.clear();
+            }
+            cache.put(url.toExternalForm(), new CachedClassFile<>(lastModified, value));
+        }
+    }
+
     /**
      * Search for a mapping between previous and nwe anonymous classes.
      *
@@ -267,8 +322,22 @@ public class AnonymousClassInfos {
 
     // get timestamp on the main class file
     private long lastModified(ClassPool classPool, String className) {
-        String file = classPool.find(className).getFile();
-        return new File(file).lastModified();
+        return lastModified(classPool.find(className));
+    }
+
+    // 0 for non file URL (e.g. class in JAR)
+    private static long lastModified(URL url) {
+        return new File(url.getFile()).lastModified();
+    }
+
+    private static class CachedClassFile<T> {
+        final long lastModified;
+        final T value;
+
+        CachedClassFile(long lastModified, T value) {
+            this.lastModified = lastModified;
+            this.value = value;
+        }
     }
 
     // matcher helper
@@ -0,0 +1,211 @@
+/*
+ * Copyright 2013-2023 the HotswapAgent authors.
+ *
+ * This file is part of HotswapAgent.
+ *
+ * HotswapAgent is free software: you can redistribute it and/or modify it
+ * under the terms of the GNU General Public License as published by the
+ * Free Software Foundation, either version 2 of the License, or (at your
+ * option) any later version.
+ *
+ * HotswapAgent is distributed in the hope that it will be useful, but
+ * WITHOUT ANY WARRANTY; without even the implied warranty of
+ * MERCHANTABILITY or FITNESS FOR A PARTICULAR PURPOSE. See the GNU General
+ * Public License for more details.
+ *
+ * You should have received a copy of the GNU General Public License along
+ * with HotswapAgent. If not, see http://www.gnu.org/licenses/.
+ */
+package org.hotswap.agent.util;
+
+import java.nio.charset.StandardCharsets;
+
+/**
+ * Base of lightweight class file readers working directly on class file bytes.
+ * <p/>
+ * Only the constant pool is indexed on creation, subclasses read the parts of the class file they need by offset.
+ * No ClassPool or CtClass is involved.
+ *
+ * @see ClassFileSummary
+ * @see org.hotswap.agent.plugin.jvm.AnonymousClassFileReader
+ */
+public abstract class ClassFileReader {
+
+    private static final int MAGIC = 0xCAFEBABE;
+
+    protected final byte[] b;
+
+    // offset of each constant pool entry (after the tag byte)
+    private final int[] cpOffsets;
+
+    // offset of access_flags following the constant pool
+    protected final int header;
+
+    /**
+     * Index the constant pool.
+     *
+     * @param b class file bytes
+     * @throws IllegalArgumentException if the bytes are not a valid class file
+     */
+    protected ClassFileReader(byte[] b) {
+        this.b = b;
+        if (readInt(0) != MAGIC) {
+            throw new IllegalArgumentException("Not a class file.");
+        }
+        int count = readUnsignedShort(8);
+        cpOffsets = new int[count];
+        int offset = 10;
+        for (int i = 1; i < count; i++) {
+            cpOffsets[i] = offset + 1;
+            switch (b[offset]) {
+                case 1: // Utf8
+                    offset += 3 + readUnsignedShort(offset + 1);
+                    break;
+                case 7: // Class
+                case 8: // String
+                case 16: // MethodType
+                case 19: // Module
+                case 20: // Package
+                    offset += 3;
+                    break;
+                case 15: // MethodHandle
+                    offset += 4;
+                    break;
+                case 3: // Integer
+                case 4: // Float
+                case 9: // Fieldref
+                case 10: // Methodref
+                case 11: // InterfaceMethodref
+                case 12: // NameAndType
+                case 17: // Dynamic
+                case 18: // InvokeDynamic
+                    offset += 5;
+                    break;
+                case 5: // Long
+                case 6: // Double
+                    offset += 9;
+                    i++;
+                    break;
+                default:
+                    throw new IllegalArgumentException("Unknown constant pool tag " + b[offset] + " at " + offset);
+            }
+        }
+        header = offset;
+    }
+
+    /**
+     * @return offset of fields_count, following the interfaces
+     */
+    protected int getFieldsOffset() {
+        return header + 8 + 2 * readUnsignedShort(header + 6);
+    }
+
+    /**
+     * @return offset of the class attributes_count, following fields and methods
+     */
+    protected int getAttributesOffset() {
+        return skipMembers(skipMembers(getFieldsOffset()));
+    }
+
+    /**
+     * @param offset offset of attributes_count
+     * @param attributeName attribute name
+     * @return offset of the attribute info, 0 if not found
+     */
+    protected int findAttribute(int offset, String attributeName) {
+        int count = readUnsignedShort(offset);
+        offset += 2;
+        for (int i = 0; i < count; i++) {
+            if (attributeName.equals(getUtf8(readUnsignedShort(offset)))) {
+                return offset + 6;
+            }
+            offset += 6 + readInt(offset + 2);
+        }
+        return 0;
+    }
+
+    /**
+     * @param offset offset of fields_count or methods_count
+     * @return offset following the members
+     */
+    protected int skipMembers(int offset) {
+        int count = readUnsignedShort(offset);
+        offset += 2;
+        for (int i = 0; i < count; i++) {
+            offset = skipAttributes(offset + 6);
+        }
+        return offset;
+    }
+
+    /**
+     * @param offset offset of attributes_count
+     * @return offset following the attributes
+     */
+    protected int skipAttributes(int offset) {
+        int count = readUnsignedShort(offset);
+        offset += 2;
+        for (int i = 0; i < count; i++) {
+            offset += 6 + readInt(offset + 2);
+        }
+        return offset;
+    }
+
+    /**
+     * @param index constant pool index
+     * @return offset of the constant pool entry (after the tag byte)
+     */
+    protected int getConstantOffset(int index) {
+        return cpOffsets[index];
+    }
+
+    /**
+     * @param classIndex constant pool index of a Class entry
+     * @return java name of the class (a.b.C)
+     */
+    protected String getClassName(int classIndex) {
+        return getUtf8(readUnsignedShort(cpOffsets[classIndex])).replace('/', '.');
+    }
+
+    /**
+     * Class file strings are modified UTF-8, plain ASCII (the usual case) is decoded directly.
+     *
+     * @param index constant pool index of an Utf8 entry
+     * @return the string
+     */
+    protected String getUtf8(int index) {
+        int offset = cpOffsets[index];
+        int length = readUnsignedShort(offset);
+        int start = offset + 2;
+        for (int i = start; i < start + length; i++) {
+            if (b[i] <= 0) {
+                return decodeModifiedUtf8(start, length);
+            }
+        }
+        return new String(b, start, length, StandardCharsets.ISO_8859_1);
+    }
+
+    private String decodeModifiedUtf8(int start, int length) {
+        char[] chars = new char[length];
+        int count = 0;
+        for (int i = start; i < start + length; ) {
+            int c = b[i++] & 0xff;
+            if (c < 0x80) {
+                chars[count++] = (char) c;
+            } else if (c < 0xe0) {
+                chars[count++] = (char) (((c & 0x1f) << 6) | (b[i++] & 0x3f));
+            } else {
+                chars[count++] = (char) (((c & 0x0f) << 12) | ((b[i++] & 0x3f) << 6) | (b[i++] & 0x3f));
+            }
+        }
+        return new String(chars, 0, count);
+    }
+
+    protected int readUnsignedShort(int offset) {
+        return ((b[offset] & 0xff) << 8) | (b[offset + 1] & 0xff);
+    }
+
+    protected int readInt(int offset) {
+        return ((b[offset] & 0xff) << 24) | ((b[offset + 1] & 0xff) << 16) | ((b[offset + 2] & 0xff) << 8)
+                | (b[offset + 3] & 0xff);
+    }
+}
@@ -0,0 +1,190 @@
+/*
+ * Copyright 2013-2023 the HotswapAgent authors.
+ *
+ * This file is part of HotswapAgent.
+ *
+ * HotswapAgent is free software: you can redistribute it and/or modify it
+ * under the terms of the GNU General Public License as published by the
+ * Free Software Foundation, either version 2 of the License, or (at your
+ * option) any later version.
+ *
+ * HotswapAgent is distributed in the hope that it will be useful, but
+ * WITHOUT ANY WARRANTY; without even the implied warranty of
+ * MERCHANTABILITY or FITNESS FOR A PARTICULAR PURPOSE. See the GNU General
+ * Public License for more details.
+ *
+ * You should have received a copy of the GNU General Public License along
+ * with HotswapAgent. If not, see http://www.gnu.org/licenses/.
+ */
+package org.hotswap.agent.util;
+
+import java.util.ArrayList;
+import java.util.Collections;
+import java.util.List;
+
+/**
+ * Class level properties read directly from class file bytes - access flags, class name, superclass, interfaces
+ * and runtime visible class annotations.
+ * <p/>
+ * Only the constant pool and the class attributes are read, fields and methods are skipped. It is used to filter
+ * classes before a CtClass is created, e.g. by {@link org.hotswap.agent.annotation.OnClassLoadEvent#annotations()}.
+ */
+public class ClassFileSummary {
+
+    private final int accessFlags;
+    private final String className;
+    private final String superclassName;
+    private final List<String> interfaces;
+    private final List<String> annotations;
+
+    private ClassFileSummary(int accessFlags, String className, String superclassName, List<String> interfaces,
+                             List<String> annotations) {
+        this.accessFlags = accessFlags;
+        this.className = className;
+        this.superclassName = superclassName;
+        this.interfaces = interfaces;
+        this.annotations = annotations;
+    }
+
+    /**
+     * Read the summary from class file bytes.
+     *
+     * @param classFile class file bytes
+     * @return the summary
+     * @throws IllegalArgumentException if the bytes are not a valid class file
+     */
+    public static ClassFileSummary read(byte[] classFile) {
+        try {
+            return new Reader(classFile).read();
+        } catch (ArrayIndexOutOfBoundsException e) {
+            throw new IllegalArgumentException("Truncated class file.", e);
+        }
+    }
+
+    /**
+     * @return class access flags (see javassist AccessFlag)
+     */
+    public int getAccessFlags() {
+        return accessFlags;
+    }
+
+    /**
+     * @return java name of the class (a.b.C)
+     */
+    public String getClassName() {
+        return className;
+    }
+
+    /**
+     * @return java name of the superclass, null for java.lang.Object
+     */
+    public String getSuperclassName() {
+        return superclassName;
+    }
+
+    /**
+     * @return java names of directly implemented interfaces
+     */
+    public List<String> getInterfaces() {
+        return interfaces;
+    }
+
+    /**
+     * @return java names of runtime visible class annotations
+     */
+    public List<String> getAnnotations() {
+        return annotations;
+    }
+
+    /**
+     * Same as {@link AnnotationHelper#hasAnnotation(Class, String)} - only annotations declared on the class.
+     *
+     * @param annotationClass annotation class name
+     * @return true if the class is annotated
+     */
+    public boolean hasAnnotation(String annotationClass) {
+        return annotations.contains(annotationClass);
+    }
+
+    @Override
+    public String toString() {
+        return "ClassFileSummary{" +
+                "className='" + className + '\'' +
+                ", superclassName='" + superclassName + '\'' +
+                ", interfaces=" + interfaces +
+                ", annotations=" + annotations +
+                '}';
+    }
+
+    private static class Reader extends ClassFileReader {
+
+        Reader(byte[] b) {
+            super(b);
+        }
+
+        ClassFileSummary read() {
+            int accessFlags = readUnsignedShort(header);
+            String className = getClassName(readUnsignedShort(header + 2));
+            int superIndex = readUnsignedShort(header + 4);
+            String superclassName = superIndex == 0 ? null : getClassName(superIndex);
+
+            int interfacesCount = readUnsignedShort(header + 6);
+            List<String> interfaces = new ArrayList<>(interfacesCount);
+            int offset = header + 8;
+            for (int i = 0; i < interfacesCount; i++, offset += 2) {
+                interfaces.add(getClassName(readUnsignedShort(offset)));
+            }
+
+            List<String> annotations = Collections.emptyList();
+            // fields and methods are skipped
+            int attribute = findAttribute(skipMembers(skipMembers(offset)), "RuntimeVisibleAnnotations");
+            if (attribute != 0) {
+                annotations = readAnnotationTypes(attribute);
+            }
+
+            return new ClassFileSummary(accessFlags, className, superclassName,
+                    Collections.unmodifiableList(interfaces), Collections.unmodifiableList(annotations));
+        }
+
+        private List<String> readAnnotationTypes(int offset) {
+            int count = readUnsignedShort(offset);
+            List<String> result = new ArrayList<>(count);
+            offset += 2;
+            for (int i = 0; i < count; i++) {
+                String descriptor = getUtf8(readUnsignedShort(offset));
+                // Lx/y/Z;
+                result.add(descriptor.substring(1, descriptor.length() - 1).replace('/', '.'));
+                offset = skipAnnotation(offset);
+            }
+            return result;
+        }
+
+        private int skipAnnotation(int offset) {
+            int pairs = readUnsignedShort(offset + 2);
+            offset += 4;
+            for (int i = 0; i < pairs; i++) {
+                offset = skipElementValue(offset + 2);
+            }
+            return offset;
+        }
+
+        private int skipElementValue(int offset) {
+            switch (b[offset]) {
+                case 'e': // enum
+                    return offset + 5;
+                case '@': // nested annotation
+                    return skipAnnotation(offset + 1);
+                case '[': {
+                    int count = readUnsignedShort(offset + 1);
+                    offset += 3;
+                    for (int i = 0; i < count; i++) {
+                        offset = skipElementValue(offset);
+                    }
+                    return offset;
+                }
+                default: // const value or class
+                    return offset + 3;
+            }
+        }
+    }
+}
@@ -38,6 +38,7 @@ import org.hotswap.agent.annotation.handler.PluginClassFileTransformer;
 import org.hotswap.agent.command.Command;
 import org.hotswap.agent.config.PluginManager;
 import org.hotswap.agent.logging.AgentLogger;
+import org.hotswap.agent.util.classloader.CachingLoaderClassPath;
 
 /**
  * Java instrumentation transformer.
@@ -186,6 +187,10 @@ public class HotswapTransformer implements ClassFileTransformer {
 
         LOGGER.trace("Transform on class '{}' @{} redefiningClass '{}'.", className, classLoader, redefiningClass);
 
+        if (redefiningClass != null) {
+            CachingLoaderClassPath.invalidate(classLoader, className);
+        }
+
         List<ClassFileTransformer> toApply = new ArrayList<>();
         List<PluginClassFileTransformer> pluginTransformers = new ArrayList<>();
         try {
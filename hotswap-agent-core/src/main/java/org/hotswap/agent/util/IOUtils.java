@@ -114,6 +114,27 @@ public class IOUtils {
         return outputStream.toByteArray();
     }
 
+    /**
+     * Read the whole stream to byte array and close it.
+     *
+     * @param is stream
+     * @return byte array
+     * @throws IOException read exception
+     */
+    public static byte[] toByteArray(InputStream is) throws IOException {
+        try {
+            ByteArrayOutputStream out = new ByteArrayOutputStream(Math.max(is.available(), 1024));
+            byte[] chunk = new byte[4096];
+            int bytesRead;
+            while ((bytesRead = is.read(chunk)) > 0) {
+                out.write(chunk, 0, bytesRead);
+            }
+            return out.toByteArray();
+        } finally {
+            is.close();
+        }
+    }
+
     /**
      * Convert input stream to a string.
      * @param is stream
@@ -112,55 +112,35 @@ public class PluginManagerInvoker {
     /**
      * Same as {@link PluginManagerInvoker#buildCallPluginMethod(Class, String, String...)}, but with explicit
      * appClassLoader variable. Use this method if appClassLoader is different from getClass().getClassLoader().
+     * <p/>
+     * The generated code calls the plugin method via {@link PluginMethodCallSite} - plugin class and method
+     * are resolved only on the first call.
      */
     public static String buildCallPluginMethod(String appClassLoaderVar, Class pluginClass,
                                                String method, String... paramValueAndType) {
 
-        String managerClass = PluginManager.class.getName();
         int paramCount = paramValueAndType.length / 2;
+        String[] paramTypes = new String[paramCount];
+        for (int i = 0; i < paramCount; i++) {
+            paramTypes[i] = paramValueAndType[(i * 2) + 1];
+        }
 
         StringBuilder b = new StringBuilder();
 
         // block to hide variables and catch checked exceptions
         b.append("try {");
 
-        b.append("ClassLoader __pluginClassLoader = ");
-        b.append(managerClass);
-        b.append(".class.getClassLoader();");
-
-        // Object __pluginInstance = org.hotswap.agent.config.PluginManager.getInstance().getPlugin(org.hotswap.agent.plugin.TestPlugin.class.getName(), __pluginClassLoader);
-        b.append("Object __pluginInstance = ");
-        b.append(managerClass);
-        b.append(".getInstance().getPlugin(");
-        b.append(pluginClass.getName());
-        b.append(".class.getName(), " + appClassLoaderVar + ");");
-
-        // Class __pluginClass = __pluginClassLoader.loadClass("org.hotswap.agent.plugin.TestPlugin");
-        b.append("Class __pluginClass = ");
-        b.append("__pluginClassLoader.loadClass(\"");
-        b.append(pluginClass.getName());
-        b.append("\");");
-
-        // param types
-        b.append("Class[] paramTypes = new Class[" + paramCount + "];");
-        for (int i = 0; i < paramCount; i++) {
-            // paramTypes[i] = = __pluginClassLoader.loadClass("my.test.TestClass").getClass();
-            b.append("paramTypes[" + i + "] = __pluginClassLoader.loadClass(\"" + paramValueAndType[(i * 2) + 1] + "\");");
-        }
-
-        //   java.lang.reflect.Method __pluginMethod = __pluginClass.getDeclaredMethod("method", paramType1, paramType2);
-        b.append("java.lang.reflect.Method __callPlugin = __pluginClass.getDeclaredMethod(\"");
-        b.append(method);
-        b.append("\", paramTypes");
-        b.append(");");
-
         b.append("Object[] params = new Object[" + paramCount + "];");
         for (int i = 0; i < paramCount; i = i + 1) {
             b.append("params[" + i + "] = " + paramValueAndType[i * 2] + ";");
         }
 
-        // __pluginMethod.invoke(__pluginInstance, param1, param2);
-        b.append("__callPlugin.invoke(__pluginInstance, params);");
+        // org.hotswap.agent.util.PluginMethodCallSite.get("org.hotswap.agent.plugin.TestPlugin:method:my.test.TestClass")
+        //      .invoke(getClass().getClassLoader(), params);
+        b.append(PluginMethodCallSite.class.getName());
+        b.append(".get(\"");
+        b.append(PluginMethodCallSite.descriptor(pluginClass, method, paramTypes));
+        b.append("\").invoke(" + appClassLoaderVar + ", params);");
 
         // catch (Exception e) {throw new Error(e);}
         b.append("} catch (Exception e) {throw new Error(e);}");
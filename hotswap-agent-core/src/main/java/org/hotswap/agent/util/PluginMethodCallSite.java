@@ -0,0 +1,127 @@
+/*
+ * Copyright 2013-2023 the HotswapAgent authors.
+ *
+ * This file is part of HotswapAgent.
+ *
+ * HotswapAgent is free software: you can redistribute it and/or modify it
+ * under the terms of the GNU General Public License as published by the
+ * Free Software Foundation, either version 2 of the License, or (at your
+ * option) any later version.
+ *
+ * HotswapAgent is distributed in the hope that it will be useful, but
+ * WITHOUT ANY WARRANTY; without even the implied warranty of
+ * MERCHANTABILITY or FITNESS FOR A PARTICULAR PURPOSE. See the GNU General
+ * Public License for more details.
+ *
+ * You should have received a copy of the GNU General Public License along
+ * with HotswapAgent. If not, see http://www.gnu.org/licenses/.
+ */
+package org.hotswap.agent.util;
+
+import java.lang.invoke.MethodHandle;
+import java.lang.invoke.MethodHandles;
+import java.lang.invoke.MethodType;
+import java.lang.reflect.Method;
+import java.util.Map;
+import java.util.concurrent.ConcurrentHashMap;
+
+import org.hotswap.agent.config.PluginManager;
+
+/**
+ * Plugin method call from application code generated by
+ * {@link PluginManagerInvoker#buildCallPluginMethod(String, Class, String, String...)}.
+ * <p/>
+ * The call site is identified by a descriptor string constant in the generated code - plugin class, method name and
+ * parameter types. Plugin class and the method handle are resolved in the agent classloader on the first call and
+ * kept for the following calls, each call then only resolves the plugin instance for the application classloader.
+ */
+public class PluginMethodCallSite {
+
+    // descriptor -> call site
+    private static final Map<String, PluginMethodCallSite> callSites = new ConcurrentHashMap<>();
+
+    private final Class<?> pluginClass;
+    private final String method;
+
+    // (Object plugin, Object[] params)Object
+    private final MethodHandle methodHandle;
+
+    private PluginMethodCallSite(Class<?> pluginClass, String method, MethodHandle methodHandle) {
+        this.pluginClass = pluginClass;
+        this.method = method;
+        this.methodHandle = methodHandle;
+    }
+
+    /**
+     * Returns the call site, resolves it on the first call.
+     *
+     * @param descriptor call site descriptor, see {@link #descriptor(Class, String, String...)}
+     * @return the call site
+     * @throws Exception plugin class, parameter type or method not found
+     */
+    public static PluginMethodCallSite get(String descriptor) throws Exception {
+        PluginMethodCallSite callSite = callSites.get(descriptor);
+        if (callSite == null) {
+            // concurrent first calls may resolve the same call site, the result is the same
+            callSite = resolve(descriptor);
+            callSites.put(descriptor, callSite);
+        }
+        return callSite;
+    }
+
+    /**
+     * Call site descriptor: plugin class name, method name and parameter type names separated by ':'.
+     *
+     * @param pluginClass plugin class
+     * @param method      method name
+     * @param paramTypes  parameter type names
+     * @return the descriptor
+     */
+    public static String descriptor(Class<?> pluginClass, String method, String... paramTypes) {
+        StringBuilder b = new StringBuilder(pluginClass.getName()).append(':').append(method);
+        for (String paramType : paramTypes) {
+            b.append(':').append(paramType);
+        }
+        return b.toString();
+    }
+
+    /**
+     * Call the method on the plugin instance associated with the application classloader.
+     *
+     * @param appClassLoader application classloader (to resolve plugin instance)
+     * @param params         actual param values
+     * @return method return value
+     * @throws Exception plugin not found or exception thrown by the method
+     */
+    public Object invoke(ClassLoader appClassLoader, Object[] params) throws Exception {
+        Object pluginInstance = PluginManager.getInstance().getPlugin(pluginClass, appClassLoader);
+        try {
+            return methodHandle.invokeExact(pluginInstance, params);
+        } catch (Exception | Error e) {
+            throw e;
+        } catch (Throwable t) {
+            throw new IllegalStateException(String.format("Exception calling method %s on plugin class %s", method, pluginClass), t);
+        }
+    }
+
+    private static PluginMethodCallSite resolve(String descriptor) throws Exception {
+        String[] parts = descriptor.split(":");
+        // plugin classes are defined in the same classloader as the plugin manager
+        ClassLoader pluginClassLoader = PluginManager.class.getClassLoader();
+        if (pluginClassLoader == null) {
+            pluginClassLoader = ClassLoader.getSystemClassLoader();
+        }
+        Class<?> pluginClass = pluginClassLoader.loadClass(parts[0]);
+        Class<?>[] paramTypes = new Class<?>[parts.length - 2];
+        for (int i = 0; i < paramTypes.length; i++) {
+            paramTypes[i] = pluginClassLoader.loadClass(parts[i + 2]);
+        }
+
+        Method method = pluginClass.getDeclaredMethod(parts[1], paramTypes);
+        method.setAccessible(true);
+        MethodHandle methodHandle = MethodHandles.lookup().unreflect(method)
+                .asType(MethodType.genericMethodType(1 + paramTypes.length))
+                .asSpreader(Object[].class, paramTypes.length);
+        return new PluginMethodCallSite(pluginClass, parts[1], methodHandle);
+    }
+}
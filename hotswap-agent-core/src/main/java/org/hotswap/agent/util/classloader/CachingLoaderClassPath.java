@@ -0,0 +1,262 @@
+/*
+ * Copyright 2013-2023 the HotswapAgent authors.
+ *
+ * This file is part of HotswapAgent.
+ *
+ * HotswapAgent is free software: you can redistribute it and/or modify it
+ * under the terms of the GNU General Public License as published by the
+ * Free Software Foundation, either version 2 of the License, or (at your
+ * option) any later version.
+ *
+ * HotswapAgent is distributed in the hope that it will be useful, but
+ * WITHOUT ANY WARRANTY; without even the implied warranty of
+ * MERCHANTABILITY or FITNESS FOR A PARTICULAR PURPOSE. See the GNU General
+ * Public License for more details.
+ *
+ * You should have received a copy of the GNU General Public License along
+ * with HotswapAgent. If not, see http://www.gnu.org/licenses/.
+ */
+package org.hotswap.agent.util.classloader;
+
+import java.io.ByteArrayInputStream;
+import java.io.File;
+import java.io.IOException;
+import java.io.InputStream;
+import java.lang.ref.Reference;
+import java.lang.ref.WeakReference;
+import java.net.URI;
+import java.net.URL;
+import java.util.Collections;
+import java.util.Iterator;
+import java.util.LinkedHashMap;
+import java.util.Map;
+import java.util.WeakHashMap;
+
+import org.hotswap.agent.javassist.ClassPath;
+import org.hotswap.agent.logging.AgentLogger;
+import org.hotswap.agent.util.IOUtils;
+
+/**
+ * Javassist class path of a classloader (same as LoaderClassPath) backed by a class file cache shared by all
+ * ClassPools of the classloader.
+ * <p/>
+ * Transformers create a new ClassPool for each transformation, superclass and interface lookups then
+ * resolve and read the same class files from the classloader again. The cache holds class file bytes
+ * (not the parsed ClassFile - CtClass modifies it) per classloader in a bounded LRU map. A cached entry is
+ * valid while the modification time and the size of the class file (or the containing JAR) are not changed.
+ * Modification time alone is not enough - it is coarse on some filesystems and it is preserved by copy tools
+ * (cp -p, rsync, IDE sync), hence entries are also evicted on class redefinition and on watcher file events,
+ * see {@link #invalidate(ClassLoader, String)} and {@link #invalidate(ClassLoader, URI)}. Class files of other
+ * origin than a local file or JAR (except jrt) are not cached.
+ */
+public class CachingLoaderClassPath implements ClassPath {
+    private static AgentLogger LOGGER = AgentLogger.getLogger(CachingLoaderClassPath.class);
+
+    // max number of cached class files per classloader
+    private static final int MAX_CACHED_CLASSES = 1024;
+
+    // classloader -> class name -> cached class file
+    private static final Map<ClassLoader, Map<String, CachedClassFile>> caches =
+            Collections.synchronizedMap(new WeakHashMap<ClassLoader, Map<String, CachedClassFile>>());
+
+    private final Reference<ClassLoader> clref;
+
+    /**
+     * Creates a search path representing a class loader.
+     */
+    public CachingLoaderClassPath(ClassLoader cl) {
+        clref = new WeakReference<>(cl);
+    }
+
+    /**
+     * Remove cached class file of the class.
+     *
+     * @param classLoader the classloader
+     * @param className   class name in internal (a/b/C) or java (a.b.C) format
+     */
+    public static void invalidate(ClassLoader classLoader, String className) {
+        if (classLoader == null || className == null) {
+            return;
+        }
+        Map<String, CachedClassFile> cache = caches.get(classLoader);
+        if (cache != null) {
+            synchronized (cache) {
+                cache.remove(className.replace('/', '.'));
+            }
+        }
+    }
+
+    /**
+     * Remove cached class files of a changed file - the class file, a directory containing class files or a JAR.
+     *
+     * @param classLoader the classloader
+     * @param uri         URI of the changed file
+     */
+    public static void invalidate(ClassLoader classLoader, URI uri) {
+        if (classLoader == null || uri == null || !"file".equals(uri.getScheme())) {
+            return;
+        }
+        Map<String, CachedClassFile> cache = caches.get(classLoader);
+        if (cache != null) {
+            String path = new File(uri).getPath();
+            synchronized (cache) {
+                for (Iterator<CachedClassFile> it = cache.values().iterator(); it.hasNext(); ) {
+                    File file = it.next().file;
+                    if (file != null && file.getPath().startsWith(path)
+                            && (file.getPath().length() == path.length()
+                                || file.getPath().charAt(path.length()) == File.separatorChar)) {
+                        it.remove();
+                    }
+                }
+            }
+        }
+    }
+
+    @Override
+    public String toString() {
+        return clref.get() == null ? "<null>" : clref.get().toString();
+    }
+
+    @Override
+    public InputStream openClassfile(String classname) {
+        ClassLoader cl = clref.get();
+        if (cl == null)
+            return null;        // not found
+
+        CachedClassFile cached = getCached(cl, classname);
+        if (cached != null && cached.bytes != null) {
+            return new ByteArrayInputStream(cached.bytes);
+        }
+
+        String cname = classname.replace('.', '/') + ".class";
+        URL url = cached != null ? cached.url : cl.getResource(cname);
+        if (url == null) {
+            // classloader may provide only the stream
+            return cl.getResourceAsStream(cname);
+        }
+        try {
+            // modification time and size before reading, a concurrent change then invalidates the entry
+            File file = getFile(url);
+            CachedClassFile stamp = new CachedClassFile(url, file, null);
+            byte[] bytes = IOUtils.toByteArray(url.openStream());
+            putCached(cl, classname, new CachedClassFile(stamp, bytes));
+            return new ByteArrayInputStream(bytes);
+        } catch (IOException e) {
+            LOGGER.trace("Unable to read class file {}", e, url);
+            return cl.getResourceAsStream(cname);
+        }
+    }
+
+    @Override
+    public URL find(String classname) {
+        ClassLoader cl = clref.get();
+        if (cl == null)
+            return null;        // not found
+
+        CachedClassFile cached = getCached(cl, classname);
+        if (cached != null) {
+            return cached.url;
+        }
+        URL url = cl.getResource(classname.replace('.', '/') + ".class");
+        if (url != null) {
+            // ClassPool checks the class file by find() before openClassfile(), bytes are read later
+            putCached(cl, classname, new CachedClassFile(url, getFile(url), null));
+        }
+        return url;
+    }
+
+    private static CachedClassFile getCached(ClassLoader classLoader, String className) {
+        Map<String, CachedClassFile> cache = caches.get(classLoader);
+        if (cache == null) {
+            return null;
+        }
+        CachedClassFile cached;
+        synchronized (cache) {
+            cached = cache.get(className);
+        }
+        if (cached != null && !cached.isCurrent()) {
+            synchronized (cache) {
+                cache.remove(className);
+            }
+            return null;
+        }
+        return cached;
+    }
+
+    private static void putCached(ClassLoader classLoader, String className, CachedClassFile cached) {
+        // only class files with known origin are cached
+        if (cached.file == null && !"jrt".equals(cached.url.getProtocol())) {
+            return;
+        }
+        Map<String, CachedClassFile> cache = getCache(classLoader);
+        synchronized (cache) {
+            cache.put(className, cached);
+        }
+    }
+
+    private static Map<String, CachedClassFile> getCache(ClassLoader classLoader) {
+        synchronized (caches) {
+            Map<String, CachedClassFile> cache = caches.get(classLoader);
+            if (cache == null) {
+                cache = new LinkedHashMap<String, CachedClassFile>(16, 0.75f, true) {
+                    @Override
+                    protected boolean removeEldestEntry(Map.Entry<String, CachedClassFile> eldest) {
+                        return size() > MAX_CACHED_CLASSES;
+                    }
+                };
+                caches.put(classLoader, cache);
+            }
+            return cache;
+        }
+    }
+
+    // class file or the JAR containing the class file, null for other protocols
+    private static File getFile(URL url) {
+        try {
+            if ("file".equals(url.getProtocol())) {
+                return new File(url.toURI());
+            }
+            if ("jar".equals(url.getProtocol())) {
+                String path = url.getPath();
+                int separator = path.indexOf("!/");
+                if (separator > 0 && path.startsWith("file:")) {
+                    return new File(new URL(path.substring(0, separator)).toURI());
+                }
+            }
+        } catch (Exception e) {
+            LOGGER.trace("Unable to resolve file of URL {}", e, url);
+        }
+        return null;
+    }
+
+    private static class CachedClassFile {
+        final URL url;
+        // class file or the JAR, null for jrt
+        final File file;
+        final long lastModified;
+        final long length;
+        // null if only resolved by find()
+        final byte[] bytes;
+
+        CachedClassFile(URL url, File file, byte[] bytes) {
+            this.url = url;
+            this.file = file;
+            this.lastModified = file != null ? file.lastModified() : 0;
+            this.length = file != null ? file.length() : 0;
+            this.bytes = bytes;
+        }
+
+        CachedClassFile(CachedClassFile stamp, byte[] bytes) {
+            this.url = stamp.url;
+            this.file = stamp.file;
+            this.lastModified = stamp.lastModified;
+            this.length = stamp.length;
+            this.bytes = bytes;
+        }
+
+        // jrt class files do not change at runtime
+        boolean isCurrent() {
+            return file == null || (file.lastModified() == lastModified && file.length() == length);
+        }
+    }
+}
@@ -31,7 +31,6 @@ import java.util.Map;
 import org.hotswap.agent.javassist.CannotCompileException;
 import org.hotswap.agent.javassist.ClassPool;
 import org.hotswap.agent.javassist.CtClass;
-import org.hotswap.agent.javassist.LoaderClassPath;
 import org.hotswap.agent.logging.AgentLogger;
 import org.hotswap.agent.util.scanner.ClassPathScanner;
 import org.hotswap.agent.util.scanner.Scanner;
@@ -73,7 +72,7 @@ public class ClassLoaderDefineClassPatcher {
         if (cache != null) {
 
             final ClassPool cp = new ClassPool();
-            cp.appendClassPath(new LoaderClassPath(getClass().getClassLoader()));
+            cp.appendClassPath(new CachingLoaderClassPath(getClass().getClassLoader()));
 
             for (byte[] pluginBytes: cache) {
                 CtClass pluginClass = null;
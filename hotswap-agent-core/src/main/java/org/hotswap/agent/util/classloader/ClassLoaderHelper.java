@@ -18,6 +18,8 @@
  */
 package org.hotswap.agent.util.classloader;
 
+import java.lang.invoke.MethodHandle;
+import java.lang.invoke.MethodHandles;
 import java.lang.reflect.Method;
 
 import org.hotswap.agent.logging.AgentLogger;
@@ -31,31 +33,47 @@ public class ClassLoaderHelper {
 
     public static Method findLoadedClass;
 
+    // findLoadedClass resolved once, invoked without reflective access checks
+    private static MethodHandle findLoadedClassHandle;
+
     static {
         try {
             findLoadedClass = ClassLoader.class.getDeclaredMethod("findLoadedClass", new Class[] { String.class });
             findLoadedClass.setAccessible(true);
-        } catch (NoSuchMethodException e) {
+            findLoadedClassHandle = MethodHandles.lookup().unreflect(findLoadedClass);
+        } catch (NoSuchMethodException | IllegalAccessException e) {
             LOGGER.error("Unexpected: failed to get ClassLoader findLoadedClass method", e);
         }
     }
 
+    /**
+     * Return the class if it was already loaded by the classloader. It does not try to load the class.
+     *
+     * @param classLoader classLoader to check
+     * @param className fully qualified class name
+     * @return the loaded class or null
+     */
+    public static Class<?> findLoadedClass(ClassLoader classLoader, String className) {
+        try {
+            return (Class<?>) findLoadedClassHandle.invoke(classLoader, className);
+        } catch (Throwable e) {
+            LOGGER.error("Unable to invoke findLoadedClass on classLoader {}, className {}", e, classLoader, className);
+            return null;
+        }
+    }
+
 
     /**
      * Check if the class was already loaded by the classloader. It does not try to load the class
-     * (opposite to Class.forName()).
+     * (opposite to Class.forName()). Classes already found by a previous check are resolved from
+     * {@link LoadedClassIndex} without the findLoadedClass probe.
      *
      * @param classLoader classLoader to check
      * @param className fully qualified class name
      * @return true if the class was loaded
      */
     public static boolean isClassLoaded(ClassLoader classLoader, String className) {
-        try {
-            return findLoadedClass.invoke(classLoader, className) != null;
-        } catch (Exception e) {
-            LOGGER.error("Unable to invoke findLoadedClass on classLoader {}, className {}", e, classLoader, className);
-            return false;
-        }
+        return LoadedClassIndex.isClassLoaded(classLoader, className);
     }
 
     /**
@@ -0,0 +1,75 @@
+/*
+ * Copyright 2013-2023 the HotswapAgent authors.
+ *
+ * This file is part of HotswapAgent.
+ *
+ * HotswapAgent is free software: you can redistribute it and/or modify it
+ * under the terms of the GNU General Public License as published by the
+ * Free Software Foundation, either version 2 of the License, or (at your
+ * option) any later version.
+ *
+ * HotswapAgent is distributed in the hope that it will be useful, but
+ * WITHOUT ANY WARRANTY; without even the implied warranty of
+ * MERCHANTABILITY or FITNESS FOR A PARTICULAR PURPOSE. See the GNU General
+ * Public License for more details.
+ *
+ * You should have received a copy of the GNU General Public License along
+ * with HotswapAgent. If not, see http://www.gnu.org/licenses/.
+ */
+package org.hotswap.agent.util.classloader;
+
+import java.util.Collections;
+import java.util.Map;
+import java.util.Set;
+import java.util.WeakHashMap;
+import java.util.concurrent.ConcurrentHashMap;
+
+/**
+ * Index of class names loaded by a classloader.
+ * <p/>
+ * The index is fed by positive results of the findLoadedClass probe. A class once loaded stays loaded for the
+ * classloader lifetime, so the index contains only positive results. Class define events from the transformer
+ * are not used - defineClass may still fail after the class bytes were transformed.
+ */
+public class LoadedClassIndex {
+
+    // classloader -> java names of loaded classes
+    private static final Map<ClassLoader, Set<String>> loadedClasses =
+            Collections.synchronizedMap(new WeakHashMap<ClassLoader, Set<String>>());
+
+    /**
+     * Check if the class was already loaded by the classloader. It does not try to load the class.
+     *
+     * @param classLoader classLoader to check
+     * @param className   fully qualified class name
+     * @return true if the class was loaded
+     */
+    public static boolean isClassLoaded(ClassLoader classLoader, String className) {
+        if (classLoader == null) {
+            return ClassLoaderHelper.findLoadedClass(null, className) != null;
+        }
+        Set<String> classNames = getLoadedClasses(classLoader);
+        if (classNames.contains(className)) {
+            return true;
+        }
+        if (ClassLoaderHelper.findLoadedClass(classLoader, className) != null) {
+            classNames.add(className);
+            return true;
+        }
+        return false;
+    }
+
+    private static Set<String> getLoadedClasses(ClassLoader classLoader) {
+        Set<String> classNames = loadedClasses.get(classLoader);
+        if (classNames == null) {
+            synchronized (loadedClasses) {
+                classNames = loadedClasses.get(classLoader);
+                if (classNames == null) {
+                    classNames = ConcurrentHashMap.newKeySet();
+                    loadedClasses.put(classLoader, classNames);
+                }
+            }
+        }
+        return classNames;
+    }
+}
@@ -23,11 +23,14 @@ import org.hotswap.agent.watch.WatchFileEvent;
 import org.hotswap.agent.watch.WatchEventListener;
 import org.hotswap.agent.watch.Watcher;
 
+import java.io.File;
 import java.io.IOException;
 import java.io.InputStream;
 import java.lang.reflect.Method;
 import java.net.*;
 import java.util.*;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.concurrent.CopyOnWriteArrayList;
 
 /**
  * Special URL classloader to get only changed resources from URL.
@@ -44,10 +47,27 @@ public class WatchResourcesClassLoader extends URLClassLoader {
     private static AgentLogger LOGGER = AgentLogger.getLogger(WatchResourcesClassLoader.class);
 
     /**
-     * URLs of changed resources. Use this set to check if the resource was changed and hence should
-     * be returned by this classloader.
+     * Changed resources - resource name (relative to watched resource root) -> normalized file paths
+     * of the changed files with this name. Use this map to check if the resource was changed and hence should
+     * be returned by this classloader. Keyed by strings to avoid URL.hashCode()/equals() (hostname resolution).
      */
-    Set<URL> changedUrls = new HashSet<>();
+    final Map<String, Set<String>> changedResources = new ConcurrentHashMap<>();
+
+    /**
+     * Lookup cache of changed resource names - resource name -> changed URL or NOT_CHANGED if the resource
+     * resolved by watchResourcesClassLoader is not one of the changed files. Entry is removed on each change.
+     */
+    private final Map<String, Object> changedResourceLookup = new ConcurrentHashMap<>();
+
+    private static final Object NOT_CHANGED = new Object();
+
+    // incremented on each change, lookup results computed concurrently with a change are not cached
+    private volatile int changeCount;
+
+    /**
+     * Normalized paths of watched resource roots, in watchResources order.
+     */
+    private final List<String> watchedRoots = new CopyOnWriteArrayList<>();
 
     /**
      * Watch for requested resource in parent classloader in case it is not found by this classloader?
@@ -98,21 +118,20 @@ public class WatchResourcesClassLoader extends URLClassLoader {
         // create classloader to serve resources only from watchResources URL's
         this.watchResourcesClassLoader = new UrlOnlyClassLoader(watchResources);
 
-        // register watch resources - on change event each modified resource will be added to changedUrls.
+        // register watch resources - on change event each modified resource will be added to changedResources.
         for (URL resource : watchResources) {
             try {
                 URI uri = resource.toURI();
+                final String root = toPath(uri);
+                if (root != null) {
+                    watchedRoots.add(root);
+                }
                 LOGGER.debug("Watching directory '{}' for changes.", uri);
                 watcher.addEventListener(this, uri, new WatchEventListener() {
                     @Override
                     public void onEvent(WatchFileEvent event) {
-                        try {
-                            if (event.isFile() || event.isDirectory()) {
-                                changedUrls.add(event.getURI().toURL());
-                                LOGGER.trace("File '{}' changed and will be returned instead of original classloader equivalent.", event.getURI().toURL());
-                            }
-                        } catch (MalformedURLException e) {
-                            LOGGER.error("Unexpected - cannot convert URI {} to URL.", e, event.getURI());
+                        if (event.isFile() || event.isDirectory()) {
+                            resourceChanged(root, event.getURI());
                         }
                     }
                 });
@@ -122,6 +141,42 @@ public class WatchResourcesClassLoader extends URLClassLoader {
         }
     }
 
+    private void resourceChanged(String root, URI uri) {
+        String path = toPath(uri);
+        if (root == null || path == null || !path.startsWith(root + "/")) {
+            LOGGER.trace("File '{}' is not in watched resource root '{}', skipped.", uri, root);
+            return;
+        }
+        String name = path.substring(root.length() + 1);
+        Set<String> paths = changedResources.get(name);
+        if (paths == null) {
+            paths = Collections.newSetFromMap(new ConcurrentHashMap<String, Boolean>());
+            Set<String> existing = changedResources.putIfAbsent(name, paths);
+            if (existing != null) {
+                paths = existing;
+            }
+        }
+        paths.add(path);
+        changeCount++;
+        changedResourceLookup.remove(name);
+        LOGGER.trace("File '{}' changed and will be returned instead of original classloader equivalent.", uri);
+    }
+
+    /**
+     * Normalized file path of the URI with '/' separators, or null if not a file URI.
+     */
+    private static String toPath(URI uri) {
+        if (!"file".equals(uri.getScheme())) {
+            return null;
+        }
+        try {
+            String path = new File(uri).toPath().normalize().toString().replace(File.separatorChar, '/');
+            return path.endsWith("/") ? path.substring(0, path.length() - 1) : path;
+        } catch (IllegalArgumentException e) {
+            return null;
+        }
+    }
+
     /**
      * Check if the resource was changed after this classloader instantiaton.
      *
@@ -129,7 +184,50 @@ public class WatchResourcesClassLoader extends URLClassLoader {
      * @return true if was changed after instantiation
      */
     public boolean isResourceChanged(URL url) {
-        return changedUrls.contains(url);
+        if (changedResources.isEmpty()) {
+            return false;
+        }
+        try {
+            String path = toPath(url.toURI());
+            if (path == null) {
+                return false;
+            }
+            for (String root : watchedRoots) {
+                if (path.startsWith(root + "/")) {
+                    Set<String> paths = changedResources.get(path.substring(root.length() + 1));
+                    if (paths != null && paths.contains(path)) {
+                        return true;
+                    }
+                }
+            }
+        } catch (URISyntaxException e) {
+            LOGGER.trace("Unable to convert URL '{}' to URI.", url);
+        }
+        return false;
+    }
+
+    /**
+     * Changed resource URL by resource name. Resource names not changed after instantiation are rejected by
+     * a single map lookup without touching the file system, resolved names are cached until the next change.
+     *
+     * @param name resource name
+     * @return URL of the changed resource or null
+     */
+    private URL getChangedResource(String name) {
+        if (watchResourcesClassLoader == null || changedResources.isEmpty() || !changedResources.containsKey(name)) {
+            return null;
+        }
+        Object result = changedResourceLookup.get(name);
+        if (result == null) {
+            int count = changeCount;
+            URL resource = watchResourcesClassLoader.getResource(name);
+            result = resource != null && isResourceChanged(resource) ? resource : NOT_CHANGED;
+            changedResourceLookup.put(name, result);
+            if (count != changeCount) {
+                changedResourceLookup.remove(name);
+            }
+        }
+        return result != NOT_CHANGED ? (URL) result : null;
     }
 
     /**
@@ -138,12 +236,10 @@ public class WatchResourcesClassLoader extends URLClassLoader {
      */
     @Override
     public URL getResource(String name) {
-        if (watchResourcesClassLoader != null) {
-            URL resource = watchResourcesClassLoader.getResource(name);
-            if (resource != null && isResourceChanged(resource)) {
-                LOGGER.trace("watchResources - using changed resource {}", name);
-                return resource;
-            }
+        URL changedResource = getChangedResource(name);
+        if (changedResource != null) {
+            LOGGER.trace("watchResources - using changed resource {}", name);
+            return changedResource;
         }
 
         // child first (extra classpath)
@@ -178,19 +274,18 @@ public class WatchResourcesClassLoader extends URLClassLoader {
      */
     @Override
     public Enumeration<URL> getResources(String name) throws IOException {
-        if (watchResourcesClassLoader != null) {
-            URL resource = watchResourcesClassLoader.getResource(name);
-            if (resource != null && isResourceChanged(resource)) {
-                LOGGER.trace("watchResources - using changed resource {}", name);
-                Vector<URL> res = new Vector<>();
-                res.add(resource);
-                return res.elements();
-            }
+        URL changedResource = getChangedResource(name);
+        if (changedResource != null) {
+            LOGGER.trace("watchResources - using changed resource {}", name);
+            Vector<URL> res = new Vector<>();
+            res.add(changedResource);
+            return res.elements();
         }
 
         // if extraClasspath contains at least one element, return only extraClasspath
-        if (findResources(name).hasMoreElements())
-            return findResources(name);
+        Enumeration<URL> extraResources = findResources(name);
+        if (extraResources.hasMoreElements())
+            return extraResources;
 
         return super.getResources(name);
     }
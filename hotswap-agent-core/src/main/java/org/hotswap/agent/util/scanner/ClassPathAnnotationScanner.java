@@ -26,7 +26,8 @@ import org.hotswap.agent.logging.AgentLogger;
 import java.io.DataInputStream;
 import java.io.IOException;
 import java.io.InputStream;
-import java.util.LinkedList;
+import java.util.ArrayList;
+import java.util.Collections;
 import java.util.List;
 
 /**
@@ -57,12 +58,12 @@ public class ClassPathAnnotationScanner {
      *
      * @param classLoader classloader to resolve path
      * @param path        path to scan {@link org.hotswap.agent.util.scanner.Scanner#scan(ClassLoader, String, ScannerVisitor)}
-     * @return list of class names containing the annotation
+     * @return list of class names containing the annotation, sorted by name
      * @throws IOException scan exception.
      */
     public List<String> scanPlugins(ClassLoader classLoader, String path) throws IOException {
-        final List<String> files = new LinkedList<>();
-        scanner.scan(classLoader, path, new ScannerVisitor() {
+        final List<String> files = Collections.synchronizedList(new ArrayList<String>());
+        scanner.scan(classLoader, path, new ConcurrentScannerVisitor() {
             @Override
             public void visit(InputStream file) throws IOException {
                 ClassFile cf;
@@ -77,7 +78,10 @@ public class ClassPathAnnotationScanner {
                     files.add(cf.getName());
             }
         });
-        return files;
+        // visited concurrently, sort to keep the result independent of visit order
+        List<String> result = new ArrayList<>(files);
+        Collections.sort(result);
+        return result;
     }
 
     /**
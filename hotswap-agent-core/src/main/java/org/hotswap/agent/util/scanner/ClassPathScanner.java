@@ -21,12 +21,25 @@ package org.hotswap.agent.util.scanner;
 import org.hotswap.agent.logging.AgentLogger;
 
 import java.io.File;
-import java.io.FileInputStream;
 import java.io.IOException;
+import java.io.InputStream;
+import java.io.UncheckedIOException;
 import java.net.URI;
 import java.net.URISyntaxException;
 import java.net.URL;
+import java.nio.file.FileSystemLoopException;
+import java.nio.file.FileVisitOption;
+import java.nio.file.FileVisitResult;
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.nio.file.SimpleFileVisitor;
+import java.nio.file.attribute.BasicFileAttributes;
+import java.util.ArrayList;
+import java.util.EnumSet;
 import java.util.Enumeration;
+import java.util.List;
+import java.util.concurrent.ForkJoinPool;
+import java.util.concurrent.RecursiveAction;
 import java.util.jar.JarEntry;
 import java.util.jar.JarFile;
 
@@ -34,6 +47,10 @@ import java.util.jar.JarFile;
  * Scan classpath for a directory and visits each file.
  * <p/>
  * Thread context classloader is used to scan.
+ * <p/>
+ * Class files of a directory (or JAR file) are listed first and then visited. If the visitor is
+ * a {@link ConcurrentScannerVisitor}, large directories are visited in parallel in the common ForkJoin pool.
+ * Each stream is closed right after the visit.
  *
  * @author Jiri Bubnik
  */
@@ -46,6 +63,8 @@ public class ClassPathScanner implements Scanner {
     public static final String ZIP_URL_PREFIX = "zip:";
     public static final String FILE_URL_PREFIX = "file:";
 
+    // minimal number of files visited by one parallel task
+    private static final int PARALLEL_THRESHOLD = 32;
 
     @Override
     public void scan(ClassLoader classLoader, String path, ScannerVisitor visitor) throws IOException {
@@ -86,13 +105,33 @@ public class ClassPathScanner implements Scanner {
     protected void scanDirectory(File pluginDir, ScannerVisitor visitor) throws IOException {
         LOGGER.trace("Scanning directory " + pluginDir.getName());
 
-        for (File file : pluginDir.listFiles()) {
-            if (file.isDirectory()) {
-                scanDirectory(file, visitor);
-            } else if (file.isFile() && file.getName().endsWith(".class")) {
-                visitor.visit(new FileInputStream(file));
+        final List<Path> files = new ArrayList<>();
+        Files.walkFileTree(pluginDir.toPath(), EnumSet.of(FileVisitOption.FOLLOW_LINKS), Integer.MAX_VALUE,
+                new SimpleFileVisitor<Path>() {
+            @Override
+            public FileVisitResult visitFile(Path file, BasicFileAttributes attrs) {
+                if (attrs.isRegularFile() && file.getFileName().toString().endsWith(".class")) {
+                    files.add(file);
+                }
+                return FileVisitResult.CONTINUE;
             }
-        }
+
+            @Override
+            public FileVisitResult visitFileFailed(Path file, IOException exc) throws IOException {
+                if (exc instanceof FileSystemLoopException) {
+                    LOGGER.trace("Skipping symbolic link cycle {}", file);
+                    return FileVisitResult.CONTINUE;
+                }
+                throw exc;
+            }
+        });
+
+        visitAll(files, new StreamSource<Path>() {
+            @Override
+            public InputStream open(Path file) throws IOException {
+                return Files.newInputStream(file);
+            }
+        }, visitor);
     }
 
     /**
@@ -108,36 +147,108 @@ public class ClassPathScanner implements Scanner {
         LOGGER.trace("Scanning JAR file '{}'", urlFile);
 
         int separatorIndex = urlFile.indexOf(JAR_URL_SEPARATOR);
-        JarFile jarFile = null;
+        final JarFile jarFile;
         String rootEntryPath;
 
-        try {
-            if (separatorIndex != -1) {
-                String jarFileUrl = urlFile.substring(0, separatorIndex);
-                rootEntryPath = urlFile.substring(separatorIndex + JAR_URL_SEPARATOR.length());
-                jarFile = getJarFile(jarFileUrl);
-            } else {
-                rootEntryPath = "";
-                jarFile = new JarFile(urlFile);
-            }
+        if (separatorIndex != -1) {
+            String jarFileUrl = urlFile.substring(0, separatorIndex);
+            rootEntryPath = urlFile.substring(separatorIndex + JAR_URL_SEPARATOR.length());
+            jarFile = getJarFile(jarFileUrl);
+        } else {
+            rootEntryPath = "";
+            jarFile = new JarFile(urlFile);
+        }
 
+        try {
             if (!"".equals(rootEntryPath) && !rootEntryPath.endsWith("/")) {
                 rootEntryPath = rootEntryPath + "/";
             }
 
+            // entries come from the central directory read once on open, the entry data is inflated on visit
+            List<JarEntry> classEntries = new ArrayList<>();
             for (Enumeration<JarEntry> entries = jarFile.entries(); entries.hasMoreElements(); ) {
                 JarEntry entry = entries.nextElement();
                 String entryPath = entry.getName();
 
                 // class files inside entry
                 if (entryPath.startsWith(rootEntryPath) && entryPath.endsWith(".class")) {
-                    LOGGER.trace("Visiting JAR entry {}", entryPath);
-                    visitor.visit(jarFile.getInputStream(entry));
+                    classEntries.add(entry);
                 }
             }
+
+            visitAll(classEntries, new StreamSource<JarEntry>() {
+                @Override
+                public InputStream open(JarEntry entry) throws IOException {
+                    LOGGER.trace("Visiting JAR entry {}", entry.getName());
+                    return jarFile.getInputStream(entry);
+                }
+            }, visitor);
         } finally {
-            if (jarFile != null) {
-                jarFile.close();
+            jarFile.close();
+        }
+    }
+
+    /**
+     * Visit all files, in parallel for a concurrent visitor.
+     */
+    private static <T> void visitAll(List<T> files, StreamSource<T> source, ScannerVisitor visitor) throws IOException {
+        if (visitor instanceof ConcurrentScannerVisitor && files.size() > PARALLEL_THRESHOLD) {
+            try {
+                ForkJoinPool.commonPool().invoke(new VisitTask<>(files, 0, files.size(), source, visitor));
+            } catch (UncheckedIOException e) {
+                throw e.getCause();
+            }
+        } else {
+            visit(files, 0, files.size(), source, visitor);
+        }
+    }
+
+    private static <T> void visit(List<T> files, int from, int to, StreamSource<T> source, ScannerVisitor visitor)
+            throws IOException {
+        for (int i = from; i < to; i++) {
+            InputStream is = source.open(files.get(i));
+            try {
+                visitor.visit(is);
+            } finally {
+                is.close();
+            }
+        }
+    }
+
+    private interface StreamSource<T> {
+        InputStream open(T file) throws IOException;
+    }
+
+    // splits files in halves down to PARALLEL_THRESHOLD files visited sequentially
+    private static class VisitTask<T> extends RecursiveAction {
+        private static final long serialVersionUID = 1L;
+
+        private final List<T> files;
+        private final int from;
+        private final int to;
+        private final StreamSource<T> source;
+        private final ScannerVisitor visitor;
+
+        VisitTask(List<T> files, int from, int to, StreamSource<T> source, ScannerVisitor visitor) {
+            this.files = files;
+            this.from = from;
+            this.to = to;
+            this.source = source;
+            this.visitor = visitor;
+        }
+
+        @Override
+        protected void compute() {
+            if (to - from <= PARALLEL_THRESHOLD) {
+                try {
+                    visit(files, from, to, source, visitor);
+                } catch (IOException e) {
+                    throw new UncheckedIOException(e);
+                }
+            } else {
+                int middle = (from + to) >>> 1;
+                invokeAll(new VisitTask<>(files, from, middle, source, visitor),
+                        new VisitTask<>(files, middle, to, source, visitor));
             }
         }
     }
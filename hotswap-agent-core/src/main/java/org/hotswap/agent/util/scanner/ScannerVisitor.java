@@ -29,6 +29,9 @@ import java.io.InputStream;
 public interface ScannerVisitor {
     /**
      * Visit the file.
+     * <p/>
+     * The stream is closed by the scanner after the visit. The visitor may read only a part of the file
+     * (e.g. class file header), the rest of the file is not read (or inflated in case of a JAR entry).
      *
      * @param file the file
      * @throws IOException IO exception while working with the file stream.
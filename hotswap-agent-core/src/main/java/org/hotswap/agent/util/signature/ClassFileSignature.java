@@ -0,0 +1,170 @@
+/*
+ * Copyright 2013-2023 the HotswapAgent authors.
+ *
+ * This file is part of HotswapAgent.
+ *
+ * HotswapAgent is free software: you can redistribute it and/or modify it
+ * under the terms of the GNU General Public License as published by the
+ * Free Software Foundation, either version 2 of the License, or (at your
+ * option) any later version.
+ *
+ * HotswapAgent is distributed in the hope that it will be useful, but
+ * WITHOUT ANY WARRANTY; without even the implied warranty of
+ * MERCHANTABILITY or FITNESS FOR A PARTICULAR PURPOSE. See the GNU General
+ * Public License for more details.
+ *
+ * You should have received a copy of the GNU General Public License along
+ * with HotswapAgent. If not, see http://www.gnu.org/licenses/.
+ */
+package org.hotswap.agent.util.signature;
+
+import java.io.ByteArrayInputStream;
+import java.io.DataInputStream;
+import java.io.IOException;
+import java.util.Arrays;
+
+import org.hotswap.agent.javassist.bytecode.AccessFlag;
+import org.hotswap.agent.javassist.bytecode.AnnotationsAttribute;
+import org.hotswap.agent.javassist.bytecode.ClassFile;
+import org.hotswap.agent.javassist.bytecode.ExceptionsAttribute;
+import org.hotswap.agent.javassist.bytecode.FieldInfo;
+import org.hotswap.agent.javassist.bytecode.MethodInfo;
+import org.hotswap.agent.javassist.bytecode.ParameterAnnotationsAttribute;
+import org.hotswap.agent.javassist.bytecode.annotation.Annotation;
+
+/**
+ * ClassFileSignature. Creates signature directly from class file bytes, without a ClassPool
+ * or a loaded class. Signature values are comparable only with other ClassFileSignature values.
+ */
+public class ClassFileSignature extends ClassSignatureBase {
+
+    private final ClassFile classFile;
+
+    public ClassFileSignature(ClassFile classFile) {
+        this.classFile = classFile;
+    }
+
+    public ClassFileSignature(byte[] classBytes) throws IOException {
+        this(new ClassFile(new DataInputStream(new ByteArrayInputStream(classBytes))));
+    }
+
+    @Override
+    protected void addMembers(MemberConsumer members) throws Exception {
+        boolean useMethod = hasElement(ClassSignatureElement.METHOD);
+        boolean useConstructor = hasElement(ClassSignatureElement.CONSTRUCTOR);
+        if (useMethod || useConstructor) {
+            boolean usePrivateMethod = hasElement(ClassSignatureElement.METHOD_PRIVATE);
+            boolean useStaticMethod = hasElement(ClassSignatureElement.METHOD_STATIC);
+            boolean usePrivateConstructor = hasElement(ClassSignatureElement.CONSTRUCTOR_PRIVATE);
+            for (MethodInfo method : classFile.getMethods()) {
+                int accessFlags = method.getAccessFlags();
+                if (method.isStaticInitializer()) {
+                    continue;
+                }
+                if (method.isConstructor()) {
+                    if (!useConstructor || (!usePrivateConstructor && AccessFlag.isPrivate(accessFlags)))
+                        continue;
+                } else {
+                    if (!useMethod)
+                        continue;
+                    if (!usePrivateMethod && AccessFlag.isPrivate(accessFlags))
+                        continue;
+                    if (!useStaticMethod && (accessFlags & AccessFlag.STATIC) != 0)
+                        continue;
+                    if (method.getName().startsWith(SWITCH_TABLE_METHOD_PREFIX))
+                        continue;
+                }
+                members.add(method.isConstructor() ? ClassSignatureElement.CONSTRUCTOR : ClassSignatureElement.METHOD,
+                        getMethodString(method));
+            }
+        }
+
+        if (hasElement(ClassSignatureElement.CLASS_ANNOTATION)) {
+            members.add(ClassSignatureElement.CLASS_ANNOTATION, annotationsToString((AnnotationsAttribute) classFile.getAttribute(AnnotationsAttribute.visibleTag)));
+        }
+
+        if (hasElement(ClassSignatureElement.INTERFACES)) {
+            for (String interfaceName : classFile.getInterfaces()) {
+                members.add(ClassSignatureElement.INTERFACES, interfaceName);
+            }
+        }
+
+        if (hasElement(ClassSignatureElement.SUPER_CLASS)) {
+            String superclassName = classFile.getSuperclass();
+            if (superclassName != null && !superclassName.equals(Object.class.getName()))
+                members.add(ClassSignatureElement.SUPER_CLASS, superclassName);
+        }
+
+        if (hasElement(ClassSignatureElement.FIELD)) {
+            boolean useStaticField = hasElement(ClassSignatureElement.FIELD_STATIC);
+            boolean useFieldAnnotation = hasElement(ClassSignatureElement.FIELD_ANNOTATION);
+            for (FieldInfo field : classFile.getFields()) {
+                if (!useStaticField && (field.getAccessFlags() & AccessFlag.STATIC) != 0)
+                    continue;
+                if (field.getName().startsWith(SWITCH_TABLE_METHOD_PREFIX))
+                    continue;
+                String fieldSignature = field.getDescriptor() + " " + field.getName();
+                if (useFieldAnnotation) {
+                    fieldSignature += annotationsToString((AnnotationsAttribute) field.getAttribute(AnnotationsAttribute.visibleTag));
+                }
+                members.add(ClassSignatureElement.FIELD, fieldSignature + ";");
+            }
+        }
+    }
+
+    /**
+     * @return 128-bit digest of the signature value
+     * @throws Exception
+     */
+    public ClassSignatureDigest getDigest() throws Exception {
+        return getHashes().getDigest();
+    }
+
+    private String getMethodString(MethodInfo method) {
+        StringBuilder strBuilder = new StringBuilder();
+        strBuilder.append(AccessFlag.toModifier(method.getAccessFlags())).append(' ');
+        strBuilder.append(method.getName()).append(method.getDescriptor());
+        if (hasElement(ClassSignatureElement.METHOD_ANNOTATION))
+            strBuilder.append(annotationsToString((AnnotationsAttribute) method.getAttribute(AnnotationsAttribute.visibleTag)));
+        if (hasElement(ClassSignatureElement.METHOD_PARAM_ANNOTATION))
+            strBuilder.append(parameterAnnotationsToString(
+                    (ParameterAnnotationsAttribute) method.getAttribute(ParameterAnnotationsAttribute.visibleTag)));
+        if (hasElement(ClassSignatureElement.METHOD_EXCEPTION))
+            strBuilder.append(exceptionsToString(method.getExceptionsAttribute()));
+        strBuilder.append(";");
+        return strBuilder.toString();
+    }
+
+    private String annotationsToString(AnnotationsAttribute attribute) {
+        if (attribute == null)
+            return "[]";
+        return annotationsToString(attribute.getAnnotations());
+    }
+
+    private String annotationsToString(Annotation[] annotations) {
+        String[] strings = new String[annotations.length];
+        for (int i = 0; i < annotations.length; i++) {
+            strings[i] = annotations[i].toString();
+        }
+        Arrays.sort(strings);
+        return Arrays.toString(strings);
+    }
+
+    private String parameterAnnotationsToString(ParameterAnnotationsAttribute attribute) {
+        if (attribute == null)
+            return "[]";
+        StringBuilder b = new StringBuilder("[");
+        for (Annotation[] annotations : attribute.getAnnotations()) {
+            b.append(annotationsToString(annotations));
+        }
+        return b.append(']').toString();
+    }
+
+    private String exceptionsToString(ExceptionsAttribute attribute) {
+        if (attribute == null || attribute.getExceptions() == null)
+            return "[]";
+        String[] exceptions = attribute.getExceptions().clone();
+        Arrays.sort(exceptions);
+        return Arrays.toString(exceptions);
+    }
+}
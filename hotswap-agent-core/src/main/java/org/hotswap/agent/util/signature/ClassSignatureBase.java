@@ -19,12 +19,14 @@
 package org.hotswap.agent.util.signature;
 
 import java.lang.annotation.Annotation;
-import java.lang.reflect.InvocationTargetException;
 import java.lang.reflect.Method;
 import java.lang.reflect.Modifier;
+import java.util.ArrayList;
 import java.util.Arrays;
+import java.util.Collections;
 import java.util.Comparator;
 import java.util.HashSet;
+import java.util.List;
 import java.util.Set;
 
 /**
@@ -40,13 +42,55 @@ public abstract class ClassSignatureBase {
 
     protected static final String SWITCH_TABLE_METHOD_PREFIX = "$SWITCH_TABLE$"; // java stores switch table to class field, signature should ingore it
 
+    /**
+     * Consumer of signature members. A member is the string representation of one class element
+     * (a method, a field, an interface...).
+     */
+    protected interface MemberConsumer {
+        void add(ClassSignatureElement element, String member);
+    }
+
+    /**
+     * Add members of used signature elements to the consumer.
+     *
+     * @param members the consumer
+     * @throws Exception
+     */
+    protected abstract void addMembers(MemberConsumer members) throws Exception;
+
     /**
      * Evaluate and return signature value
      *
      * @return the signature value
      * @throws Exception
      */
-    public abstract String getValue() throws Exception;
+    public String getValue() throws Exception {
+        final List<String> strings = new ArrayList<>();
+        addMembers(new MemberConsumer() {
+            @Override
+            public void add(ClassSignatureElement element, String member) {
+                strings.add(member);
+            }
+        });
+        Collections.sort(strings);
+        StringBuilder strBuilder = new StringBuilder();
+        for (String methodString : strings) {
+            strBuilder.append(methodString);
+        }
+        return strBuilder.toString();
+    }
+
+    /**
+     * Evaluate signature as member hashes. Cheaper to compare and to keep than the signature value.
+     *
+     * @return the member hashes with 128-bit digest
+     * @throws Exception
+     */
+    public ClassSignatureHashes getHashes() throws Exception {
+        ClassSignatureHashes.Builder builder = new ClassSignatureHashes.Builder();
+        addMembers(builder);
+        return builder.build();
+    }
 
     /**
      * Adds the signature elements to set of used signature elements
@@ -80,25 +124,22 @@ public abstract class ClassSignatureBase {
         b.append('[');
         for (int i = 0;i < a.length; i++) {
             Annotation object = (Annotation) a[i];
-            Method[] declaredMethods = object.getClass().getDeclaredMethods();
             b.append("(");
             boolean printComma = false;
-            for (Method method : declaredMethods) {
-                if (Arrays.binarySearch(IGNORED_METHODS, method.getName()) < 0) {
-                    Object value = getAnnotationValue(object, method.getName());
-                    if (value != null) {
-                        if (printComma) {
-                            b.append(",");
-                        } else {
-                            printComma = true;
-                        }
-
-                        if (value.getClass().isArray()) {
-                            value = arrayToString(value);
-                        }
-
-                        b.append(method.getName() + "=" + value.getClass() + ":" + value);
+            for (Method method : getAnnotationAttributes(object.annotationType())) {
+                Object value = getAnnotationValue(object, method);
+                if (value != null) {
+                    if (printComma) {
+                        b.append(",");
+                    } else {
+                        printComma = true;
+                    }
+
+                    if (value.getClass().isArray()) {
+                        value = arrayToString(value);
                     }
+
+                    b.append(method.getName() + "=" + value.getClass() + ":" + value);
                 }
             }
             b.append(")");
@@ -114,21 +155,25 @@ public abstract class ClassSignatureBase {
     }
 
     private Object arrayToString(Object value) {
-        Object result = value;
-        try {
-            try {
-                Method toStringMethod = Arrays.class.getMethod("toString", value.getClass());
-                // maybe because value is a subclass of Object[]
-                result = toStringMethod.invoke(null, value);
-            } catch (NoSuchMethodException e) {
-                if (value instanceof Object[]) {
-                    Method toStringMethod = Arrays.class.getMethod("toString", Object[].class);
-                    result = toStringMethod.invoke(null, value);
-                }
-            }
-        } catch (NoSuchMethodException | IllegalAccessException | InvocationTargetException e ) {
-        }
-        return result;
+        if (value instanceof Object[])
+            return Arrays.toString((Object[]) value);
+        if (value instanceof int[])
+            return Arrays.toString((int[]) value);
+        if (value instanceof long[])
+            return Arrays.toString((long[]) value);
+        if (value instanceof boolean[])
+            return Arrays.toString((boolean[]) value);
+        if (value instanceof byte[])
+            return Arrays.toString((byte[]) value);
+        if (value instanceof char[])
+            return Arrays.toString((char[]) value);
+        if (value instanceof short[])
+            return Arrays.toString((short[]) value);
+        if (value instanceof float[])
+            return Arrays.toString((float[]) value);
+        if (value instanceof double[])
+            return Arrays.toString((double[]) value);
+        return value;
     }
 
     protected String annotationToString(Object[][] a) {
@@ -166,29 +211,41 @@ public abstract class ClassSignatureBase {
         return a;
     }
 
-    private Object getAnnotationValue(Annotation annotation, String attributeName) {
-        Method method = null;
-        boolean acessibleSet = false;
+    private Object getAnnotationValue(Annotation annotation, Method attribute) {
         try {
-            method = annotation.annotationType().getDeclaredMethod(attributeName);
-            acessibleSet = makeAccessible(method);
-            return method.invoke(annotation);
+            return attribute.invoke(annotation);
         } catch (Exception ex) {
             return null;
-        } finally {
-            if (method != null && acessibleSet) {
-                method.setAccessible(false);
+        }
+    }
+
+    // not cached - annotation types may be redefined and their attributes change
+    private static List<Method> getAnnotationAttributes(Class<?> annotationType) {
+        List<Method> attributes = new ArrayList<>();
+        for (Method method : annotationType.getDeclaredMethods()) {
+            if (method.getParameterTypes().length == 0 && Arrays.binarySearch(IGNORED_METHODS, method.getName()) < 0) {
+                makeAccessible(method);
+                attributes.add(method);
             }
         }
+        Collections.sort(attributes, new Comparator<Method>() {
+            @Override
+            public int compare(Method m1, Method m2) {
+                return m1.getName().compareTo(m2.getName());
+            }
+        });
+        return attributes;
     }
 
-    private boolean makeAccessible(Method method) {
+    private static void makeAccessible(Method method) {
         if ((!Modifier.isPublic(method.getModifiers()) || !Modifier.isPublic(method.getDeclaringClass().getModifiers()))
                 && !method.isAccessible()) {
-            method.setAccessible(true);
-            return true;
+            try {
+                method.setAccessible(true);
+            } catch (RuntimeException e) {
+                // not accessible, value is skipped
+            }
         }
-        return false;
     }
 
     protected static class ToStringComparator implements Comparator<Object> {
@@ -45,6 +45,45 @@ public class ClassSignatureComparerHelper {
         return signature.getValue();
     }
 
+    /**
+     * Digest of the CtClass signature, comparable with getJavaClassSignatureDigest().
+     *
+     * @param ctClass the class
+     * @param signatureElements signature elements
+     * @return 128-bit digest of the signature
+     */
+    public static ClassSignatureDigest getCtClassSignatureDigest(CtClass ctClass, ClassSignatureElement[] signatureElements) throws Exception {
+        CtClassSignature signature = new CtClassSignature(ctClass);
+        signature.addSignatureElements(signatureElements);
+        return signature.getHashes().getDigest();
+    }
+
+    /**
+     * Digest of the Class signature, comparable with getCtClassSignatureDigest().
+     *
+     * @param clazz the class
+     * @param signatureElements signature elements
+     * @return 128-bit digest of the signature
+     */
+    public static ClassSignatureDigest getJavaClassSignatureDigest(Class<?> clazz, ClassSignatureElement[] signatureElements) throws Exception {
+        JavaClassSignature signature = new JavaClassSignature(clazz);
+        signature.addSignatureElements(signatureElements);
+        return signature.getHashes().getDigest();
+    }
+
+    /**
+     * Signature digest computed directly from class file bytes (no ClassPool or loaded class is involved).
+     *
+     * @param classBytes class file bytes
+     * @param signatureElements signature elements
+     * @return 128-bit digest of the signature
+     */
+    public static ClassSignatureDigest getClassFileSignatureDigest(byte[] classBytes, ClassSignatureElement[] signatureElements) throws Exception {
+        ClassFileSignature signature = new ClassFileSignature(classBytes);
+        signature.addSignatureElements(signatureElements);
+        return signature.getDigest();
+    }
+
     /**
      * @param ctClass new CtClass definition
      * @param clazz old Class definition
@@ -52,8 +91,8 @@ public class ClassSignatureComparerHelper {
      */
     public static boolean isDifferent(CtClass ctClass, Class<?> clazz, ClassSignatureElement[] signatureElements) {
         try {
-            String sig1 = getCtClassSignature(ctClass, signatureElements);
-            String sig2 = getJavaClassSignature(clazz, signatureElements);
+            ClassSignatureDigest sig1 = getCtClassSignatureDigest(ctClass, signatureElements);
+            ClassSignatureDigest sig2 = getJavaClassSignatureDigest(clazz, signatureElements);
             return !sig1.equals(sig2);
         } catch (Exception e) {
             LOGGER.error("Error reading signature", e);
@@ -63,8 +102,8 @@ public class ClassSignatureComparerHelper {
 
     public static boolean isDifferent(Class<?> clazz1, Class<?> clazz2, ClassSignatureElement[] signatureElements) {
         try {
-            String sig1 = getJavaClassSignature(clazz1, signatureElements);
-            String sig2 = getJavaClassSignature(clazz2, signatureElements);
+            ClassSignatureDigest sig1 = getJavaClassSignatureDigest(clazz1, signatureElements);
+            ClassSignatureDigest sig2 = getJavaClassSignatureDigest(clazz2, signatureElements);
             return !sig1.equals(sig2);
         } catch (Exception e) {
             LOGGER.error("Error reading signature", e);
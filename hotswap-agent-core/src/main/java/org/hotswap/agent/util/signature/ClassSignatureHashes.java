@@ -0,0 +1,196 @@
+/*
+ * Copyright 2013-2023 the HotswapAgent authors.
+ *
+ * This file is part of HotswapAgent.
+ *
+ * HotswapAgent is free software: you can redistribute it and/or modify it
+ * under the terms of the GNU General Public License as published by the
+ * Free Software Foundation, either version 2 of the License, or (at your
+ * option) any later version.
+ *
+ * HotswapAgent is distributed in the hope that it will be useful, but
+ * WITHOUT ANY WARRANTY; without even the implied warranty of
+ * MERCHANTABILITY or FITNESS FOR A PARTICULAR PURPOSE. See the GNU General
+ * Public License for more details.
+ *
+ * You should have received a copy of the GNU General Public License along
+ * with HotswapAgent. If not, see http://www.gnu.org/licenses/.
+ */
+package org.hotswap.agent.util.signature;
+
+import java.util.Arrays;
+
+/**
+ * Class signature as ordered array of 64-bit member hashes with 128-bit digest of all members.
+ * <p/>
+ * Each member string (method, constructor, field, annotation, interface, superclass) is hashed as it is
+ * created, the hash is tagged by ClassSignatureElement of the member in upper 4 bits. Two signatures are
+ * equal if their digests are equal, diff() returns added and removed members.
+ */
+public final class ClassSignatureHashes {
+
+    private static final int TAG_SHIFT = 60;
+
+    private final long[] hashes;
+    private final ClassSignatureDigest digest;
+
+    private ClassSignatureHashes(long[] hashes) {
+        this.hashes = hashes;
+        this.digest = computeDigest(hashes);
+    }
+
+    /**
+     * @return 128-bit digest of all member hashes
+     */
+    public ClassSignatureDigest getDigest() {
+        return digest;
+    }
+
+    /**
+     * @return number of members
+     */
+    public int size() {
+        return hashes.length;
+    }
+
+    /**
+     * Compare with previous signature of the class.
+     *
+     * @param previous the previous signature
+     * @return members added and removed since previous signature
+     */
+    public Diff diff(ClassSignatureHashes previous) {
+        long[] added = new long[hashes.length];
+        long[] removed = new long[previous.hashes.length];
+        int addedCount = 0;
+        int removedCount = 0;
+        int i = 0;
+        int j = 0;
+        while (i < hashes.length || j < previous.hashes.length) {
+            if (j == previous.hashes.length || (i < hashes.length && hashes[i] < previous.hashes[j])) {
+                added[addedCount++] = hashes[i++];
+            } else if (i == hashes.length || hashes[i] > previous.hashes[j]) {
+                removed[removedCount++] = previous.hashes[j++];
+            } else {
+                i++;
+                j++;
+            }
+        }
+        return new Diff(Arrays.copyOf(added, addedCount), Arrays.copyOf(removed, removedCount));
+    }
+
+    @Override
+    public boolean equals(Object o) {
+        if (this == o) return true;
+        if (o == null || getClass() != o.getClass()) return false;
+
+        ClassSignatureHashes that = (ClassSignatureHashes) o;
+        return digest.equals(that.digest) && Arrays.equals(hashes, that.hashes);
+    }
+
+    @Override
+    public int hashCode() {
+        return digest.hashCode();
+    }
+
+    @Override
+    public String toString() {
+        return digest.toString();
+    }
+
+    /**
+     * Members added and removed between two signatures.
+     */
+    public static final class Diff {
+        private final long[] added;
+        private final long[] removed;
+
+        Diff(long[] added, long[] removed) {
+            this.added = added;
+            this.removed = removed;
+        }
+
+        /**
+         * @return true if signatures have same members
+         */
+        public boolean isEmpty() {
+            return added.length == 0 && removed.length == 0;
+        }
+
+        /**
+         * @param element METHOD, CONSTRUCTOR, FIELD, CLASS_ANNOTATION, INTERFACES or SUPER_CLASS
+         * @return number of added members of the element
+         */
+        public int getAddedCount(ClassSignatureElement element) {
+            return count(added, element);
+        }
+
+        /**
+         * @param element METHOD, CONSTRUCTOR, FIELD, CLASS_ANNOTATION, INTERFACES or SUPER_CLASS
+         * @return number of removed members of the element
+         */
+        public int getRemovedCount(ClassSignatureElement element) {
+            return count(removed, element);
+        }
+
+        private static int count(long[] hashes, ClassSignatureElement element) {
+            int result = 0;
+            for (long hash : hashes) {
+                if (hash >>> TAG_SHIFT == element.ordinal()) {
+                    result++;
+                }
+            }
+            return result;
+        }
+    }
+
+    /**
+     * Collects member hashes.
+     */
+    static final class Builder implements ClassSignatureBase.MemberConsumer {
+        private long[] hashes = new long[16];
+        private int size;
+
+        @Override
+        public void add(ClassSignatureElement element, String member) {
+            if (size == hashes.length) {
+                hashes = Arrays.copyOf(hashes, size * 2);
+            }
+            hashes[size++] = ((long) element.ordinal() << TAG_SHIFT) | (hash(member) >>> (64 - TAG_SHIFT));
+        }
+
+        ClassSignatureHashes build() {
+            long[] result = Arrays.copyOf(hashes, size);
+            Arrays.sort(result);
+            return new ClassSignatureHashes(result);
+        }
+    }
+
+    // 64-bit FNV-1a with a final avalanche step
+    private static long hash(String s) {
+        long h = 0xcbf29ce484222325L;
+        for (int i = 0; i < s.length(); i++) {
+            h ^= s.charAt(i);
+            h *= 0x100000001b3L;
+        }
+        return mix(h);
+    }
+
+    // two independent folds of ordered hashes
+    private static ClassSignatureDigest computeDigest(long[] hashes) {
+        long high = 0x9e3779b97f4a7c15L;
+        long low = hashes.length;
+        for (long hash : hashes) {
+            high = mix(high ^ hash) * 0x9e3779b97f4a7c15L;
+            low = mix(low + Long.rotateLeft(hash, 29) * 0xc2b2ae3d27d4eb4fL);
+        }
+        return new ClassSignatureDigest(mix(high), mix(low ^ 0x165667b19e3779f9L));
+    }
+
+    // murmur3 fmix64
+    private static long mix(long z) {
+        z = (z ^ (z >>> 33)) * 0xff51afd7ed558ccdL;
+        z = (z ^ (z >>> 33)) * 0xc4ceb9fe1a85ec53L;
+        return z ^ (z >>> 33);
+    }
+}
@@ -19,11 +19,8 @@
 package org.hotswap.agent.util.signature;
 
 import java.lang.reflect.Modifier;
-import java.util.ArrayList;
 import java.util.Arrays;
-import java.util.Collections;
 import java.util.Comparator;
-import java.util.List;
 
 import org.hotswap.agent.javassist.CtClass;
 import org.hotswap.agent.javassist.CtConstructor;
@@ -49,9 +46,7 @@ public class CtClassSignature extends ClassSignatureBase {
     }
 
     @Override
-    public String getValue() throws Exception {
-        List<String> strings = new ArrayList<>();
-
+    protected void addMembers(MemberConsumer members) throws Exception {
         if (hasElement(ClassSignatureElement.METHOD)) {
             boolean usePrivateMethod = hasElement(ClassSignatureElement.METHOD_PRIVATE);
             boolean useStaticMethod = hasElement(ClassSignatureElement.METHOD_STATIC);
@@ -62,7 +57,7 @@ public class CtClassSignature extends ClassSignatureBase {
                     continue;
                 if (method.getName().startsWith(SWITCH_TABLE_METHOD_PREFIX))
                     continue;
-                strings.add(getMethodString(method));
+                members.add(ClassSignatureElement.METHOD, getMethodString(method));
             }
         }
 
@@ -71,24 +66,24 @@ public class CtClassSignature extends ClassSignatureBase {
             for (CtConstructor method : ctClass.getDeclaredConstructors()) {
                 if (!usePrivateConstructor && Modifier.isPrivate(method.getModifiers()))
                     continue;
-                strings.add(getConstructorString(method));
+                members.add(ClassSignatureElement.CONSTRUCTOR, getConstructorString(method));
             }
         }
 
         if (hasElement(ClassSignatureElement.CLASS_ANNOTATION)) {
-            strings.add(annotationToString(ctClass.getAvailableAnnotations()));
+            members.add(ClassSignatureElement.CLASS_ANNOTATION, annotationToString(ctClass.getAvailableAnnotations()));
         }
 
         if (hasElement(ClassSignatureElement.INTERFACES)) {
             for (CtClass iClass : ctClass.getInterfaces()) {
-                strings.add(iClass.getName());
+                members.add(ClassSignatureElement.INTERFACES, iClass.getName());
             }
         }
 
         if (hasElement(ClassSignatureElement.SUPER_CLASS)) {
             String superclassName = ctClass.getSuperclassName();
             if (superclassName != null && !superclassName.equals(Object.class.getName()))
-                strings.add(superclassName);
+                members.add(ClassSignatureElement.SUPER_CLASS, superclassName);
         }
 
         if (hasElement(ClassSignatureElement.FIELD)) {
@@ -104,15 +99,9 @@ public class CtClassSignature extends ClassSignatureBase {
                     fieldSignature += annotationToString(field.getAvailableAnnotations());
                 }
 
-                strings.add(fieldSignature + ";");
+                members.add(ClassSignatureElement.FIELD, fieldSignature + ";");
             }
         }
-        Collections.sort(strings);
-        StringBuilder strBuilder = new StringBuilder();
-        for (String methodString : strings) {
-            strBuilder.append(methodString);
-        }
-        return strBuilder.toString();
     }
 
     private String getName(CtClass ctClass) {
@@ -22,10 +22,7 @@ import java.lang.reflect.Constructor;
 import java.lang.reflect.Field;
 import java.lang.reflect.Method;
 import java.lang.reflect.Modifier;
-import java.util.ArrayList;
 import java.util.Arrays;
-import java.util.Collections;
-import java.util.List;
 
 import org.hotswap.agent.javassist.bytecode.Descriptor;
 
@@ -44,9 +41,7 @@ public class JavaClassSignature extends ClassSignatureBase {
     }
 
     @Override
-    public String getValue() throws Exception {
-        List<String> strings = new ArrayList<>();
-
+    protected void addMembers(MemberConsumer members) throws Exception {
         if (hasElement(ClassSignatureElement.METHOD)) {
             boolean usePrivateMethod = hasElement(ClassSignatureElement.METHOD_PRIVATE);
             boolean useStaticMethod = hasElement(ClassSignatureElement.METHOD_STATIC);
@@ -57,7 +52,7 @@ public class JavaClassSignature extends ClassSignatureBase {
                     continue;
                 if (method.getName().startsWith(SWITCH_TABLE_METHOD_PREFIX))
                     continue;
-                strings.add(getMethodString(method));
+                members.add(ClassSignatureElement.METHOD, getMethodString(method));
             }
         }
 
@@ -66,23 +61,23 @@ public class JavaClassSignature extends ClassSignatureBase {
             for (Constructor<?> method : clazz.getDeclaredConstructors()) {
                 if (!usePrivateConstructor && Modifier.isPrivate(method.getModifiers()))
                     continue;
-                strings.add(getConstructorString(method));
+                members.add(ClassSignatureElement.CONSTRUCTOR, getConstructorString(method));
             }
         }
 
         if (hasElement(ClassSignatureElement.CLASS_ANNOTATION)) {
-            strings.add(annotationToString(clazz.getAnnotations()));
+            members.add(ClassSignatureElement.CLASS_ANNOTATION, annotationToString(clazz.getAnnotations()));
         }
 
         if (hasElement(ClassSignatureElement.INTERFACES)) {
             for (Class<?> iClass : clazz.getInterfaces()) {
-                strings.add(iClass.getName());
+                members.add(ClassSignatureElement.INTERFACES, iClass.getName());
             }
         }
 
         if (hasElement(ClassSignatureElement.SUPER_CLASS)) {
             if (clazz.getSuperclass() != null && !clazz.getSuperclass().getName().equals(Object.class.getName()))
-                strings.add(clazz.getSuperclass().getName());
+                members.add(ClassSignatureElement.SUPER_CLASS, clazz.getSuperclass().getName());
         }
 
         if (hasElement(ClassSignatureElement.FIELD)) {
@@ -98,17 +93,9 @@ public class JavaClassSignature extends ClassSignatureBase {
                     fieldSignature += annotationToString(field.getAnnotations());
                 }
 
-                strings.add(fieldSignature + ";");
+                members.add(ClassSignatureElement.FIELD, fieldSignature + ";");
             }
         }
-
-        Collections.sort(strings);
-        StringBuilder strBuilder = new StringBuilder();
-        for (String methodString : strings) {
-            strBuilder.append(methodString);
-        }
-
-        return strBuilder.toString();
     }
 
     private String getConstructorString(Constructor<?> method) {
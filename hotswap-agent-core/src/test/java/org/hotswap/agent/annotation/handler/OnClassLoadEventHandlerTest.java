@@ -18,6 +18,7 @@
  */
 package org.hotswap.agent.annotation.handler;
 
+import static junit.framework.Assert.assertFalse;
 import static junit.framework.Assert.assertTrue;
 
 import java.lang.reflect.Method;
@@ -28,6 +29,7 @@ import org.hotswap.agent.config.PluginRegistry;
 import org.hotswap.agent.testData.SimplePlugin;
 import org.hotswap.agent.util.HaClassFileTransformer;
 import org.hotswap.agent.util.HotswapTransformer;
+import org.hotswap.agent.util.IOUtils;
 import org.jmock.Expectations;
 import org.jmock.Mockery;
 import org.jmock.lib.legacy.ClassImposteriser;
@@ -72,6 +74,21 @@ public class OnClassLoadEventHandlerTest {
 
     }
 
+    @Test
+    public void testAnnotationsFilter() throws Exception {
+        byte[] pluginBytes = IOUtils.toByteArray(
+                getClass().getResourceAsStream("/org/hotswap/agent/testData/SimplePlugin.class"));
+        byte[] objectBytes = IOUtils.toByteArray(
+                getClass().getResourceAsStream("/java/lang/Object.class"));
+        String[] pluginAnnotation = {"xxxx", "org.hotswap.agent.annotation.Plugin"};
+
+        assertTrue("No filter", PluginClassFileTransformer.matchesAnnotations(new String[0], "x", null, objectBytes));
+        assertTrue("Annotated class", PluginClassFileTransformer.matchesAnnotations(pluginAnnotation, "x", null, pluginBytes));
+        assertFalse("Not annotated class", PluginClassFileTransformer.matchesAnnotations(pluginAnnotation, "x", null, objectBytes));
+        assertTrue("Annotation removed on redefinition",
+                PluginClassFileTransformer.matchesAnnotations(pluginAnnotation, "x", SimplePlugin.class, objectBytes));
+    }
+
     @Test
     public void testTransform() throws Exception {
 
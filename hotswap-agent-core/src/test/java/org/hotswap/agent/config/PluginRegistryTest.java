@@ -0,0 +1,79 @@
+/*
+ * Copyright 2013-2023 the HotswapAgent authors.
+ *
+ * This file is part of HotswapAgent.
+ *
+ * HotswapAgent is free software: you can redistribute it and/or modify it
+ * under the terms of the GNU General Public License as published by the
+ * Free Software Foundation, either version 2 of the License, or (at your
+ * option) any later version.
+ *
+ * HotswapAgent is distributed in the hope that it will be useful, but
+ * WITHOUT ANY WARRANTY; without even the implied warranty of
+ * MERCHANTABILITY or FITNESS FOR A PARTICULAR PURPOSE. See the GNU General
+ * Public License for more details.
+ *
+ * You should have received a copy of the GNU General Public License along
+ * with HotswapAgent. If not, see http://www.gnu.org/licenses/.
+ */
+package org.hotswap.agent.config;
+
+import org.hotswap.agent.testData.SimplePlugin;
+import org.junit.Test;
+
+import java.net.URL;
+import java.net.URLClassLoader;
+import java.util.concurrent.ConcurrentHashMap;
+
+import static org.junit.Assert.assertEquals;
+import static org.junit.Assert.assertFalse;
+import static org.junit.Assert.assertNotNull;
+import static org.junit.Assert.assertSame;
+import static org.junit.Assert.assertTrue;
+
+public class PluginRegistryTest {
+
+    @Test
+    public void testParentClassLoaderLookup() throws Exception {
+        PluginRegistry pluginRegistry = new PluginRegistry(PluginManager.getInstance(), null);
+        pluginRegistry.getRegisteredPlugins().put(SimplePlugin.class, new ConcurrentHashMap<ClassLoader, Object>());
+
+        ClassLoader parent = new URLClassLoader(new URL[0], getClass().getClassLoader());
+        ClassLoader child = new URLClassLoader(new URL[0], parent);
+
+        assertFalse(pluginRegistry.doHasPlugin(SimplePlugin.class, parent, false, true));
+        SimplePlugin plugin = pluginRegistry.getPlugin(SimplePlugin.class, parent);
+        assertNotNull(plugin);
+
+        assertSame(plugin, pluginRegistry.getPlugin(SimplePlugin.class, child));
+        assertTrue(pluginRegistry.hasPlugin(SimplePlugin.class, child, true));
+        assertFalse(pluginRegistry.hasPlugin(SimplePlugin.class, child, false));
+        assertFalse(pluginRegistry.hasPlugin(SimplePlugin.class, getClass().getClassLoader(), true));
+        assertEquals(parent, pluginRegistry.getAppClassLoader(plugin));
+
+        // nearest classloader wins
+        assertFalse(pluginRegistry.doHasPlugin(SimplePlugin.class, child, false, true));
+        SimplePlugin childPlugin = pluginRegistry.getPlugin(SimplePlugin.class, child);
+        assertTrue(plugin != childPlugin);
+        assertEquals(child, pluginRegistry.getAppClassLoader(childPlugin));
+
+        pluginRegistry.closeClassLoader(child);
+        assertSame(plugin, pluginRegistry.getPlugin(SimplePlugin.class, child));
+
+        pluginRegistry.closeClassLoader(parent);
+        assertFalse(pluginRegistry.hasPlugin(SimplePlugin.class, child, true));
+    }
+
+    @Test(expected = IllegalArgumentException.class)
+    public void testClosedClassLoader() throws Exception {
+        PluginRegistry pluginRegistry = new PluginRegistry(PluginManager.getInstance(), null);
+        pluginRegistry.getRegisteredPlugins().put(SimplePlugin.class, new ConcurrentHashMap<ClassLoader, Object>());
+
+        ClassLoader classLoader = new URLClassLoader(new URL[0], getClass().getClassLoader());
+        pluginRegistry.doHasPlugin(SimplePlugin.class, classLoader, false, true);
+        SimplePlugin plugin = pluginRegistry.getPlugin(SimplePlugin.class, classLoader);
+
+        pluginRegistry.closeClassLoader(classLoader);
+        pluginRegistry.getAppClassLoader(plugin);
+    }
+}
@@ -0,0 +1,171 @@
+/*
+ * Copyright 2013-2023 the HotswapAgent authors.
+ *
+ * This file is part of HotswapAgent.
+ *
+ * HotswapAgent is free software: you can redistribute it and/or modify it
+ * under the terms of the GNU General Public License as published by the
+ * Free Software Foundation, either version 2 of the License, or (at your
+ * option) any later version.
+ *
+ * HotswapAgent is distributed in the hope that it will be useful, but
+ * WITHOUT ANY WARRANTY; without even the implied warranty of
+ * MERCHANTABILITY or FITNESS FOR A PARTICULAR PURPOSE. See the GNU General
+ * Public License for more details.
+ *
+ * You should have received a copy of the GNU General Public License along
+ * with HotswapAgent. If not, see http://www.gnu.org/licenses/.
+ */
+package org.hotswap.agent.javassist;
+
+import static org.junit.Assert.assertArrayEquals;
+import static org.junit.Assert.assertFalse;
+import static org.junit.Assert.assertTrue;
+
+import java.util.Arrays;
+import java.util.HashSet;
+import java.util.Set;
+
+import org.hotswap.agent.javassist.bytecode.BadBytecode;
+import org.hotswap.agent.javassist.bytecode.CodeIterator;
+import org.hotswap.agent.javassist.bytecode.ConstPool;
+import org.hotswap.agent.javassist.bytecode.MethodInfo;
+import org.hotswap.agent.javassist.bytecode.Opcode;
+import org.junit.Test;
+
+/**
+ * Compiled source in a cache hit must be the same as compiled in the target class pool.
+ */
+public class CompiledSnippetCacheTest {
+
+    @Test
+    public void testSameContext() throws Exception {
+        CtMethod first = insertBefore(newPool("snippet.same.Helper", "public static int value() { return 1; }"),
+                "snippet.same.Helper", "snippet.same.Helper.value();");
+        CtMethod second = insertBefore(newPool("snippet.same.Helper", "public static int value() { return 1; }"),
+                "snippet.same.Helper", "snippet.same.Helper.value();");
+
+        assertArrayEquals(first.getMethodInfo().getCodeAttribute().getCode(),
+                second.getMethodInfo().getCodeAttribute().getCode());
+        assertTrue(getOpcodes(second).contains(Opcode.INVOKESTATIC));
+    }
+
+    @Test
+    public void testImportedPackages() throws Exception {
+        ClassPool first = newPool("snippet.imports.a.Foo", "public static int value() { return 1; }");
+        first.importPackage("snippet.imports.a");
+        CtMethod firstMethod = insertBefore(first, "java.lang.Object", "Foo.value();");
+        assertTrue(getClassNames(firstMethod).contains("snippet.imports.a.Foo"));
+
+        // snippet.imports.a.Foo is available, but Foo resolves to snippet.imports.b.Foo
+        ClassPool second = newPool("snippet.imports.a.Foo", "public static int value() { return 1; }");
+        addClass(second, "snippet.imports.b.Foo", "public static int value() { return 2; }");
+        second.importPackage("snippet.imports.b");
+        CtMethod secondMethod = insertBefore(second, "java.lang.Object", "Foo.value();");
+
+        assertTrue(getClassNames(secondMethod).contains("snippet.imports.b.Foo"));
+        assertFalse(getClassNames(secondMethod).contains("snippet.imports.a.Foo"));
+    }
+
+    @Test
+    public void testStaticMethodChanged() throws Exception {
+        CtMethod first = insertBefore(newPool("snippet.modifiers.Base", "public static int value() { return 1; }"),
+                "snippet.modifiers.Base", "value();");
+        assertTrue(getOpcodes(first).contains(Opcode.INVOKESTATIC));
+
+        // same method, but not static
+        CtMethod second = insertBefore(newPool("snippet.modifiers.Base", "public int value() { return 1; }"),
+                "snippet.modifiers.Base", "value();");
+        assertTrue(getOpcodes(second).contains(Opcode.INVOKEVIRTUAL));
+        assertFalse(getOpcodes(second).contains(Opcode.INVOKESTATIC));
+    }
+
+    @Test
+    public void testMoreSpecificOverload() throws Exception {
+        CtMethod first = insertBefore(newPool("snippet.overload.Helper", "public static int foo(Object o) { return 1; }"),
+                "java.lang.Object", "snippet.overload.Helper.foo(\"x\");");
+        assertTrue(getMethodDescriptors(first).contains("(Ljava/lang/Object;)I"));
+
+        // other class loader, library version with a more specific overload
+        ClassPool pool = newPool("snippet.overload.Helper", "public static int foo(Object o) { return 1; }");
+        pool.get("snippet.overload.Helper").addMethod(CtNewMethod.make("public static int foo(String s) { return 2; }",
+                pool.get("snippet.overload.Helper")));
+        CtMethod second = insertBefore(pool, "java.lang.Object", "snippet.overload.Helper.foo(\"x\");");
+
+        assertTrue(getMethodDescriptors(second).contains("(Ljava/lang/String;)I"));
+        assertFalse(getMethodDescriptors(second).contains("(Ljava/lang/Object;)I"));
+    }
+
+    @Test
+    public void testInlinedConstantChanged() throws Exception {
+        CtMethod first = insertBefore(newConstantPool("1"), "java.lang.Object",
+                "{ int i = snippet.constant.Helper.VALUE + 0; }");
+        // the constant is inlined, no reference to Helper remains
+        assertFalse(getClassNames(first).contains("snippet.constant.Helper"));
+
+        CtMethod second = insertBefore(newConstantPool("2"), "java.lang.Object",
+                "{ int i = snippet.constant.Helper.VALUE + 0; }");
+
+        assertFalse(Arrays.equals(first.getMethodInfo().getCodeAttribute().getCode(),
+                second.getMethodInfo().getCodeAttribute().getCode()));
+    }
+
+    private static ClassPool newConstantPool(String value) throws Exception {
+        ClassPool pool = new ClassPool(true);
+        CtClass cc = pool.makeClass("snippet.constant.Helper");
+        cc.addField(CtField.make("public static final int VALUE = " + value + ";", cc));
+        return pool;
+    }
+
+    private static ClassPool newPool(String className, String method) throws Exception {
+        ClassPool pool = new ClassPool(true);
+        addClass(pool, className, method);
+        return pool;
+    }
+
+    private static void addClass(ClassPool pool, String className, String method) throws Exception {
+        CtClass cc = pool.makeClass(className);
+        cc.addMethod(CtNewMethod.make(method, cc));
+    }
+
+    // method run() of class Target extending superclass with src inserted
+    private static CtMethod insertBefore(ClassPool pool, String superclass, String src) throws Exception {
+        CtClass target = pool.makeClass("snippet.Target", pool.get(superclass));
+        CtMethod method = CtNewMethod.make("public void run() { }", target);
+        target.addMethod(method);
+        method.insertBefore(src);
+        return method;
+    }
+
+    private static Set<Integer> getOpcodes(CtMethod method) throws BadBytecode {
+        Set<Integer> result = new HashSet<>();
+        CodeIterator it = method.getMethodInfo().getCodeAttribute().iterator();
+        while (it.hasNext()) {
+            result.add(it.byteAt(it.next()));
+        }
+        return result;
+    }
+
+    private static Set<String> getMethodDescriptors(CtMethod method) {
+        Set<String> result = new HashSet<>();
+        ConstPool cp = method.getMethodInfo().getConstPool();
+        for (int i = 1; i < cp.getSize(); i++) {
+            if (cp.getTag(i) == ConstPool.CONST_Methodref) {
+                result.add(cp.getMethodrefType(i));
+            }
+        }
+        return result;
+    }
+
+    private static Set<String> getClassNames(CtMethod method) {
+        Set<String> result = new HashSet<>();
+        MethodInfo minfo = method.getMethodInfo();
+        ConstPool cp = minfo.getConstPool();
+        for (int i = 1; i < cp.getSize(); i++) {
+            if (cp.getTag(i) == ConstPool.CONST_Class) {
+                result.add(cp.getClassInfo(i));
+            }
+        }
+        return result;
+    }
+}
@@ -0,0 +1,51 @@
+/*
+ * Copyright 2013-2023 the HotswapAgent authors.
+ *
+ * This file is part of HotswapAgent.
+ *
+ * HotswapAgent is free software: you can redistribute it and/or modify it
+ * under the terms of the GNU General Public License as published by the
+ * Free Software Foundation, either version 2 of the License, or (at your
+ * option) any later version.
+ *
+ * HotswapAgent is distributed in the hope that it will be useful, but
+ * WITHOUT ANY WARRANTY; without even the implied warranty of
+ * MERCHANTABILITY or FITNESS FOR A PARTICULAR PURPOSE. See the GNU General
+ * Public License for more details.
+ *
+ * You should have received a copy of the GNU General Public License along
+ * with HotswapAgent. If not, see http://www.gnu.org/licenses/.
+ */
+package org.hotswap.agent.javassist.bytecode;
+
+import static org.junit.Assert.assertTrue;
+
+import java.io.ByteArrayOutputStream;
+import java.io.DataOutputStream;
+
+import org.hotswap.agent.javassist.ClassPool;
+import org.hotswap.agent.javassist.CtClass;
+import org.hotswap.agent.javassist.CtField;
+import org.junit.Test;
+
+/**
+ * Size estimate used to presize the class file buffer.
+ */
+public class ClassFileTest {
+
+    @Test
+    public void testEstimateSizeIsUpperBound() throws Exception {
+        ClassPool classPool = new ClassPool(true);
+        CtClass ctClass = classPool.makeClass("test.EstimateSize");
+        ctClass.addField(CtField.make("public static final long LONG = 1L;", ctClass));
+        ClassFile classFile = ctClass.getClassFile();
+        // 1, 2 and 3 bytes per char in modified UTF-8
+        classFile.getConstPool().addUtf8Info("ascii");
+        classFile.getConstPool().addUtf8Info("\u00e1\u00e9\u00ed\u00f3\u00fa\u0000");
+        classFile.getConstPool().addUtf8Info("\u6f22\u5b57\u6f22\u5b57\u6f22\u5b57\u6f22\u5b57");
+
+        ByteArrayOutputStream bytes = new ByteArrayOutputStream();
+        classFile.write(new DataOutputStream(bytes));
+        assertTrue(classFile.estimateSize() + " < " + bytes.size(), classFile.estimateSize() >= bytes.size());
+    }
+}
@@ -0,0 +1,54 @@
+/*
+ * Copyright 2013-2023 the HotswapAgent authors.
+ *
+ * This file is part of HotswapAgent.
+ *
+ * HotswapAgent is free software: you can redistribute it and/or modify it
+ * under the terms of the GNU General Public License as published by the
+ * Free Software Foundation, either version 2 of the License, or (at your
+ * option) any later version.
+ *
+ * HotswapAgent is distributed in the hope that it will be useful, but
+ * WITHOUT ANY WARRANTY; without even the implied warranty of
+ * MERCHANTABILITY or FITNESS FOR A PARTICULAR PURPOSE. See the GNU General
+ * Public License for more details.
+ *
+ * You should have received a copy of the GNU General Public License along
+ * with HotswapAgent. If not, see http://www.gnu.org/licenses/.
+ */
+package org.hotswap.agent.plugin.jdk;
+
+import static org.junit.Assert.assertNotSame;
+import static org.junit.Assert.assertSame;
+
+import java.beans.BeanInfo;
+import java.beans.Introspector;
+import java.io.ObjectStreamClass;
+import java.util.Collections;
+
+import org.junit.Test;
+
+public class JdkCacheEvictorTest {
+
+    @Test
+    public void evictIntrospectorTest() throws Exception {
+        BeanInfo beanInfo1 = Introspector.getBeanInfo(TestBean1.class);
+        BeanInfo beanInfo2 = Introspector.getBeanInfo(TestBean2.class);
+
+        new JdkCacheEvictor().evict(Collections.<Class<?>>singletonList(TestBean1.class));
+
+        assertNotSame(beanInfo1, Introspector.getBeanInfo(TestBean1.class));
+        assertSame(beanInfo2, Introspector.getBeanInfo(TestBean2.class));
+    }
+
+    @Test
+    public void evictObjectStreamTest() throws Exception {
+        ObjectStreamClass desc1 = ObjectStreamClass.lookup(Serialization1.class);
+        ObjectStreamClass desc2 = ObjectStreamClass.lookup(Serialization2.class);
+
+        new JdkCacheEvictor().evict(Collections.<Class<?>>singletonList(Serialization1.class));
+
+        assertNotSame(desc1, ObjectStreamClass.lookup(Serialization1.class));
+        assertSame(desc2, ObjectStreamClass.lookup(Serialization2.class));
+    }
+}
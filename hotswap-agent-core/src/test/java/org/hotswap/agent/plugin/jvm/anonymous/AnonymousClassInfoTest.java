@@ -22,7 +22,9 @@ import org.hotswap.agent.javassist.CannotCompileException;
 import org.hotswap.agent.javassist.ClassPool;
 import org.hotswap.agent.javassist.LoaderClassPath;
 import org.hotswap.agent.javassist.NotFoundException;
+import org.hotswap.agent.plugin.jvm.AnonymousClassFileReader;
 import org.hotswap.agent.plugin.jvm.AnonymousClassInfo;
+import org.hotswap.agent.util.IOUtils;
 import org.junit.Test;
 
 import java.io.IOException;
@@ -39,6 +41,7 @@ public class AnonymousClassInfoTest {
         String classSignature = "java.lang.Object;" + AnonymousTestInterface1.class.getName();
         assertEquals(classSignature, getAnonymousClassInfo().getClassSignature());
         assertEquals(classSignature, getAnonymousCtClassInfo().getClassSignature());
+        assertEquals(classSignature, getAnonymousClassFileInfo().getClassSignature());
     }
 
     @Test
@@ -46,6 +49,7 @@ public class AnonymousClassInfoTest {
         String methodsSignature = "java.lang.String test1();";
         assertEquals(methodsSignature, getAnonymousClassInfo().getMethodSignature());
         assertEquals(methodsSignature, getAnonymousCtClassInfo().getMethodSignature());
+        assertEquals(methodsSignature, getAnonymousClassFileInfo().getMethodSignature());
     }
 
     @Test
@@ -54,6 +58,7 @@ public class AnonymousClassInfoTest {
         String fieldsSignature = "org.hotswap.agent.plugin.jvm.anonymous.AnonymousTestClass1 this$0;";
         assertEquals(fieldsSignature, getAnonymousClassInfo().getFieldsSignature());
         assertEquals(fieldsSignature, getAnonymousCtClassInfo().getFieldsSignature());
+        assertEquals(fieldsSignature, getAnonymousClassFileInfo().getFieldsSignature());
     }
 
     @Test
@@ -61,6 +66,7 @@ public class AnonymousClassInfoTest {
         String enclosingMethodSignature = "java.lang.String enclosing1();";
         assertEquals(enclosingMethodSignature, getAnonymousClassInfo().getEnclosingMethodSignature());
         assertEquals(enclosingMethodSignature, getAnonymousCtClassInfo().getEnclosingMethodSignature());
+        assertEquals(enclosingMethodSignature, getAnonymousClassFileInfo().getEnclosingMethodSignature());
     }
 
     private AnonymousClassInfo getAnonymousClassInfo() throws ClassNotFoundException {
@@ -75,4 +81,10 @@ public class AnonymousClassInfoTest {
         classPool.appendClassPath(new LoaderClassPath(getClass().getClassLoader()));
         return new AnonymousClassInfo(classPool.get(clazz.getName()));
     }
+
+    private AnonymousClassInfo getAnonymousClassFileInfo() throws IOException {
+        String resource = AnonymousTestClass1.class.getName().replace('.', '/') + "$1.class";
+        byte[] classFile = IOUtils.toByteArray(getClass().getClassLoader().getResourceAsStream(resource));
+        return AnonymousClassFileReader.readAnonymousClassInfo(classFile);
+    }
 }
@@ -0,0 +1,103 @@
+/*
+ * Copyright 2013-2023 the HotswapAgent authors.
+ *
+ * This file is part of HotswapAgent.
+ *
+ * HotswapAgent is free software: you can redistribute it and/or modify it
+ * under the terms of the GNU General Public License as published by the
+ * Free Software Foundation, either version 2 of the License, or (at your
+ * option) any later version.
+ *
+ * HotswapAgent is distributed in the hope that it will be useful, but
+ * WITHOUT ANY WARRANTY; without even the implied warranty of
+ * MERCHANTABILITY or FITNESS FOR A PARTICULAR PURPOSE. See the GNU General
+ * Public License for more details.
+ *
+ * You should have received a copy of the GNU General Public License along
+ * with HotswapAgent. If not, see http://www.gnu.org/licenses/.
+ */
+package org.hotswap.agent.util;
+
+import static org.junit.Assert.assertEquals;
+import static org.junit.Assert.assertFalse;
+import static org.junit.Assert.assertNull;
+import static org.junit.Assert.assertTrue;
+
+import java.io.IOException;
+import java.io.InputStream;
+import java.io.Serializable;
+import java.lang.annotation.ElementType;
+import java.lang.annotation.Retention;
+import java.lang.annotation.RetentionPolicy;
+import java.util.Arrays;
+
+import org.hotswap.agent.javassist.bytecode.AccessFlag;
+import org.hotswap.agent.plugin.jvm.AnonymousClassPatchPlugin;
+import org.junit.Test;
+
+public class ClassFileSummaryTest {
+
+    @Retention(RetentionPolicy.RUNTIME)
+    public @interface Complex {
+        String value();
+        int[] numbers() default {};
+        ElementType type() default ElementType.TYPE;
+        Class<?> clazz() default Object.class;
+        Retention nested() default @Retention(RetentionPolicy.CLASS);
+    }
+
+    @Retention(RetentionPolicy.CLASS)
+    public @interface Invisible {
+    }
+
+    @Complex(value = "x", numbers = {1, 2}, type = ElementType.FIELD, clazz = String.class,
+            nested = @Retention(RetentionPolicy.RUNTIME))
+    @Invisible
+    @Deprecated
+    public static abstract class Annotated implements Serializable, Runnable {
+        private int field;
+
+        public void method() {
+        }
+    }
+
+    @Test
+    public void testAnnotations() throws Exception {
+        ClassFileSummary summary = ClassFileSummary.read(readClassFile(Annotated.class));
+
+        assertEquals(Annotated.class.getName(), summary.getClassName());
+        assertEquals(Object.class.getName(), summary.getSuperclassName());
+        assertEquals(Arrays.asList(Serializable.class.getName(), Runnable.class.getName()), summary.getInterfaces());
+        assertEquals(Arrays.asList(Complex.class.getName(), Deprecated.class.getName()), summary.getAnnotations());
+        assertTrue(summary.hasAnnotation(Deprecated.class.getName()));
+        assertFalse(summary.hasAnnotation(Invisible.class.getName()));
+        assertTrue((summary.getAccessFlags() & AccessFlag.ABSTRACT) != 0);
+    }
+
+    @Test
+    public void testSameAsAnnotationHelper() throws Exception {
+        ClassFileSummary summary = ClassFileSummary.read(readClassFile(AnonymousClassPatchPlugin.class));
+
+        assertTrue(summary.hasAnnotation("org.hotswap.agent.annotation.Plugin"));
+        assertFalse(summary.hasAnnotation("xxxx"));
+    }
+
+    @Test
+    public void testObject() throws Exception {
+        ClassFileSummary summary = ClassFileSummary.read(readClassFile(Object.class));
+
+        assertEquals(Object.class.getName(), summary.getClassName());
+        assertNull(summary.getSuperclassName());
+        assertTrue(summary.getInterfaces().isEmpty());
+    }
+
+    @Test(expected = IllegalArgumentException.class)
+    public void testInvalidClassFile() {
+        ClassFileSummary.read(new byte[] {(byte) 0xCA, (byte) 0xFE, (byte) 0xBA, (byte) 0xBE, 0, 0, 0, 52, 0, 10});
+    }
+
+    private static byte[] readClassFile(Class<?> clazz) throws IOException {
+        InputStream is = clazz.getResourceAsStream("/" + clazz.getName().replace('.', '/') + ".class");
+        return IOUtils.toByteArray(is);
+    }
+}
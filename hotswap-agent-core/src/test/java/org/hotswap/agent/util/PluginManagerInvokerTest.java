@@ -31,6 +31,9 @@ import java.lang.reflect.Method;
 import java.util.Collections;
 import java.util.Map;
 
+import static org.junit.Assert.assertNull;
+import static org.junit.Assert.assertSame;
+
 /**
  * @author Jiri Bubnik
  */
@@ -60,6 +63,17 @@ public class PluginManagerInvokerTest {
 
     }
 
+    @Test
+    public void testCallSite() throws Exception {
+        SimplePlugin plugin = new SimplePlugin();
+        registerPlugin(plugin);
+
+        String descriptor = PluginMethodCallSite.descriptor(SimplePlugin.class, "callPluginMethod", "java.lang.Boolean");
+        PluginMethodCallSite callSite = PluginMethodCallSite.get(descriptor);
+        assertSame("Call site resolved once", callSite, PluginMethodCallSite.get(descriptor));
+        assertNull(callSite.invoke(getClass().getClassLoader(), new Object[]{Boolean.TRUE}));
+    }
+
     // plugin registration is not public, use reflection to insert test data
     private void registerPlugin(Object plugin) throws NoSuchFieldException, IllegalAccessException {
         Field f = PluginRegistry.class.getDeclaredField("registeredPlugins");
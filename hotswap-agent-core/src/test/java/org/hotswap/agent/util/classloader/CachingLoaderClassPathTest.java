@@ -0,0 +1,141 @@
+/*
+ * Copyright 2013-2023 the HotswapAgent authors.
+ *
+ * This file is part of HotswapAgent.
+ *
+ * HotswapAgent is free software: you can redistribute it and/or modify it
+ * under the terms of the GNU General Public License as published by the
+ * Free Software Foundation, either version 2 of the License, or (at your
+ * option) any later version.
+ *
+ * HotswapAgent is distributed in the hope that it will be useful, but
+ * WITHOUT ANY WARRANTY; without even the implied warranty of
+ * MERCHANTABILITY or FITNESS FOR A PARTICULAR PURPOSE. See the GNU General
+ * Public License for more details.
+ *
+ * You should have received a copy of the GNU General Public License along
+ * with HotswapAgent. If not, see http://www.gnu.org/licenses/.
+ */
+package org.hotswap.agent.util.classloader;
+
+import static org.junit.Assert.assertEquals;
+import static org.junit.Assert.assertNotNull;
+
+import java.io.File;
+import java.io.FileOutputStream;
+import java.net.URL;
+import java.net.URLClassLoader;
+import java.nio.file.Files;
+import java.nio.file.StandardCopyOption;
+import java.util.jar.JarEntry;
+import java.util.jar.JarOutputStream;
+
+import org.hotswap.agent.javassist.ClassPool;
+import org.hotswap.agent.javassist.CtClass;
+import org.junit.Test;
+
+public class CachingLoaderClassPathTest {
+
+    @Test
+    public void testSharedAcrossClassPools() throws Exception {
+        File root = Files.createTempDirectory("cachingClassPath").toFile();
+        writeClass(root, "test.Cached", "java.lang.Object");
+        CountingClassLoader classLoader = new CountingClassLoader(root);
+
+        assertEquals("java.lang.Object", getSuperclassName(classLoader, "test.Cached"));
+        assertEquals("java.lang.Object", getSuperclassName(classLoader, "test.Cached"));
+        assertEquals("Resource resolved once", 1, classLoader.count);
+        assertNotNull(new CachingLoaderClassPath(classLoader).find("test.Cached"));
+        assertEquals("Resource URL cached", 1, classLoader.count);
+
+        // class file change with preserved modification time (cp -p, rsync)
+        File classFile = new File(root, "test/Cached.class");
+        long lastModified = classFile.lastModified();
+        writeClass(root, "test.Cached", "java.util.ArrayList");
+        classFile.setLastModified(lastModified);
+        assertEquals("java.util.ArrayList", getSuperclassName(classLoader, "test.Cached"));
+        assertEquals(2, classLoader.count);
+
+        // redefinition
+        CachingLoaderClassPath.invalidate(classLoader, "test/Cached");
+        assertEquals("java.util.ArrayList", getSuperclassName(classLoader, "test.Cached"));
+        assertEquals(3, classLoader.count);
+    }
+
+    @Test
+    public void testWatcherEvent() throws Exception {
+        File root = Files.createTempDirectory("cachingClassPath").toFile();
+        File classFile = writeClass(root, "test.Watched", "java.lang.Number");
+        CountingClassLoader classLoader = new CountingClassLoader(root);
+
+        assertEquals("java.lang.Number", getSuperclassName(classLoader, "test.Watched"));
+
+        // same modification time and size
+        long lastModified = classFile.lastModified();
+        writeClass(root, "test.Watched", "java.lang.Record");
+        classFile.setLastModified(lastModified);
+        assertEquals("java.lang.Number", getSuperclassName(classLoader, "test.Watched"));
+
+        CachingLoaderClassPath.invalidate(classLoader, new File(root, "test").toURI());
+        assertEquals("java.lang.Record", getSuperclassName(classLoader, "test.Watched"));
+    }
+
+    @Test
+    public void testJarReplaced() throws Exception {
+        File root = Files.createTempDirectory("cachingClassPath").toFile();
+        File jar = writeJar(new File(root, "test.jar"), "java.lang.Object");
+        CountingClassLoader classLoader = new CountingClassLoader(jar);
+
+        assertEquals("java.lang.Object", getSuperclassName(classLoader, "test.Jarred"));
+        assertEquals(1, classLoader.count);
+
+        // the classloader itself keeps the replaced JAR open, only check the class file is resolved again
+        long lastModified = jar.lastModified();
+        writeJar(new File(root, "new.jar"), "java.util.ArrayList");
+        Files.move(new File(root, "new.jar").toPath(), jar.toPath(), StandardCopyOption.REPLACE_EXISTING);
+        jar.setLastModified(lastModified);
+        getSuperclassName(classLoader, "test.Jarred");
+        assertEquals(2, classLoader.count);
+    }
+
+    private static String getSuperclassName(ClassLoader classLoader, String className) throws Exception {
+        ClassPool classPool = new ClassPool();
+        classPool.appendClassPath(new CachingLoaderClassPath(classLoader));
+        return classPool.get(className).getClassFile2().getSuperclass();
+    }
+
+    private static File writeClass(File root, String className, String superclass) throws Exception {
+        ClassPool classPool = new ClassPool(true);
+        CtClass ctClass = classPool.makeClass(className);
+        ctClass.getClassFile2().setSuperclass(superclass);
+        File file = new File(root, className.replace('.', '/') + ".class");
+        file.getParentFile().mkdirs();
+        Files.write(file.toPath(), ctClass.toBytecode());
+        return file;
+    }
+
+    private static File writeJar(File jar, String superclass) throws Exception {
+        ClassPool classPool = new ClassPool(true);
+        CtClass ctClass = classPool.makeClass("test.Jarred");
+        ctClass.getClassFile2().setSuperclass(superclass);
+        try (JarOutputStream out = new JarOutputStream(new FileOutputStream(jar))) {
+            out.putNextEntry(new JarEntry("test/Jarred.class"));
+            out.write(ctClass.toBytecode());
+        }
+        return jar;
+    }
+
+    private static class CountingClassLoader extends URLClassLoader {
+        int count;
+
+        CountingClassLoader(File root) throws Exception {
+            super(new URL[] {root.toURI().toURL()}, null);
+        }
+
+        @Override
+        public URL getResource(String name) {
+            count++;
+            return super.getResource(name);
+        }
+    }
+}
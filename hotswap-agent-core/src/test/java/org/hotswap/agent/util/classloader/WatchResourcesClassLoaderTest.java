@@ -0,0 +1,122 @@
+/*
+ * Copyright 2013-2023 the HotswapAgent authors.
+ *
+ * This file is part of HotswapAgent.
+ *
+ * HotswapAgent is free software: you can redistribute it and/or modify it
+ * under the terms of the GNU General Public License as published by the
+ * Free Software Foundation, either version 2 of the License, or (at your
+ * option) any later version.
+ *
+ * HotswapAgent is distributed in the hope that it will be useful, but
+ * WITHOUT ANY WARRANTY; without even the implied warranty of
+ * MERCHANTABILITY or FITNESS FOR A PARTICULAR PURPOSE. See the GNU General
+ * Public License for more details.
+ *
+ * You should have received a copy of the GNU General Public License along
+ * with HotswapAgent. If not, see http://www.gnu.org/licenses/.
+ */
+package org.hotswap.agent.util.classloader;
+
+import static org.junit.Assert.assertEquals;
+import static org.junit.Assert.assertFalse;
+import static org.junit.Assert.assertNull;
+import static org.junit.Assert.assertTrue;
+
+import java.io.File;
+import java.net.URI;
+import java.net.URL;
+import java.nio.file.Files;
+import java.util.ArrayList;
+import java.util.Collections;
+import java.util.List;
+
+import org.hotswap.agent.annotation.FileEvent;
+import org.hotswap.agent.watch.WatchEventListener;
+import org.hotswap.agent.watch.WatchFileEvent;
+import org.hotswap.agent.watch.Watcher;
+import org.junit.Test;
+
+public class WatchResourcesClassLoaderTest {
+
+    @Test
+    public void testChangedResource() throws Exception {
+        File root = Files.createTempDirectory("watchResources").toFile();
+        File changed = new File(root, "sub/changed.properties");
+        changed.getParentFile().mkdirs();
+        Files.write(changed.toPath(), "a=b".getBytes());
+        File unchanged = new File(root, "unchanged.properties");
+        Files.write(unchanged.toPath(), "a=b".getBytes());
+
+        TestWatcher watcher = new TestWatcher();
+        WatchResourcesClassLoader classLoader = new WatchResourcesClassLoader(false);
+        classLoader.initWatchResources(new URL[] {root.toURI().toURL()}, watcher);
+
+        assertNull(classLoader.getResource("sub/changed.properties"));
+
+        watcher.fire(changed.toURI());
+
+        URL resource = classLoader.getResource("sub/changed.properties");
+        assertEquals(changed.toURI().toURL().getPath(), resource.getPath());
+        assertTrue(classLoader.isResourceChanged(resource));
+        assertEquals(Collections.singletonList(resource),
+                Collections.list(classLoader.getResources("sub/changed.properties")));
+
+        assertNull(classLoader.getResource("unchanged.properties"));
+        assertFalse(classLoader.isResourceChanged(unchanged.toURI().toURL()));
+        assertFalse(classLoader.getResources("unchanged.properties").hasMoreElements());
+    }
+
+    private static class TestWatcher implements Watcher {
+        private final List<WatchEventListener> listeners = new ArrayList<>();
+
+        @Override
+        public void addEventListener(ClassLoader classLoader, URI pathPrefix, WatchEventListener listener) {
+            listeners.add(listener);
+        }
+
+        @Override
+        public void addEventListener(ClassLoader classLoader, URL pathPrefix, WatchEventListener listener) {
+            listeners.add(listener);
+        }
+
+        @Override
+        public void closeClassLoader(ClassLoader classLoader) {
+        }
+
+        @Override
+        public void run() {
+        }
+
+        @Override
+        public void stop() {
+        }
+
+        void fire(final URI uri) {
+            WatchFileEvent event = new WatchFileEvent() {
+                @Override
+                public FileEvent getEventType() {
+                    return FileEvent.MODIFY;
+                }
+
+                @Override
+                public URI getURI() {
+                    return uri;
+                }
+
+                @Override
+                public boolean isFile() {
+                    return true;
+                }
+
+                @Override
+                public boolean isDirectory() {
+                    return false;
+                }
+            };
+            for (WatchEventListener listener : listeners) {
+                listener.onEvent(event);
+            }
+        }
+    }
+}
@@ -0,0 +1,119 @@
+/*
+ * Copyright 2013-2023 the HotswapAgent authors.
+ *
+ * This file is part of HotswapAgent.
+ *
+ * HotswapAgent is free software: you can redistribute it and/or modify it
+ * under the terms of the GNU General Public License as published by the
+ * Free Software Foundation, either version 2 of the License, or (at your
+ * option) any later version.
+ *
+ * HotswapAgent is distributed in the hope that it will be useful, but
+ * WITHOUT ANY WARRANTY; without even the implied warranty of
+ * MERCHANTABILITY or FITNESS FOR A PARTICULAR PURPOSE. See the GNU General
+ * Public License for more details.
+ *
+ * You should have received a copy of the GNU General Public License along
+ * with HotswapAgent. If not, see http://www.gnu.org/licenses/.
+ */
+package org.hotswap.agent.util.scanner;
+
+import org.junit.Test;
+
+import java.io.File;
+import java.io.IOException;
+import java.io.InputStream;
+import java.net.URL;
+import java.net.URLClassLoader;
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.util.concurrent.atomic.AtomicInteger;
+
+import static org.junit.Assert.assertEquals;
+import static org.junit.Assert.assertTrue;
+import static org.junit.Assume.assumeNoException;
+
+/**
+ * Test scanner.
+ */
+public class ClassPathScannerTest {
+
+    @Test
+    public void testConcurrentVisitor() throws Exception {
+        // JUnit JAR contains enough classes to be visited in parallel
+        final AtomicInteger sequential = new AtomicInteger();
+        new ClassPathScanner().scan(getClass().getClassLoader(), "org/junit", new ScannerVisitor() {
+            @Override
+            public void visit(InputStream file) throws IOException {
+                sequential.incrementAndGet();
+            }
+        });
+
+        final AtomicInteger concurrent = new AtomicInteger();
+        new ClassPathScanner().scan(getClass().getClassLoader(), "org/junit", new ConcurrentScannerVisitor() {
+            @Override
+            public void visit(InputStream file) throws IOException {
+                // class file header only
+                assertEquals(0xCA, file.read());
+                concurrent.incrementAndGet();
+            }
+        });
+
+        assertTrue(sequential.get() > 32);
+        assertEquals(sequential.get(), concurrent.get());
+    }
+
+    @Test
+    public void testSymbolicLinkFollowed() throws Exception {
+        Path root = Files.createTempDirectory("scanner");
+        Path target = Files.createTempDirectory("scannerTarget");
+        try {
+            Files.write(target.resolve("A.class"), new byte[] {(byte) 0xCA});
+            Files.createDirectory(root.resolve("pkg"));
+            try {
+                Files.createSymbolicLink(root.resolve("pkg").resolve("linked"), target);
+                // cycle is skipped
+                Files.createSymbolicLink(root.resolve("pkg").resolve("loop"), root.resolve("pkg"));
+            } catch (IOException | UnsupportedOperationException e) {
+                assumeNoException(e);
+            }
+
+            final AtomicInteger visited = new AtomicInteger();
+            URLClassLoader classLoader = new URLClassLoader(new URL[] {root.toUri().toURL()}, null);
+            try {
+                new ClassPathScanner().scan(classLoader, "pkg", new ScannerVisitor() {
+                    @Override
+                    public void visit(InputStream file) throws IOException {
+                        visited.incrementAndGet();
+                    }
+                });
+            } finally {
+                classLoader.close();
+            }
+            assertEquals(1, visited.get());
+        } finally {
+            delete(root.toFile());
+            delete(target.toFile());
+        }
+    }
+
+    private static void delete(File file) {
+        // symbolic links are deleted, not followed
+        if (file.isDirectory() && !Files.isSymbolicLink(file.toPath())) {
+            for (File child : file.listFiles()) {
+                delete(child);
+            }
+        }
+        file.delete();
+    }
+
+    @Test(expected = IOException.class)
+    public void testVisitorException() throws Exception {
+        new ClassPathScanner().scan(getClass().getClassLoader(), "org/junit", new ConcurrentScannerVisitor() {
+            @Override
+            public void visit(InputStream file) throws IOException {
+                throw new IOException("Visitor failed");
+            }
+        });
+    }
+}
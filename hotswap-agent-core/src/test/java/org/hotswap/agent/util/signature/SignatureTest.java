@@ -19,6 +19,8 @@
 package org.hotswap.agent.util.signature;
 
 import static org.junit.Assert.assertEquals;
+import static org.junit.Assert.assertNotEquals;
+import static org.junit.Assert.assertTrue;
 
 import java.io.IOException;
 import java.lang.annotation.ElementType;
@@ -28,6 +30,8 @@ import java.lang.annotation.Target;
 
 import org.hotswap.agent.javassist.ClassPool;
 import org.hotswap.agent.javassist.CtClass;
+import org.hotswap.agent.javassist.CtMethod;
+import org.hotswap.agent.javassist.CtNewMethod;
 import org.hotswap.agent.javassist.NotFoundException;
 import org.junit.Test;
 
@@ -303,4 +307,57 @@ public class SignatureTest {
         String actual = ClassSignatureComparerHelper.getCtClassSignature(makeClass, SIGNATURE_ELEMENTS);
         assertEquals("Signatures not equal", expected, actual);
     }
-}
\ No newline at end of file
+
+    @Test
+    public void classFileSignatureDigestTest() throws Exception {
+        ClassPool cp = new ClassPool(true);
+        CtClass ctClass = cp.makeClass("org.hotswap.agent.util.signature.DigestTestClass");
+        CtMethod method = CtNewMethod.make("public int get(int a) { return a; }", ctClass);
+        ctClass.addMethod(method);
+        ClassSignatureDigest original = ClassSignatureComparerHelper.getClassFileSignatureDigest(ctClass.toBytecode(), SIGNATURE_ELEMENTS);
+
+        ctClass.defrost();
+        method.setBody("{ return $1 + 1; }");
+        ClassSignatureDigest bodyChanged = ClassSignatureComparerHelper.getClassFileSignatureDigest(ctClass.toBytecode(), SIGNATURE_ELEMENTS);
+        assertEquals("Method body change must not change digest", original, bodyChanged);
+
+        ctClass.defrost();
+        ctClass.addMethod(CtNewMethod.make("public int get2() { return 1; }", ctClass));
+        ClassSignatureDigest methodAdded = ClassSignatureComparerHelper.getClassFileSignatureDigest(ctClass.toBytecode(), SIGNATURE_ELEMENTS);
+        assertNotEquals("New method must change digest", original, methodAdded);
+    }
+
+    @Test
+    public void signatureDigestTest() throws Exception {
+        for (Class<?> clazz : new Class<?>[] { TestSignatures.class, A.class, B.class, C.class, OneMethod.class, SwitchTestClass.class }) {
+            CtClass makeClass = ClassPool.getDefault().get(clazz.getName());
+            assertEquals("Digests not equal " + clazz.getName(),
+                    ClassSignatureComparerHelper.getJavaClassSignatureDigest(clazz, SIGNATURE_ELEMENTS),
+                    ClassSignatureComparerHelper.getCtClassSignatureDigest(makeClass, SIGNATURE_ELEMENTS));
+        }
+        assertNotEquals(ClassSignatureComparerHelper.getJavaClassSignatureDigest(A.class, SIGNATURE_ELEMENTS),
+                ClassSignatureComparerHelper.getJavaClassSignatureDigest(C.class, SIGNATURE_ELEMENTS));
+    }
+
+    @Test
+    public void signatureHashesDiffTest() throws Exception {
+        ClassPool cp = new ClassPool(true);
+        CtClass ctClass = cp.makeClass("org.hotswap.agent.util.signature.DiffTestClass");
+        ctClass.addMethod(CtNewMethod.make("public int get(int a) { return a; }", ctClass));
+        CtClassSignature signature = new CtClassSignature(ctClass);
+        signature.addSignatureElements(SIGNATURE_ELEMENTS);
+        ClassSignatureHashes original = signature.getHashes();
+
+        ctClass.addMethod(CtNewMethod.make("public int get2() { return 1; }", ctClass));
+        ctClass.addMethod(CtNewMethod.make("public int get3() { return 1; }", ctClass));
+        ClassSignatureHashes changed = signature.getHashes();
+
+        ClassSignatureHashes.Diff diff = changed.diff(original);
+        assertEquals(2, diff.getAddedCount(ClassSignatureElement.METHOD));
+        assertEquals(0, diff.getRemovedCount(ClassSignatureElement.METHOD));
+        assertEquals(0, diff.getAddedCount(ClassSignatureElement.FIELD));
+        assertEquals(2, original.diff(changed).getRemovedCount(ClassSignatureElement.METHOD));
+        assertTrue(changed.diff(signature.getHashes()).isEmpty());
+        assertEquals(changed, signature.getHashes());
+    }
+}
@@ -0,0 +1,134 @@
+/*
+ * Copyright 2013-2023 the HotswapAgent authors.
+ *
+ * This file is part of HotswapAgent.
+ *
+ * HotswapAgent is free software: you can redistribute it and/or modify it
+ * under the terms of the GNU General Public License as published by the
+ * Free Software Foundation, either version 2 of the License, or (at your
+ * option) any later version.
+ *
+ * HotswapAgent is distributed in the hope that it will be useful, but
+ * WITHOUT ANY WARRANTY; without even the implied warranty of
+ * MERCHANTABILITY or FITNESS FOR A PARTICULAR PURPOSE. See the GNU General
+ * Public License for more details.
+ *
+ * You should have received a copy of the GNU General Public License along
+ * with HotswapAgent. If not, see http://www.gnu.org/licenses/.
+ */
+package org.hotswap.agent.plugin.cdi;
+
+import java.lang.ref.Reference;
+import java.lang.ref.ReferenceQueue;
+import java.lang.ref.WeakReference;
+import java.util.AbstractSet;
+import java.util.Iterator;
+import java.util.NoSuchElementException;
+import java.util.concurrent.ConcurrentHashMap;
+
+/**
+ * Concurrent set of bean instances with weak keys compared by identity. One set is kept per bean class
+ * in the context bean registry. Adding an instance which is already present is a plain map lookup
+ * without locking, cleared references are removed through a reference queue on the next add.
+ * The set is exposed to other class loaders only as a java.util.Collection.
+ */
+class HaCdiBeanInstanceSet extends AbstractSet<Object> {
+
+    private final ConcurrentHashMap<InstanceReference, Boolean> instances = new ConcurrentHashMap<>();
+
+    private final ReferenceQueue<Object> queue = new ReferenceQueue<>();
+
+    @Override
+    public boolean add(Object instance) {
+        if (instances.containsKey(new InstanceReference(instance, null))) {
+            return false;
+        }
+        expungeStaleEntries();
+        return instances.putIfAbsent(new InstanceReference(instance, queue), Boolean.TRUE) == null;
+    }
+
+    @Override
+    public boolean contains(Object instance) {
+        return instance != null && instances.containsKey(new InstanceReference(instance, null));
+    }
+
+    @Override
+    public boolean remove(Object instance) {
+        return instance != null && instances.remove(new InstanceReference(instance, null)) != null;
+    }
+
+    @Override
+    public int size() {
+        expungeStaleEntries();
+        return instances.size();
+    }
+
+    /**
+     * Iterates over live instances, cleared references are skipped.
+     */
+    @Override
+    public Iterator<Object> iterator() {
+        final Iterator<InstanceReference> it = instances.keySet().iterator();
+        return new Iterator<Object>() {
+            private Object next;
+
+            @Override
+            public boolean hasNext() {
+                while (next == null && it.hasNext()) {
+                    next = it.next().get();
+                }
+                return next != null;
+            }
+
+            @Override
+            public Object next() {
+                if (!hasNext()) {
+                    throw new NoSuchElementException();
+                }
+                Object result = next;
+                next = null;
+                return result;
+            }
+
+            @Override
+            public void remove() {
+                it.remove();
+            }
+        };
+    }
+
+    private void expungeStaleEntries() {
+        for (Reference<?> ref; (ref = queue.poll()) != null; ) {
+            instances.remove(ref);
+        }
+    }
+
+    /**
+     * Weak reference with identity semantics of the referent. Cleared references are equal only to themselves.
+     */
+    private static class InstanceReference extends WeakReference<Object> {
+        private final int hash;
+
+        InstanceReference(Object referent, ReferenceQueue<Object> queue) {
+            super(referent, queue);
+            this.hash = System.identityHashCode(referent);
+        }
+
+        @Override
+        public int hashCode() {
+            return hash;
+        }
+
+        @Override
+        public boolean equals(Object obj) {
+            if (this == obj) {
+                return true;
+            }
+            if (!(obj instanceof InstanceReference)) {
+                return false;
+            }
+            Object referent = get();
+            return referent != null && referent == ((InstanceReference) obj).get();
+        }
+    }
+}
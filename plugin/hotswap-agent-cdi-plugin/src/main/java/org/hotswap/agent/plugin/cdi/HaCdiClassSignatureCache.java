@@ -0,0 +1,155 @@
+/*
+ * Copyright 2013-2023 the HotswapAgent authors.
+ *
+ * This file is part of HotswapAgent.
+ *
+ * HotswapAgent is free software: you can redistribute it and/or modify it
+ * under the terms of the GNU General Public License as published by the
+ * Free Software Foundation, either version 2 of the License, or (at your
+ * option) any later version.
+ *
+ * HotswapAgent is distributed in the hope that it will be useful, but
+ * WITHOUT ANY WARRANTY; without even the implied warranty of
+ * MERCHANTABILITY or FITNESS FOR A PARTICULAR PURPOSE. See the GNU General
+ * Public License for more details.
+ *
+ * You should have received a copy of the GNU General Public License along
+ * with HotswapAgent. If not, see http://www.gnu.org/licenses/.
+ */
+package org.hotswap.agent.plugin.cdi;
+
+import java.util.Collections;
+import java.util.HashMap;
+import java.util.Map;
+import java.util.concurrent.ConcurrentHashMap;
+
+import org.hotswap.agent.logging.AgentLogger;
+
+/**
+ * Cache of class signature snapshots of bean classes, used to get old signatures of a class in the redefinition
+ * callback.
+ * <p>
+ * On class redefinition the plugin takes the signatures of the original class. If a snapshot of the current class
+ * version exists, signatures are not computed in the redefinition callback. After the bean reload command is
+ * executed, the snapshot of the new class version is refreshed outside of the callback - so only the first
+ * redefinition of a class pays signature computation in the callback. Each signature kind is computed only if
+ * requested by the plugin.
+ * <p>
+ * Each take increments class generation, snapshot is valid only for the generation it was refreshed for.
+ */
+public class HaCdiClassSignatureCache {
+    private static AgentLogger LOGGER = AgentLogger.getLogger(HaCdiClassSignatureCache.class);
+
+    /**
+     * Signature calculation of a signature kind.
+     */
+    public interface Signer {
+        /**
+         * @param clazz the class
+         * @return the signature or null if not available
+         * @throws Exception error reading class signature
+         */
+        String getSignature(Class<?> clazz) throws Exception;
+    }
+
+    // class name -> current generation
+    private final Map<String, Integer> generations = new ConcurrentHashMap<>();
+
+    // class name -> signatures of current class version
+    private final Map<String, Snapshot> snapshots = new ConcurrentHashMap<>();
+
+    /**
+     * Get signatures of the original class version in redefinition callback. Cached snapshot is used if valid,
+     * missing signature kinds are computed from the original class.
+     *
+     * @param original the original class (before redefinition)
+     * @param signers  signature kind -> signer, only these kinds are returned
+     * @return signatures by kind and generation of this redefinition
+     */
+    public Signatures take(Class<?> original, Map<String, Signer> signers) {
+        String className = original.getName();
+        Snapshot snapshot = snapshots.remove(className);
+        int generation;
+        synchronized (generations) {
+            Integer current = generations.get(className);
+            generation = current != null ? current : 0;
+            if (snapshot != null && snapshot.generation != generation) {
+                snapshot = null;
+            }
+            generations.put(className, ++generation);
+        }
+        Map<String, String> signatures = new HashMap<>();
+        for (Map.Entry<String, Signer> signer : signers.entrySet()) {
+            if (snapshot != null && snapshot.signatures.containsKey(signer.getKey())) {
+                signatures.put(signer.getKey(), snapshot.signatures.get(signer.getKey()));
+            } else {
+                signatures.put(signer.getKey(), getSignature(signer.getValue(), original));
+            }
+        }
+        return new Signatures(generation, signatures);
+    }
+
+    /**
+     * Refresh snapshot from current (reloaded) class version. Skipped if the class was redefined again
+     * since the generation.
+     *
+     * @param clazz      the reloaded class
+     * @param generation generation returned by take()
+     * @param signers    signature kinds to compute
+     */
+    public void refresh(Class<?> clazz, int generation, Map<String, Signer> signers) {
+        String className = clazz.getName();
+        if (!Integer.valueOf(generation).equals(generations.get(className))) {
+            return;
+        }
+        Map<String, String> signatures = new HashMap<>();
+        for (Map.Entry<String, Signer> signer : signers.entrySet()) {
+            signatures.put(signer.getKey(), getSignature(signer.getValue(), clazz));
+        }
+        synchronized (generations) {
+            if (Integer.valueOf(generation).equals(generations.get(className))) {
+                snapshots.put(className, new Snapshot(generation, signatures));
+            }
+        }
+    }
+
+    private static String getSignature(Signer signer, Class<?> clazz) {
+        try {
+            return signer.getSignature(clazz);
+        } catch (Exception e) {
+            LOGGER.error("Error reading signature of class {}", e, clazz.getName());
+            return null;
+        }
+    }
+
+    /**
+     * Signatures of original class version.
+     */
+    public static class Signatures {
+        private final int generation;
+        private final Map<String, String> signatures;
+
+        Signatures(int generation, Map<String, String> signatures) {
+            this.generation = generation;
+            this.signatures = Collections.unmodifiableMap(signatures);
+        }
+
+        public int getGeneration() {
+            return generation;
+        }
+
+        public String get(String kind) {
+            return signatures.get(kind);
+        }
+    }
+
+    private static class Snapshot {
+        final int generation;
+        final Map<String, String> signatures;
+
+        Snapshot(int generation, Map<String, String> signatures) {
+            this.generation = generation;
+            this.signatures = signatures;
+        }
+    }
+}
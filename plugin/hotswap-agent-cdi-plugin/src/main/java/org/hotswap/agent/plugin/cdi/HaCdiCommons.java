@@ -18,12 +18,22 @@
  */
 package org.hotswap.agent.plugin.cdi;
 
+import java.io.File;
 import java.lang.annotation.Annotation;
 import java.lang.reflect.Field;
+import java.net.URI;
+import java.net.URISyntaxException;
+import java.net.URL;
+import java.security.CodeSource;
 import java.util.ArrayList;
+import java.util.Collection;
 import java.util.HashMap;
+import java.util.HashSet;
 import java.util.List;
 import java.util.Map;
+import java.util.Set;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.concurrent.ConcurrentMap;
 
 import org.hotswap.agent.javassist.CannotCompileException;
 import org.hotswap.agent.javassist.ClassPool;
@@ -42,9 +52,22 @@ public class HaCdiCommons {
     private static final AgentLogger LOGGER = AgentLogger.getLogger(HaCdiCommons.class);
 
     private static final String BEAN_REGISTRY_FIELD = "$$ha$beanRegistry";
-    private static final Map<Class<? extends Annotation>, Class<?>> scopeToContextMap = new HashMap<>();
+    private static final Map<Class<? extends Annotation>, Class<?>> scopeToContextMap = new ConcurrentHashMap<>();
     private static final Map<HaCdiExtraContext, Boolean> extraContexts = new HashMap<>();
 
+    // scopes already registered for a context class, registerContextClass() is called only once per scope
+    private static final ClassValue<Set<Class<?>>> registeredContextScopes = new ClassValue<Set<Class<?>>>() {
+        @Override
+        protected Set<Class<?>> computeValue(Class<?> contextClass) {
+            return ConcurrentHashMap.newKeySet();
+        }
+    };
+
+    // if true, only instances of bean classes located in watched archives are registered
+    private static volatile boolean trackWatchedArchivesOnly = false;
+    private static final Set<String> watchedArchives = ConcurrentHashMap.newKeySet();
+    private static volatile ClassValue<Boolean> trackedBeanClasses = newTrackedBeanClasses();
+
     private static Boolean isJakarta;
 
     public static boolean isJakarta(ClassPool classPool) {
@@ -77,6 +100,44 @@ public class HaCdiCommons {
         return false;
     }
 
+    /**
+     * Get names of bean classes of the beans.
+     *
+     * @param beans the beans
+     * @return the bean class names
+     */
+    public static Set<String> getBeanClassNames(Collection<?> beans) {
+        Set<String> result = new HashSet<>();
+        for (Object bean : beans) {
+            Class<?> beanClass = getBeanClass(bean);
+            if (beanClass != null) {
+                result.add(beanClass.getName());
+            }
+        }
+        return result;
+    }
+
+    /**
+     * Get names of all bean types (classes and interfaces) of the beans.
+     *
+     * @param beans the beans
+     * @return the bean type names
+     */
+    public static Set<String> getBeanTypeNames(Collection<?> beans) {
+        Set<String> result = new HashSet<>();
+        for (Object bean : beans) {
+            Set<?> types = (Set<?>) ReflectionHelper.invoke(bean, bean.getClass(), "getTypes", null);
+            if (types != null) {
+                for (Object type : types) {
+                    if (type instanceof Class) {
+                        result.add(((Class<?>) type).getName());
+                    }
+                }
+            }
+        }
+        return result;
+    }
+
     /**
      * Add bean registry field to context, register bean instances in get(...) methods
      *
@@ -101,7 +162,7 @@ public class HaCdiCommons {
      */
     public static void addBeanRegistryToContext(ClassPool classPool, CtClass ctClass) throws CannotCompileException {
         CtField beanRegistryFld = CtField.make(
-            "public static java.util.Map " + BEAN_REGISTRY_FIELD + ";" , ctClass
+            "public static java.util.Map " + BEAN_REGISTRY_FIELD + "=new java.util.concurrent.ConcurrentHashMap();" , ctClass
         );
         ctClass.addField(beanRegistryFld);
     }
@@ -152,28 +213,129 @@ public class HaCdiCommons {
     }
 
     private static String getRegistrationCode(boolean isJakarta) {
+        String beanClass = resolveJakartaPackage(isJakarta) + ".enterprise.inject.spi.Bean";
         String result =
-            "if(" + BEAN_REGISTRY_FIELD + "==null){" +
-                BEAN_REGISTRY_FIELD + "=new java.util.concurrent.ConcurrentHashMap();" +
-            "}"+
-            "org.hotswap.agent.plugin.cdi.HaCdiCommons.registerContextClass(this.getScope(),this.getClass());" +
-            "if($_!=null && $1 instanceof " + resolveJakartaPackage(isJakarta) + ".enterprise.inject.spi.Bean){" +
-                "String key=((" + resolveJakartaPackage(isJakarta) + ".enterprise.inject.spi.Bean) $1).getBeanClass().getName();" +
-                "java.util.Map m=" + BEAN_REGISTRY_FIELD + ".get(key);" +
-                "if(m==null) {" +
-                    "synchronized(" + BEAN_REGISTRY_FIELD + "){" +
-                        "m=" + BEAN_REGISTRY_FIELD + ".get(key);" +
-                        "if(m==null) {" +
-                            "m=java.util.Collections.synchronizedMap(new java.util.WeakHashMap());" +
-                            BEAN_REGISTRY_FIELD + ".put(key,m);" +
-                        "}" +
-                    "}" +
-                "}" +
-                "m.put($_, java.lang.Boolean.TRUE);" +
+            "org.hotswap.agent.plugin.cdi.HaCdiCommons.registerContext(this.getScope(),this.getClass());" +
+            "if($_!=null && $1 instanceof " + beanClass + "){" +
+                "org.hotswap.agent.plugin.cdi.HaCdiCommons.registerBeanInstance(" + BEAN_REGISTRY_FIELD + "," +
+                    "((" + beanClass + ") $1).getBeanClass(),$_);" +
             "}";
         return result;
     }
 
+    /**
+     * Register context class for the scope on first call for the context class and scope, subsequent calls
+     * are a ClassValue lookup. Called from the patched Context.get(...) methods.
+     *
+     * @param scope the scope
+     * @param contextClass the context class
+     */
+    public static void registerContext(Class<? extends Annotation> scope, Class<?> contextClass) {
+        if (scope != null && registeredContextScopes.get(contextClass).add(scope)) {
+            registerContextClass(scope, contextClass);
+        }
+    }
+
+    /**
+     * Register bean instance in the context bean registry. Called from the patched Context.get(...) methods
+     * on every bean lookup, it does not block if the instance is already registered.
+     *
+     * @param beanRegistry the context bean registry, map of bean class name to collection of instances
+     * @param beanClass the bean class
+     * @param instance the bean instance
+     */
+    @SuppressWarnings("unchecked")
+    public static void registerBeanInstance(Map beanRegistry, Class<?> beanClass, Object instance) {
+        if (trackWatchedArchivesOnly && !trackedBeanClasses.get(beanClass)) {
+            return;
+        }
+        ConcurrentMap<String, Collection<Object>> registry = (ConcurrentMap<String, Collection<Object>>) beanRegistry;
+        String key = beanClass.getName();
+        Collection<Object> instances = registry.get(key);
+        if (instances == null) {
+            instances = new HaCdiBeanInstanceSet();
+            Collection<Object> existing = registry.putIfAbsent(key, instances);
+            if (existing != null) {
+                instances = existing;
+            }
+        }
+        instances.add(instance);
+    }
+
+    /**
+     * Enable or disable tracking of bean instances only for bean classes located in watched archives. Instances
+     * of bean classes from other locations (e.g. libraries) are not registered and cannot be reloaded.
+     * <p/>
+     * Watched archives are registered by Weld plugins only, the option is enabled by {@code weld.trackWatchedArchivesOnly}
+     * and must not be used with OpenWebBeans.
+     *
+     * @param trackWatchedArchivesOnly true to track only bean classes from watched archives
+     */
+    public static void setTrackWatchedArchivesOnly(boolean trackWatchedArchivesOnly) {
+        HaCdiCommons.trackWatchedArchivesOnly = trackWatchedArchivesOnly;
+    }
+
+    /**
+     * Register archive (directory or jar file) containing bean classes which are tracked. Used by Weld plugins.
+     *
+     * @param archivePath the archive path, URL path or file URL (percent-encoded)
+     */
+    public static void registerWatchedArchive(String archivePath) {
+        if (archivePath != null && watchedArchives.add(normalizeArchivePath(archivePath))) {
+            trackedBeanClasses = newTrackedBeanClasses();
+        }
+    }
+
+    private static ClassValue<Boolean> newTrackedBeanClasses() {
+        return new ClassValue<Boolean>() {
+            @Override
+            protected Boolean computeValue(Class<?> beanClass) {
+                return isInWatchedArchive(beanClass);
+            }
+        };
+    }
+
+    private static boolean isInWatchedArchive(Class<?> beanClass) {
+        try {
+            CodeSource codeSource = beanClass.getProtectionDomain().getCodeSource();
+            URL location = codeSource != null ? codeSource.getLocation() : null;
+            if (location == null) {
+                return false;
+            }
+            String path = normalizeArchivePath(location.getPath());
+            for (String archivePath : watchedArchives) {
+                if (path.equals(archivePath) || path.startsWith(archivePath + "/")) {
+                    return true;
+                }
+            }
+        } catch (SecurityException e) {
+            LOGGER.trace("Unable to resolve location of bean class '{}'", beanClass.getName());
+        }
+        return false;
+    }
+
+    // archive path is URL based (percent-encoded), convert it to a decoded file path
+    private static String normalizeArchivePath(String archivePath) {
+        String path = archivePath;
+        if (path.startsWith("file:")) {
+            path = path.substring("file:".length());
+        }
+        int jarSeparator = path.indexOf("!/");
+        if (jarSeparator >= 0) {
+            path = path.substring(0, jarSeparator);
+        }
+        try {
+            path = new File(new URI("file:" + path)).getPath();
+        } catch (URISyntaxException | IllegalArgumentException e) {
+            // not a valid file URI (e.g. relative path), use it as is
+        }
+        path = path.replace('\\', '/');
+        while (path.length() > 1 && path.endsWith("/")) {
+            path = path.substring(0, path.length() - 1);
+        }
+        return path;
+    }
+
     /**
      * Return all bean instances.
      *
@@ -187,9 +349,9 @@ public class HaCdiCommons {
         if (contextClass != null) {
           Map beanRegistry = (Map) getBeanRegistry(contextClass);
           if (beanRegistry != null) {
-              Map m = (Map) beanRegistry.get(getBeanClass(bean).getName());
-              if (m != null) {
-                  result.addAll(m.keySet());
+              Collection instances = (Collection) beanRegistry.get(getBeanClass(bean).getName());
+              if (instances != null) {
+                  result.addAll(instances);
               } else {
                   LOGGER.debug("BeanRegistry is empty for bean class '{}'", getBeanClass(bean).getName());
               }
@@ -0,0 +1,92 @@
+/*
+ * Copyright 2013-2023 the HotswapAgent authors.
+ *
+ * This file is part of HotswapAgent.
+ *
+ * HotswapAgent is free software: you can redistribute it and/or modify it
+ * under the terms of the GNU General Public License as published by the
+ * Free Software Foundation, either version 2 of the License, or (at your
+ * option) any later version.
+ *
+ * HotswapAgent is distributed in the hope that it will be useful, but
+ * WITHOUT ANY WARRANTY; without even the implied warranty of
+ * MERCHANTABILITY or FITNESS FOR A PARTICULAR PURPOSE. See the GNU General
+ * Public License for more details.
+ *
+ * You should have received a copy of the GNU General Public License along
+ * with HotswapAgent. If not, see http://www.gnu.org/licenses/.
+ */
+package org.hotswap.agent.plugin.cdi;
+
+import static org.junit.Assert.assertEquals;
+
+import java.util.Collections;
+import java.util.Map;
+
+import org.junit.Test;
+
+public class HaCdiClassSignatureCacheTest {
+
+    private static final String KIND = "full";
+
+    @Test
+    public void testSnapshotUsedAfterRefresh() {
+        HaCdiClassSignatureCache cache = new HaCdiClassSignatureCache();
+        CountingSigner signer = new CountingSigner("v1");
+        Map<String, HaCdiClassSignatureCache.Signer> signers = Collections.<String, HaCdiClassSignatureCache.Signer>singletonMap(KIND, signer);
+
+        // first redefinition computes signature of the original class
+        HaCdiClassSignatureCache.Signatures signatures = cache.take(String.class, signers);
+        assertEquals("v1", signatures.get(KIND));
+        assertEquals(1, signer.count);
+
+        // reload command refreshes the snapshot from the new class version
+        signer.signature = "v2";
+        cache.refresh(String.class, signatures.getGeneration(), signers);
+        assertEquals(2, signer.count);
+
+        // next redefinition takes the snapshot, no computation in the callback
+        signer.signature = "v3";
+        assertEquals("v2", cache.take(String.class, signers).get(KIND));
+        assertEquals(2, signer.count);
+    }
+
+    @Test
+    public void testSnapshotNotUsedAfterNewerRedefinition() {
+        HaCdiClassSignatureCache cache = new HaCdiClassSignatureCache();
+        CountingSigner signer = new CountingSigner("v1");
+        Map<String, HaCdiClassSignatureCache.Signer> signers = Collections.<String, HaCdiClassSignatureCache.Signer>singletonMap(KIND, signer);
+
+        HaCdiClassSignatureCache.Signatures first = cache.take(String.class, signers);
+        HaCdiClassSignatureCache.Signatures second = cache.take(String.class, signers);
+        assertEquals(2, signer.count);
+
+        // refresh of the older generation is ignored
+        signer.signature = "v2";
+        cache.refresh(String.class, first.getGeneration(), signers);
+        assertEquals(2, signer.count);
+
+        signer.signature = "v3";
+        assertEquals("v3", cache.take(String.class, signers).get(KIND));
+        assertEquals(3, signer.count);
+
+        // snapshot refreshed for the second generation is stale too
+        cache.refresh(String.class, second.getGeneration(), signers);
+        assertEquals(3, signer.count);
+    }
+
+    private static class CountingSigner implements HaCdiClassSignatureCache.Signer {
+        String signature;
+        int count;
+
+        CountingSigner(String signature) {
+            this.signature = signature;
+        }
+
+        @Override
+        public String getSignature(Class<?> clazz) {
+            count++;
+            return signature;
+        }
+    }
+}
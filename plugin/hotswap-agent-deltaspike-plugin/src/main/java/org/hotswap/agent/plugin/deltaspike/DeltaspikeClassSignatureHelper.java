@@ -52,7 +52,7 @@ public class DeltaspikeClassSignatureHelper {
      */
     public static String getSignaturePartialBeanClass(Class<?> clazz) {
         try {
-            return ClassSignatureComparerHelper.getJavaClassSignature(clazz, SIGNATURE_ELEM_PROXY);
+            return ClassSignatureComparerHelper.getJavaClassSignatureDigest(clazz, SIGNATURE_ELEM_PROXY).toString();
         } catch (Exception e) {
             LOGGER.error("getSignatureForProxyClass(): Error reading signature", e);
             return null;
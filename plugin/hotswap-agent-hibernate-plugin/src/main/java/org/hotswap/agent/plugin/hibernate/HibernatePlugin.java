@@ -130,15 +130,11 @@ public class HibernatePlugin {
     /**
      * Reload after entity class change. It covers also @Entity annotation removal.
      */
-    @OnClassLoadEvent(classNameRegexp = ".*", events = LoadEvent.REDEFINE)
+    @OnClassLoadEvent(classNameRegexp = ".*", events = LoadEvent.REDEFINE, annotations = ENTITY_ANNOTATION)
     public void entityReload(CtClass clazz, Class original) {
         // TODO list of entity/resource files is known to hibernate, better to check this list
-        if (AnnotationHelper.hasAnnotation(original, ENTITY_ANNOTATION)
-                || AnnotationHelper.hasAnnotation(clazz, ENTITY_ANNOTATION)
-                ) {
-            LOGGER.debug("Entity reload class {}, original classloader {}", clazz.getName(), original.getClassLoader());
-            refresh(100);
-        }
+        LOGGER.debug("Entity reload class {}, original classloader {}", clazz.getName(), original.getClassLoader());
+        refresh(100);
     }
 
     /**
@@ -137,15 +137,12 @@ public class Hibernate3JPAPlugin {
      * @param clazz the clazz
      * @param original the original
      */
-    @OnClassLoadEvent(classNameRegexp = ".*", events = LoadEvent.REDEFINE)
+    @OnClassLoadEvent(classNameRegexp = ".*", events = LoadEvent.REDEFINE, annotations = ENTITY_ANNOTATION)
     public void entityReload(CtClass clazz, Class<?> original) {
         // TODO list of entity/resource files is known to hibernate, better to
         // check this list
-        if (AnnotationHelper.hasAnnotation(original, ENTITY_ANNOTATION)
-                || AnnotationHelper.hasAnnotation(clazz, ENTITY_ANNOTATION)) {
-            LOGGER.debug("Entity reload class {}, original classloader {}", clazz.getName(), original.getClassLoader());
-            refresh(100);
-        }
+        LOGGER.debug("Entity reload class {}, original classloader {}", clazz.getName(), original.getClassLoader());
+        refresh(100);
     }
 
     /**
@@ -25,11 +25,14 @@ import java.net.MalformedURLException;
 import java.net.URI;
 import java.net.URISyntaxException;
 import java.net.URL;
+import java.util.Collections;
 import java.util.HashMap;
 import java.util.Iterator;
+import java.util.LinkedHashMap;
 import java.util.Map;
 import java.util.Map.Entry;
 import java.util.Set;
+import java.util.concurrent.ConcurrentHashMap;
 
 import org.hotswap.agent.annotation.Init;
 import org.hotswap.agent.annotation.LoadEvent;
@@ -40,6 +43,7 @@ import org.hotswap.agent.config.PluginConfiguration;
 import org.hotswap.agent.javassist.CtClass;
 import org.hotswap.agent.javassist.NotFoundException;
 import org.hotswap.agent.logging.AgentLogger;
+import org.hotswap.agent.plugin.cdi.HaCdiClassSignatureCache;
 import org.hotswap.agent.plugin.owb_jakarta.command.BeanClassRefreshCommand;
 import org.hotswap.agent.plugin.owb_jakarta.transformer.AbstractProducerTransformer;
 import org.hotswap.agent.plugin.owb_jakarta.transformer.BeansDeployerTransformer;
@@ -103,6 +107,16 @@ public class OwbJakartaPlugin {
 
     private Map<URL, URL> registeredArchives = new HashMap<>();
 
+    // signatures are taken only for bean classes (full, strategy) and bean types (proxy)
+    private Set<String> beanClassNames = Collections.newSetFromMap(new ConcurrentHashMap<String, Boolean>());
+    private Set<String> beanTypeNames = Collections.newSetFromMap(new ConcurrentHashMap<String, Boolean>());
+
+    private HaCdiClassSignatureCache signatureCache = new HaCdiClassSignatureCache();
+
+    private static final String FULL_SIGNATURE = "full";
+    private static final String PROXY_SIGNATURE = "proxy";
+    private static final String STRATEGY_SIGNATURE = "strategy";
+
     /**
      * Plugin initialization, called from archive registration,
      */
@@ -126,6 +140,29 @@ public class OwbJakartaPlugin {
         return ret;
     }
 
+    /**
+     * Register bean classes and bean types of deployed beans. Signatures are taken on redefinition only for
+     * these classes.
+     *
+     * @param classNames the bean class names
+     * @param typeNames the bean type names
+     */
+    public void registerBeans(Set<String> classNames, Set<String> typeNames) {
+        beanClassNames.addAll(classNames);
+        beanTypeNames.addAll(typeNames);
+        LOGGER.debug("Registered {} bean classes.", classNames.size());
+    }
+
+    /**
+     * Register bean class of a bean defined after deployment.
+     *
+     * @param className the bean class name
+     */
+    public void registerBeanClass(String className) {
+        beanClassNames.add(className);
+        beanTypeNames.add(className);
+    }
+
     /**
      * Register BeanArchive's paths to watcher. In case of new class the class file is not known
      * to JVM hence no hotswap is called and therefore it must be handled by watcher.
@@ -241,19 +278,21 @@ public class OwbJakartaPlugin {
                 Entry<URL, URL> entry = iterator.next();
                 if (classUrl.startsWith(entry.getKey().toExternalForm())) {
                     LOGGER.debug("Class '{}' redefined in classLoader {}.", original.getName(), classLoader);
-                    String oldSignForProxyCheck = OwbClassSignatureHelper.getSignatureForProxyClass(original);
-                    String oldSignByStrategy = OwbClassSignatureHelper.getSignatureByStrategy(beanReloadStrategy, original);
-                    String oldFullSignature = ClassSignatureComparerHelper.getJavaClassSignature(original, ClassSignatureElement.values());
-                    scheduler.scheduleCommand(
-                            new BeanClassRefreshCommand(appClassLoader,
-                                    original.getName(),
-                                    oldFullSignature,
-                                    oldSignForProxyCheck,
-                                    oldSignByStrategy,
-                                    entry.getValue(),
-                                    beanReloadStrategy),
-                            WAIT_ON_REDEFINE
-                            );
+                    // non bean classes (e.g. new bean classes) do not pay signature computation
+                    Map<String, HaCdiClassSignatureCache.Signer> signers = getSigners(beanClassNames.contains(original.getName()),
+                            beanTypeNames.contains(original.getName()));
+                    HaCdiClassSignatureCache.Signatures signatures = signers.isEmpty() ? null : signatureCache.take(original, signers);
+                    BeanClassRefreshCommand command = new BeanClassRefreshCommand(appClassLoader,
+                            original.getName(),
+                            signatures != null ? signatures.get(FULL_SIGNATURE) : null,
+                            signatures != null ? signatures.get(PROXY_SIGNATURE) : null,
+                            signatures != null ? signatures.get(STRATEGY_SIGNATURE) : null,
+                            entry.getValue(),
+                            beanReloadStrategy);
+                    if (signatures != null) {
+                        command.setSignatureCache(signatureCache, signatures.getGeneration(), signers);
+                    }
+                    scheduler.scheduleCommand(command, WAIT_ON_REDEFINE);
                     break;
                 }
             }
@@ -262,6 +301,36 @@ public class OwbJakartaPlugin {
         }
     }
 
+    private Map<String, HaCdiClassSignatureCache.Signer> getSigners(boolean beanClass, boolean beanType) {
+        Map<String, HaCdiClassSignatureCache.Signer> signers = new LinkedHashMap<>();
+        if (beanType) {
+            signers.put(PROXY_SIGNATURE, new HaCdiClassSignatureCache.Signer() {
+                @Override
+                public String getSignature(Class<?> clazz) {
+                    return OwbClassSignatureHelper.getSignatureForProxyClass(clazz);
+                }
+            });
+        }
+        if (beanClass) {
+            final BeanReloadStrategy strategy = beanReloadStrategy;
+            if (strategy == BeanReloadStrategy.METHOD_FIELD_SIGNATURE_CHANGE || strategy == BeanReloadStrategy.FIELD_SIGNATURE_CHANGE) {
+                signers.put(STRATEGY_SIGNATURE, new HaCdiClassSignatureCache.Signer() {
+                    @Override
+                    public String getSignature(Class<?> clazz) {
+                        return OwbClassSignatureHelper.getSignatureByStrategy(strategy, clazz);
+                    }
+                });
+            }
+            signers.put(FULL_SIGNATURE, new HaCdiClassSignatureCache.Signer() {
+                @Override
+                public String getSignature(Class<?> clazz) throws Exception {
+                    return ClassSignatureComparerHelper.getJavaClassSignatureDigest(clazz, ClassSignatureElement.values()).toString();
+                }
+            });
+        }
+        return signers;
+    }
+
     // Return true if class is OWB synthetic class.
     // Owb proxies contains $$
     // DeltaSpike's proxies contains "$$"
@@ -56,6 +56,10 @@ public class BeansDeployerTransformer {
         src.append(PluginManagerInvoker.buildInitializePlugin(OwbJakartaPlugin.class, "curCl"));
         src.append(PluginManagerInvoker.buildCallPluginMethod("curCl", OwbJakartaPlugin.class, "init"));
         src.append(PluginManagerInvoker.buildCallPluginMethod("curCl", OwbJakartaPlugin.class, "registerBeansXmls", "$1.getBeanXmls()", "java.util.Set"));
+        src.append("java.util.Set beans = this.webBeansContext.getBeanManagerImpl().getBeans();");
+        src.append(PluginManagerInvoker.buildCallPluginMethod("curCl", OwbJakartaPlugin.class, "registerBeans",
+                "org.hotswap.agent.plugin.cdi.HaCdiCommons.getBeanClassNames(beans)", "java.util.Set",
+                "org.hotswap.agent.plugin.cdi.HaCdiCommons.getBeanTypeNames(beans)", "java.util.Set"));
         src.append("}");
 
         CtMethod startApplication = clazz.getDeclaredMethod("deploy");
@@ -65,7 +65,9 @@ import org.hotswap.agent.logging.AgentLogger;
 import org.hotswap.agent.plugin.cdi.HaCdiCommons;
 import org.hotswap.agent.plugin.owb.BeanReloadStrategy;
 import org.hotswap.agent.plugin.owb.OwbClassSignatureHelper;
+import org.hotswap.agent.plugin.owb.OwbPlugin;
 import org.hotswap.agent.plugin.owb.beans.ContextualReloadHelper;
+import org.hotswap.agent.util.PluginManagerInvoker;
 import org.hotswap.agent.util.ReflectionHelper;
 import org.hotswap.agent.util.signature.ClassSignatureComparerHelper;
 import org.hotswap.agent.util.signature.ClassSignatureElement;
@@ -164,6 +166,8 @@ public class BeanClassRefreshAgent {
                     } else {
                         // Define new bean
                         doDefineNewBean(beanManager, beanClass, beanArchiveUrl);
+                        PluginManagerInvoker.callPluginMethod(OwbPlugin.class, appClassLoader, "registerBeanClass",
+                                new Class[] {String.class}, new Object[] {beanClass.getName()});
                     }
                 } else {
                     LOGGER.debug("Bean '{}' is excluded in BeanArchive.", beanClass.getName());
@@ -177,7 +181,7 @@ public class BeanClassRefreshAgent {
     private static boolean fullSignatureChanged(Bean<?> bean, Map<String, String> oldFullSignatures) {
 
         try {
-            String newSignature = ClassSignatureComparerHelper.getJavaClassSignature(bean.getBeanClass(), ClassSignatureElement.values());
+            String newSignature = ClassSignatureComparerHelper.getJavaClassSignatureDigest(bean.getBeanClass(), ClassSignatureElement.values()).toString();
             String oldSignature = oldFullSignatures.get(bean.getBeanClass().getName());
             return oldSignature != null && newSignature != null && !oldSignature.equals(newSignature);
         } catch (Exception e) {
@@ -29,6 +29,7 @@ import org.hotswap.agent.annotation.FileEvent;
 import org.hotswap.agent.command.Command;
 import org.hotswap.agent.command.MergeableCommand;
 import org.hotswap.agent.logging.AgentLogger;
+import org.hotswap.agent.plugin.cdi.HaCdiClassSignatureCache;
 import org.hotswap.agent.plugin.owb.BeanReloadStrategy;
 import org.hotswap.agent.watch.WatchFileEvent;
 
@@ -69,6 +70,11 @@ public class BeanClassRefreshCommand extends MergeableCommand {
 
     URL beanArchiveUrl;
 
+    // refresh of signature snapshot after reload
+    private HaCdiClassSignatureCache signatureCache;
+    private int signatureGeneration;
+    private Map<String, HaCdiClassSignatureCache.Signer> signers;
+
     /**
      * Instantiates a new bean class refresh command.
      *
@@ -91,6 +97,21 @@ public class BeanClassRefreshCommand extends MergeableCommand {
         this.strBeanReloadStrategy = beanReloadStrategy != null ? beanReloadStrategy.toString() : null;
     }
 
+    /**
+     * Refresh signature snapshot of the class in the cache after the bean is reloaded, so that the next redefinition
+     * of the class does not compute old signatures.
+     *
+     * @param signatureCache the signature cache
+     * @param signatureGeneration the generation returned by the cache for this redefinition
+     * @param signers the signature kinds to refresh
+     */
+    public void setSignatureCache(HaCdiClassSignatureCache signatureCache, int signatureGeneration,
+            Map<String, HaCdiClassSignatureCache.Signer> signers) {
+        this.signatureCache = signatureCache;
+        this.signatureGeneration = signatureGeneration;
+        this.signers = signers;
+    }
+
     /**
      * Instantiates a new bean class refresh command.
      *
@@ -164,6 +185,10 @@ public class BeanClassRefreshCommand extends MergeableCommand {
                     ((BeanClassRefreshCommand)cmd).recreateProxy(mergedCommands);
                 }
 
+                for (Command cmd: mergedCommands) {
+                    ((BeanClassRefreshCommand) cmd).refreshSignatures();
+                }
+
                 mergedCommands = popMergedCommands();
             } while (!mergedCommands.isEmpty());
        } finally {
@@ -171,6 +196,12 @@ public class BeanClassRefreshCommand extends MergeableCommand {
        }
     }
 
+    private void refreshSignatures() {
+        if (signatureCache != null && beanClass != null) {
+            signatureCache.refresh(beanClass, signatureGeneration, signers);
+        }
+    }
+
     private void recreateProxy(List<Command> mergedCommands) {
         if (isCreateEvent(mergedCommands) || isDeleteEvent(mergedCommands)) {
             LOGGER.trace("Skip OWB recreate proxy for create/delete event on class '{}'", className);
@@ -56,6 +56,10 @@ public class BeansDeployerTransformer {
         src.append(PluginManagerInvoker.buildInitializePlugin(OwbPlugin.class, "curCl"));
         src.append(PluginManagerInvoker.buildCallPluginMethod("curCl", OwbPlugin.class, "init"));
         src.append(PluginManagerInvoker.buildCallPluginMethod("curCl", OwbPlugin.class, "registerBeansXmls", "$1.getBeanXmls()", "java.util.Set"));
+        src.append("java.util.Set beans = this.webBeansContext.getBeanManagerImpl().getBeans();");
+        src.append(PluginManagerInvoker.buildCallPluginMethod("curCl", OwbPlugin.class, "registerBeans",
+                "org.hotswap.agent.plugin.cdi.HaCdiCommons.getBeanClassNames(beans)", "java.util.Set",
+                "org.hotswap.agent.plugin.cdi.HaCdiCommons.getBeanTypeNames(beans)", "java.util.Set"));
         src.append("}");
 
         CtMethod startApplication = clazz.getDeclaredMethod("deploy");
@@ -48,33 +48,50 @@ public class ProxyClassSignatureHelper {
     };
 
     public static String getJavaClassSignature(Class<?> clazz) throws Exception {
-        return ClassSignatureComparerHelper.getJavaClassSignature(clazz, SIGNATURE_WITH_ANNO_ELEMENTS);
+        return ClassSignatureComparerHelper.getJavaClassSignatureDigest(clazz, SIGNATURE_WITH_ANNO_ELEMENTS).toString();
     }
 
-    private static void addSignaturesToMap(Class<?> clazz, Map<String, String> signatureMap) {
+    private static void addSignaturesToMap(Class<?> clazz, Map<String, String> signatureMap, Map<Class<?>, String> signatureCache) {
         if (clazz != null && clazz != Object.class) {
-            try {
-                String signature = getJavaClassSignature(clazz);
+            String signature = signatureCache.get(clazz);
+            if (signature == null) {
+                try {
+                    signature = getJavaClassSignature(clazz);
+                    signatureCache.put(clazz, signature);
+                } catch (Exception e) {
+                    LOGGER.error("Error reading signature", e);
+                }
+            }
+            if (signature != null) {
                 signatureMap.put(clazz.getName(), signature);
-            } catch (Exception e) {
-                LOGGER.error("Error reading signature", e);
             }
             for (Class<?> interfaceClazz : clazz.getInterfaces()) {
-                addSignaturesToMap(interfaceClazz, signatureMap);
+                addSignaturesToMap(interfaceClazz, signatureMap, signatureCache);
             }
         }
     }
 
     public static Map<String, String> getNonSyntheticSignatureMap(Class<?> clazz) {
+        return getNonSyntheticSignatureMap(clazz, new HashMap<Class<?>, String>());
+    }
+
+    /**
+     * Get signatures of non synthetic superclass and interfaces of the class.
+     *
+     * @param clazz the class
+     * @param signatureCache signatures of already processed classes, shared by a batch of classes
+     * @return map class name -> signature
+     */
+    public static Map<String, String> getNonSyntheticSignatureMap(Class<?> clazz, Map<Class<?>, String> signatureCache) {
         Map<String, String> signatureMap = new HashMap<>();
 
         Class<?> parentClass = clazz.getSuperclass();
         while (parentClass.isSynthetic()) {
             parentClass = parentClass.getSuperclass();
         }
-        addSignaturesToMap(parentClass, signatureMap);
+        addSignaturesToMap(parentClass, signatureMap, signatureCache);
         for (Class<?> intr : clazz.getInterfaces()) {
-            addSignaturesToMap(intr, signatureMap);
+            addSignaturesToMap(intr, signatureMap, signatureCache);
         }
         return signatureMap;
     }
@@ -18,7 +18,9 @@
  */
 package org.hotswap.agent.plugin.proxy;
 
+import java.util.ArrayList;
 import java.util.HashSet;
+import java.util.List;
 import java.util.Map;
 import java.util.Set;
 import java.util.concurrent.ConcurrentHashMap;
@@ -30,6 +32,7 @@ import org.hotswap.agent.config.PluginManager;
 import org.hotswap.agent.javassist.ClassPool;
 import org.hotswap.agent.javassist.CtClass;
 import org.hotswap.agent.logging.AgentLogger;
+import org.hotswap.agent.plugin.jdk.JdkPlugin;
 import org.hotswap.agent.plugin.proxy.hscglib.CglibEnhancerProxyTransformer;
 import org.hotswap.agent.plugin.proxy.hscglib.CglibProxyTransformer;
 import org.hotswap.agent.plugin.proxy.hscglib.GeneratorParametersTransformer;
@@ -117,7 +120,13 @@ public class ProxyPlugin {
             return classfileBuffer;
         }
 
-        loader.loadClass("java.beans.Introspector").getMethod("flushCaches").invoke(null);
+        // flush caches of the proxy and of the proxied class (with its subclasses) after the redefinition
+        List<Class<?>> flushedClasses = new ArrayList<>();
+        flushedClasses.add(classBeingRedefined);
+        if (classBeingRedefined.getSuperclass() != null && classBeingRedefined.getSuperclass() != Object.class) {
+            flushedClasses.add(classBeingRedefined.getSuperclass());
+        }
+        JdkPlugin.scheduleFlushCaches(flushedClasses);
         if (generatorParams.getParam().getClass().getName().endsWith(".Enhancer")) {
             try {
                 return CglibEnhancerProxyTransformer.transform(classBeingRedefined, cp, classfileBuffer, loader, generatorParams);
@@ -25,8 +25,8 @@ import java.util.Map;
 import java.util.WeakHashMap;
 
 import org.hotswap.agent.javassist.ClassPool;
-import org.hotswap.agent.javassist.LoaderClassPath;
 import org.hotswap.agent.logging.AgentLogger;
+import org.hotswap.agent.util.classloader.CachingLoaderClassPath;
 
 /**
  *
@@ -73,7 +73,7 @@ public class ProxyTransformationUtils {
         cp.appendSystemPath();
         if (classLoader != null) {
             LOGGER.trace("Adding loader classpath " + classLoader);
-            cp.appendClassPath(new LoaderClassPath(classLoader));
+            cp.appendClassPath(new CachingLoaderClassPath(classLoader));
         }
         return cp;
     }
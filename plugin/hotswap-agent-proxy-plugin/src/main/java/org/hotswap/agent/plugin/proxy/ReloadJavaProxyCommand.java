@@ -18,10 +18,17 @@
  */
 package org.hotswap.agent.plugin.proxy;
 
+import java.lang.reflect.Method;
+import java.lang.reflect.Modifier;
 import java.util.ArrayList;
+import java.util.Arrays;
 import java.util.HashMap;
+import java.util.HashSet;
+import java.util.LinkedHashMap;
 import java.util.List;
 import java.util.Map;
+import java.util.Set;
+import java.util.concurrent.ConcurrentHashMap;
 
 import org.hotswap.agent.command.Command;
 import org.hotswap.agent.command.MergeableCommand;
@@ -30,12 +37,18 @@ import org.hotswap.agent.logging.AgentLogger;
 import org.hotswap.agent.plugin.proxy.java.ProxyGenerator;
 
 /**
- * Joins subsequent proxy redefinition commands together and guarantee execution order
+ * Joins subsequent proxy redefinition commands together and guarantee execution order.
+ * <p>
+ * All merged proxies are regenerated (in parallel if there are more of them) and redefined by a single
+ * redefineClasses call.
  */
 public class ReloadJavaProxyCommand extends MergeableCommand {
 
     private static AgentLogger LOGGER = AgentLogger.getLogger(ReloadJavaProxyCommand.class);
 
+    // generate proxy bytecode in parallel from this number of proxies
+    private static final int PARALLEL_GENERATION_THRESHOLD = 4;
+
     private ClassLoader classLoader;
     private String className;
     private Map<String, String> signatureMapOrig;
@@ -49,58 +62,95 @@ public class ReloadJavaProxyCommand extends MergeableCommand {
     @Override
     public void executeCommand() {
         try {
-            executeSingleCommand();
-            List<Command> commands = new ArrayList<>(getMergedCommands());
-            for (Command command: commands) {
-                ((ReloadJavaProxyCommand) command).executeSingleCommand();
+            // the first command of a proxy holds the oldest original signatures
+            Map<String, ReloadJavaProxyCommand> commands = new LinkedHashMap<>();
+            commands.put(className, this);
+            for (Command command: new ArrayList<>(getMergedCommands())) {
+                ReloadJavaProxyCommand reloadCommand = (ReloadJavaProxyCommand) command;
+                if (!commands.containsKey(reloadCommand.className)) {
+                    commands.put(reloadCommand.className, reloadCommand);
+                }
             }
+            reloadProxies(new ArrayList<>(commands.values()));
         } finally {
             ProxyPlugin.reloadFlag = false;
         }
     }
 
     public void executeSingleCommand() {
+        reloadProxies(Arrays.asList(this));
+    }
+
+    private static void reloadProxies(List<ReloadJavaProxyCommand> commands) {
+        // signatures of interfaces shared by proxies are computed once
+        Map<Class<?>, String> signatureCache = new HashMap<>();
+        final Map<Class<?>, String> changedProxies = new LinkedHashMap<>();
+        for (ReloadJavaProxyCommand command : commands) {
+            try {
+                Class<?> clazz = command.classLoader.loadClass(command.className);
+                Map<String, String> signatureMap = ProxyClassSignatureHelper.getNonSyntheticSignatureMap(clazz, signatureCache);
+                LOGGER.debug("reloadProxies class:{}, signature equals:{}", command.className, signatureMap.equals(command.signatureMapOrig));
+                if (!signatureMap.equals(command.signatureMapOrig) || !isImplementInterface(clazz)) {
+                    changedProxies.put(clazz, command.className);
+                }
+            } catch (ClassNotFoundException e) {
+                LOGGER.error("Error redefining java proxy {}", e, command.className);
+            }
+        }
+
         try {
-            Class<?> clazz = classLoader.loadClass(className);
-            Map<String, String> signatureMap = ProxyClassSignatureHelper.getNonSyntheticSignatureMap(clazz);
-            LOGGER.debug("executeSingleCommand class:{}, signature equals:{}", className, signatureMap.equals(signatureMapOrig));
-            if (!signatureMap.equals(signatureMapOrig) || !isImplementInterface(signatureMap, clazz)) {
-                byte[] generateProxyClass = ProxyGenerator.generateProxyClass(className, clazz.getInterfaces());
-                Map<Class<?>, byte[]> reloadMap = new HashMap<>();
-                reloadMap.put(clazz, generateProxyClass);
+            if (!changedProxies.isEmpty()) {
+                final Map<Class<?>, byte[]> reloadMap = new ConcurrentHashMap<>();
+                if (changedProxies.size() >= PARALLEL_GENERATION_THRESHOLD) {
+                    changedProxies.entrySet().parallelStream().forEach(entry ->
+                            reloadMap.put(entry.getKey(), ProxyGenerator.generateProxyClass(entry.getValue(), entry.getKey().getInterfaces())));
+                } else {
+                    for (Map.Entry<Class<?>, String> entry : changedProxies.entrySet()) {
+                        reloadMap.put(entry.getKey(), ProxyGenerator.generateProxyClass(entry.getValue(), entry.getKey().getInterfaces()));
+                    }
+                }
                 PluginManager.getInstance().hotswap(reloadMap);
-                LOGGER.reload("Class '{}' has been reloaded.", className);
+                for (String proxyClassName : changedProxies.values()) {
+                    LOGGER.reload("Class '{}' has been reloaded.", proxyClassName);
+                }
+            }
+        } finally {
+            for (ReloadJavaProxyCommand command : commands) {
+                ProxyPlugin.removeProxyDefiningClassName(command.className);
             }
-            ProxyPlugin.removeProxyDefiningClassName(className);
-        } catch (ClassNotFoundException e) {
-            LOGGER.error("Error redefining java proxy {}", e, className);
         }
     }
 
-    // Whether all methods of the interface are implemented
-    private boolean isImplementInterface(Map<String, String> signatureMap, Class<?> clazz) {
-        String clazzSignature = "";
+    // Whether all abstract methods of the proxied interfaces are implemented by the proxy class
+    private static boolean isImplementInterface(Class<?> clazz) {
         try {
-            clazzSignature = ProxyClassSignatureHelper.getJavaClassSignature(clazz).replaceAll("final ", "");
-            LOGGER.debug("clazzSignature: {}", clazzSignature);
-        } catch (Exception e) {
-            LOGGER.error("Error getJavaClassSignature {}", clazz, e);
-            return true;
-        }
-        for (Map.Entry<String, String> entry : signatureMap.entrySet()) {
-            if(clazzSignature.contains(entry.getKey()) && entry.getValue().contains("public abstract")) {
-                LOGGER.debug("{} Signature: {}", entry.getKey(), entry.getValue());
-                String[] methodSignatures = entry.getValue().replaceAll("abstract ", "").split(";");
-                for (String methodSignature : methodSignatures) {
-                    if(!clazzSignature.contains(methodSignature)) {
+            Set<String> implemented = new HashSet<>();
+            for (Method method : clazz.getDeclaredMethods()) {
+                implemented.add(getMethodKey(method));
+            }
+            for (Class<?> interfaceClazz : clazz.getInterfaces()) {
+                for (Method method : interfaceClazz.getMethods()) {
+                    if (Modifier.isAbstract(method.getModifiers()) && !implemented.contains(getMethodKey(method))) {
+                        LOGGER.debug("Method {} is not implemented by proxy {}", method, clazz.getName());
                         return false;
                     }
                 }
             }
+        } catch (Exception e) {
+            LOGGER.error("Error reading methods of {}", clazz, e);
         }
         return true;
     }
 
+    // name and parameter types, the proxy declares single method for methods with covariant return types
+    private static String getMethodKey(Method method) {
+        StringBuilder key = new StringBuilder(method.getName()).append('(');
+        for (Class<?> paramType : method.getParameterTypes()) {
+            key.append(paramType.getName()).append(',');
+        }
+        return key.append(')').toString();
+    }
+
     public boolean shiftScheduleTime() {
         return false;
     }
@@ -133,14 +133,10 @@ public class ResteasyPlugin {
         LOGGER.debug("RestEasyPlugin - dispatcher registered : " + filterDispatcher.getClass().getName());
     }
 
-    @OnClassLoadEvent(classNameRegexp = ".*", events = LoadEvent.REDEFINE)
+    @OnClassLoadEvent(classNameRegexp = ".*", events = LoadEvent.REDEFINE, annotations = PATH_ANNOTATION)
     public void entityReload(ClassLoader classLoader, CtClass clazz, Class original) {
-        if (AnnotationHelper.hasAnnotation(original, PATH_ANNOTATION)
-                || AnnotationHelper.hasAnnotation(clazz, PATH_ANNOTATION)
-                ) {
-            LOGGER.debug("Reload @Path annotated class {}, original classloader {}", clazz.getName(), original.getClassLoader());
-            refresh(classLoader, 100);
-        }
+        LOGGER.debug("Reload @Path annotated class {}, original classloader {}", clazz.getName(), original.getClassLoader());
+        refresh(classLoader, 100);
     }
 
     @OnClassFileEvent(classNameRegexp = ".*", events = {FileEvent.CREATE})
@@ -136,15 +136,12 @@ public class ResteasyRegistryPlugin {
         LOGGER.info("Registered ServletContainerDispatcher {} ", servletContainerDispatcher);
     }
 
-    @OnClassLoadEvent(classNameRegexp = ".*", events = LoadEvent.REDEFINE)
+    @OnClassLoadEvent(classNameRegexp = ".*", events = LoadEvent.REDEFINE, annotations = PATH_ANNOTATION)
     public void entityReload(ClassLoader classLoader, CtClass clazz, Class<?> original) {
-        if (AnnotationHelper.hasAnnotation(original, PATH_ANNOTATION)
-                || AnnotationHelper.hasAnnotation(clazz, PATH_ANNOTATION)) {
-            if(LOGGER.isLevelEnabled(Level.TRACE)) {
-                LOGGER.trace("Reload @Path annotated class {}", clazz.getName());
-            }
-            refreshClass(classLoader, clazz.getName(), original, 250);
+        if(LOGGER.isLevelEnabled(Level.TRACE)) {
+            LOGGER.trace("Reload @Path annotated class {}", clazz.getName());
         }
+        refreshClass(classLoader, clazz.getName(), original, 250);
     }
 
     @OnClassFileEvent(classNameRegexp = ".*", events = { FileEvent.CREATE })
@@ -19,6 +19,7 @@
 package org.hotswap.agent.plugin.spring;
 
 import org.hotswap.agent.logging.AgentLogger;
+import org.hotswap.agent.util.ReflectionHelper;
 import org.springframework.beans.factory.annotation.AutowiredAnnotationBeanPostProcessor;
 import org.springframework.beans.factory.annotation.InitDestroyAnnotationBeanPostProcessor;
 import org.springframework.beans.factory.annotation.InjectionMetadata;
@@ -28,6 +29,8 @@ import org.springframework.beans.factory.support.DefaultListableBeanFactory;
 import java.lang.reflect.Constructor;
 import java.lang.reflect.Field;
 import java.lang.reflect.Method;
+import java.util.Collection;
+import java.util.Iterator;
 import java.util.Map;
 
 /**
@@ -85,6 +88,56 @@ public class ResetBeanPostProcessorCaches {
         }
     }
 
+    /**
+     * Reset post processor cache entries of the changed classes and of the given beans only.
+     * Reflection caches are reset by ResetSpringStaticCaches.reset(changedClasses).
+     *
+     * @param beanFactory    beanFactory to use
+     * @param beanNames      names of the changed beans and their dependents
+     * @param changedClasses redefined classes
+     */
+    public static void reset(DefaultListableBeanFactory beanFactory, Collection<String> beanNames,
+                             Collection<Class<?>> changedClasses) {
+        for (BeanPostProcessor bpp : beanFactory.getBeanPostProcessors()) {
+            if (bpp instanceof AutowiredAnnotationBeanPostProcessor) {
+                Map candidateConstructorsCache = (Map) ReflectionHelper.getNoException(bpp,
+                        AutowiredAnnotationBeanPostProcessor.class, "candidateConstructorsCache");
+                if (candidateConstructorsCache != null) {
+                    ResetSpringStaticCaches.evict(candidateConstructorsCache, changedClasses);
+                }
+                // keyed by bean name, or by class name for beans without a name
+                Map injectionMetadataCache = (Map) ReflectionHelper.getNoException(bpp,
+                        AutowiredAnnotationBeanPostProcessor.class, "injectionMetadataCache");
+                if (injectionMetadataCache != null) {
+                    evictNames(injectionMetadataCache, beanNames, changedClasses);
+                }
+                LOGGER.debug("Cache evicted: AutowiredAnnotationBeanPostProcessor caches of beans {}", beanNames);
+            } else if (bpp instanceof InitDestroyAnnotationBeanPostProcessor) {
+                Map lifecycleMetadataCache = (Map) ReflectionHelper.getNoException(bpp,
+                        InitDestroyAnnotationBeanPostProcessor.class, "lifecycleMetadataCache");
+                if (lifecycleMetadataCache != null) {
+                    ResetSpringStaticCaches.evict(lifecycleMetadataCache, changedClasses);
+                }
+            }
+        }
+    }
+
+    private static void evictNames(Map<?, ?> cache, Collection<String> beanNames, Collection<Class<?>> changedClasses) {
+        for (Iterator<?> it = cache.keySet().iterator(); it.hasNext(); ) {
+            Object key = it.next();
+            if (beanNames.contains(key)) {
+                it.remove();
+                continue;
+            }
+            for (Class<?> changedClass : changedClasses) {
+                if (changedClass.getName().equals(key)) {
+                    it.remove();
+                    break;
+                }
+            }
+        }
+    }
+
     public static void resetInitDestroyAnnotationBeanPostProcessorCache(InitDestroyAnnotationBeanPostProcessor bpp) {
         try {
             Field field = InitDestroyAnnotationBeanPostProcessor.class.getDeclaredField("lifecycleMetadataCache");
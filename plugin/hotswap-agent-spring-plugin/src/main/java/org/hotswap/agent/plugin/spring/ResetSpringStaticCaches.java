@@ -18,7 +18,12 @@
  */
 package org.hotswap.agent.plugin.spring;
 
+import java.lang.reflect.AnnotatedElement;
 import java.lang.reflect.Field;
+import java.lang.reflect.Member;
+import java.lang.reflect.Parameter;
+import java.util.Collection;
+import java.util.Iterator;
 import java.util.Map;
 
 import org.hotswap.agent.logging.AgentLogger;
@@ -26,7 +31,9 @@ import org.hotswap.agent.util.ReflectionHelper;
 import org.springframework.beans.CachedIntrospectionResults;
 import org.springframework.beans.factory.support.DefaultListableBeanFactory;
 import org.springframework.core.GenericTypeResolver;
+import org.springframework.core.ResolvableType;
 import org.springframework.core.annotation.AnnotationUtils;
+import org.springframework.core.convert.Property;
 import org.springframework.util.ReflectionUtils;
 
 /**
@@ -88,6 +95,111 @@ public class ResetSpringStaticCaches {
         CachedIntrospectionResults.clearClassLoader(ResetSpringStaticCaches.class.getClassLoader());
     }
 
+    /**
+     * Reset only cache entries of the changed classes and their subclasses, entries of unrelated
+     * classes stay warm. Caches which do not exist in the target Spring version are skipped.
+     *
+     * @param changedClasses redefined classes
+     */
+    public static void reset(Collection<Class<?>> changedClasses) {
+        if (changedClasses.isEmpty()) {
+            return;
+        }
+        ClassLoader classLoader = ResetSpringStaticCaches.class.getClassLoader();
+        evict(GenericTypeResolver.class, "typeVariableCache", changedClasses);
+        evict(ReflectionUtils.class, "declaredMethodsCache", changedClasses);
+        evict(ReflectionUtils.class, "declaredFieldsCache", changedClasses);
+        evict(AnnotationUtils.class, "annotatedInterfaceCache", changedClasses);
+        evict(AnnotationUtils.class, "findAnnotationCache", changedClasses);
+        evict(classLoader, "org.springframework.core.annotation.AnnotationsScanner", "declaredAnnotationCache", changedClasses);
+        evict(classLoader, "org.springframework.core.annotation.AnnotationsScanner", "baseTypeMethodsCache", changedClasses);
+        evict(classLoader, "org.springframework.core.ResolvableType", "cache", changedClasses);
+        evict(classLoader, "org.springframework.core.convert.Property", "annotationCache", changedClasses);
+        evict(CachedIntrospectionResults.class, "strongClassCache", changedClasses);
+        evict(CachedIntrospectionResults.class, "softClassCache", changedClasses);
+    }
+
+    private static void evict(ClassLoader classLoader, String className, String cacheName, Collection<Class<?>> changedClasses) {
+        try {
+            evict(classLoader.loadClass(className), cacheName, changedClasses);
+        } catch (ClassNotFoundException e) {
+            LOGGER.trace("Cache NOT evicted: {} not exists in target Spring version", className);
+        }
+    }
+
+    private static void evict(Class<?> cacheOwner, String cacheName, Collection<Class<?>> changedClasses) {
+        Map cache = (Map) ReflectionHelper.getNoException(null, cacheOwner, cacheName);
+        if (cache == null) {
+            LOGGER.trace("Cache NOT evicted: {}.{} not exists in target Spring version", cacheOwner.getSimpleName(), cacheName);
+            return;
+        }
+        int count = evict(cache, changedClasses);
+        LOGGER.trace("Cache evicted: {}.{}, {} entries removed", cacheOwner.getSimpleName(), cacheName, count);
+    }
+
+    /**
+     * Remove cache entries with keys related to any of the changed classes.
+     *
+     * @param cache          cache keyed by a class, member, annotated element or a Spring type holder
+     * @param changedClasses redefined classes
+     * @return number of removed entries
+     */
+    static int evict(Map<?, ?> cache, Collection<Class<?>> changedClasses) {
+        int count = 0;
+        try {
+            for (Iterator<?> it = cache.keySet().iterator(); it.hasNext(); ) {
+                if (isAffected(it.next(), changedClasses)) {
+                    it.remove();
+                    count++;
+                }
+            }
+        } catch (UnsupportedOperationException e) {
+            count = cache.size();
+            cache.clear();
+        }
+        return count;
+    }
+
+    /**
+     * Check if a cache key belongs to one of the changed classes or to their subclass. Keys of unknown
+     * type are considered affected.
+     */
+    static boolean isAffected(Object key, Collection<Class<?>> changedClasses) {
+        Class<?> keyClass = getKeyClass(key);
+        if (keyClass == null) {
+            return true;
+        }
+        for (Class<?> changedClass : changedClasses) {
+            if (changedClass.isAssignableFrom(keyClass)) {
+                return true;
+            }
+        }
+        return false;
+    }
+
+    private static Class<?> getKeyClass(Object key) {
+        if (key instanceof Class) {
+            return (Class<?>) key;
+        } else if (key instanceof Member) {
+            return ((Member) key).getDeclaringClass();
+        } else if (key instanceof Parameter) {
+            return ((Parameter) key).getDeclaringExecutable().getDeclaringClass();
+        } else if (key == null) {
+            return null;
+        }
+        // compare by name, classes may not exist in the target Spring version
+        switch (key.getClass().getName()) {
+            case "org.springframework.core.ResolvableType":
+                return ((ResolvableType) key).resolve();
+            case "org.springframework.core.convert.Property":
+                return ((Property) key).getObjectType();
+            default:
+                // AnnotationUtils.AnnotationCacheKey (pre 5.2)
+                Object element = ReflectionHelper.getNoException(key, key.getClass(), "element");
+                return element instanceof AnnotatedElement ? getKeyClass(element) : null;
+        }
+    }
+
     private static void resetResolvableTypeCache() {
         ReflectionHelper.invokeNoException(null, "org.springframework.core.ResolvableType",
                 ResetSpringStaticCaches.class.getClassLoader(), "clearCache", new Class<?>[] {});
@@ -18,16 +18,23 @@
  */
 package org.hotswap.agent.plugin.spring;
 
+import java.util.Map;
+import java.util.concurrent.ConcurrentHashMap;
+
 import org.hotswap.agent.javassist.ClassPool;
 import org.hotswap.agent.javassist.CtClass;
 import org.hotswap.agent.javassist.LoaderClassPath;
 import org.hotswap.agent.logging.AgentLogger;
 import org.hotswap.agent.plugin.spring.signature.ClassSignatureComparer;
+import org.hotswap.agent.util.signature.ClassSignatureDigest;
 
 /**
  * Determines if a full Spring reload is needed. Changes to synthetic and known generated classes are ignored. For other
  * classes, changes to method bodies are ignored.
  *
+ * The first redefinition of a class is compared with the loaded class using a ClassPool and reflection. Signature
+ * digest of the new class bytes is then cached, so later redefinitions of the same class compare digests only.
+ *
  * @author Erki Ehtla
  *
  */
@@ -36,6 +43,9 @@ public class SpringChangesAnalyzer {
 
     private ClassPool cp;
 
+    // class name -> signature digest of the last redefinition, only redefined classes are kept
+    private final Map<String, ClassSignatureDigest> signatureDigests = new ConcurrentHashMap<>();
+
     public SpringChangesAnalyzer(final ClassLoader classLoader) {
         this.cp = new ClassPool() {
 
@@ -51,9 +61,26 @@ public class SpringChangesAnalyzer {
     public boolean isReloadNeeded(Class<?> classBeingRedefined, byte[] classfileBuffer) {
         if (classBeingRedefined.isSynthetic() || isSyntheticClass(classBeingRedefined))
             return false;
+
+        ClassSignatureDigest newDigest = getSignatureDigest(classfileBuffer);
+        if (newDigest != null) {
+            ClassSignatureDigest oldDigest = signatureDigests.put(classBeingRedefined.getName(), newDigest);
+            if (oldDigest != null) {
+                return !oldDigest.equals(newDigest);
+            }
+        }
         return classChangeNeedsReload(classBeingRedefined, classfileBuffer);
     }
 
+    private ClassSignatureDigest getSignatureDigest(byte[] classfileBuffer) {
+        try {
+            return ClassSignatureComparer.getSignatureDigest(classfileBuffer);
+        } catch (Exception e) {
+            LOGGER.debug("Unable to compute signature digest.", e);
+            return null;
+        }
+    }
+
     private boolean classChangeNeedsReload(Class<?> classBeingRedefined, byte[] classfileBuffer) {
         CtClass makeClass = null;
         try {
@@ -19,13 +19,13 @@
 package org.hotswap.agent.plugin.spring.getbean;
 
 import java.io.Serializable;
-import java.lang.ref.WeakReference;
+import java.lang.invoke.MethodHandle;
+import java.lang.invoke.MethodHandles;
+import java.lang.invoke.MethodType;
 import java.lang.reflect.InvocationTargetException;
 import java.lang.reflect.Method;
-import java.util.ArrayList;
 import java.util.Arrays;
-import java.util.Collections;
-import java.util.List;
+import java.util.Collection;
 
 import org.hotswap.agent.logging.AgentLogger;
 
@@ -44,8 +44,9 @@ public class DetachableBeanHolder implements Serializable {
     private Object beanFactory;
     private Class<?>[] paramClasses;
     private Object[] paramValues;
-    private static List<WeakReference<DetachableBeanHolder>> beanProxies =
-            Collections.synchronizedList(new ArrayList<WeakReference<DetachableBeanHolder>>());
+    // factory getBean(...) bound to beanFactory and spreading paramValues, resolved on first detached access
+    private transient MethodHandle factoryMethod;
+    private static final DetachableBeanHolderIndex beanProxies = new DetachableBeanHolderIndex();
     private static AgentLogger LOGGER = AgentLogger.getLogger(DetachableBeanHolder.class);
 
     /**
@@ -62,27 +63,30 @@ public class DetachableBeanHolder implements Serializable {
         this.beanFactory = beanFactry;
         this.paramClasses = paramClasses;
         this.paramValues = paramValues;
-        beanProxies.add(new WeakReference<DetachableBeanHolder>(this));
+        beanProxies.register(this, beanFactry, bean, paramValues);
     }
 
     /**
      * Clears the bean references inside all of the proxies
      */
     public static void detachBeans() {
-        int i = 0;
-        synchronized (beanProxies) {
-            while (i < beanProxies.size()) {
-                DetachableBeanHolder beanHolder = beanProxies.get(i).get();
-                if (beanHolder != null) {
-                    beanHolder.detach();
-                    i++;
-                } else {
-                    beanProxies.remove(i);
-                }
-            }
-        }
-        if (i > 0) {
-            LOGGER.info("{} Spring proxies reset", i);
+        logDetached(beanProxies.detachAll());
+    }
+
+    /**
+     * Clears the bean references inside the proxies of the given beans. Proxies which could not be associated
+     * with any bean name or class are always cleared.
+     *
+     * @param beanNames      names of the changed beans
+     * @param beanClassNames class names of the changed beans
+     */
+    public static void detachBeans(Collection<String> beanNames, Collection<String> beanClassNames) {
+        logDetached(beanProxies.detach(beanNames, beanClassNames));
+    }
+
+    private static void logDetached(int count) {
+        if (count > 0) {
+            LOGGER.info("{} Spring proxies reset", count);
         } else {
             LOGGER.debug("No spring proxies reset");
         }
@@ -122,32 +126,58 @@ public class DetachableBeanHolder implements Serializable {
     public Object getBean() throws IllegalAccessException, InvocationTargetException {
         Object beanCopy = bean;
         if (beanCopy == null) {
-            Method[] methods = beanFactory.getClass().getMethods();
-            for (Method factoryMethod : methods) {
-                if (ProxyReplacer.FACTORY_METHOD_NAME.equals(factoryMethod.getName())
-                        && Arrays.equals(factoryMethod.getParameterTypes(), paramClasses)) {
-
-                    Object freshBean = factoryMethod.invoke(beanFactory, paramValues);
-
-                    // Factory returns HA proxy, but current method is invoked from HA proxy!
-                    // It might be the same object (if factory returns same object - meaning
-                    // that although clearAllProxies() was called, this bean did not change)
-                    // Unwrap the target bean, it is always available
-                    // see org.hotswap.agent.plugin.spring.getbean.EnhancerProxyCreater.create()
-                    if (freshBean instanceof SpringHotswapAgentProxy) {
-                        freshBean = ((SpringHotswapAgentProxy) freshBean).$$ha$getTarget();
-                    }
-
-                    bean = freshBean;
-                    beanCopy = bean;
-                    LOGGER.info("Bean '{}' loaded", bean.getClass().getName());
-                    break;
+            MethodHandle factoryMethodCopy = getFactoryMethod();
+            if (factoryMethodCopy != null) {
+                Object freshBean;
+                try {
+                    freshBean = (Object) factoryMethodCopy.invokeExact(paramValues);
+                } catch (Throwable e) {
+                    throw new InvocationTargetException(e);
+                }
+
+                // Factory returns HA proxy, but current method is invoked from HA proxy!
+                // It might be the same object (if factory returns same object - meaning
+                // that although clearAllProxies() was called, this bean did not change)
+                // Unwrap the target bean, it is always available
+                // see org.hotswap.agent.plugin.spring.getbean.EnhancerProxyCreater.create()
+                if (freshBean instanceof SpringHotswapAgentProxy) {
+                    freshBean = ((SpringHotswapAgentProxy) freshBean).$$ha$getTarget();
                 }
+
+                bean = freshBean;
+                beanCopy = bean;
+                LOGGER.info("Bean '{}' loaded", bean.getClass().getName());
             }
         }
         return beanCopy;
     }
 
+    /**
+     * Resolves the beanFactory ProxyReplacer.FACTORY_METHOD_NAME method matching paramClasses only once per holder.
+     * The returned handle is bound to the beanFactory and takes paramValues as a single Object[] argument.
+     *
+     * @return factory method handle or null if the factory does not declare a matching method
+     * @throws IllegalAccessException
+     */
+    private MethodHandle getFactoryMethod() throws IllegalAccessException {
+        MethodHandle handle = factoryMethod;
+        if (handle == null) {
+            for (Method method : beanFactory.getClass().getMethods()) {
+                if (ProxyReplacer.FACTORY_METHOD_NAME.equals(method.getName())
+                        && Arrays.equals(method.getParameterTypes(), paramClasses)) {
+                    method.setAccessible(true);
+                    handle = MethodHandles.lookup().unreflect(method)
+                            .bindTo(beanFactory)
+                            .asSpreader(Object[].class, paramClasses.length)
+                            .asType(MethodType.methodType(Object.class, Object[].class));
+                    factoryMethod = handle;
+                    break;
+                }
+            }
+        }
+        return handle;
+    }
+
     protected boolean isBeanLoaded(){
         return bean != null;
     }
@@ -0,0 +1,239 @@
+/*
+ * Copyright 2013-2023 the HotswapAgent authors.
+ *
+ * This file is part of HotswapAgent.
+ *
+ * HotswapAgent is free software: you can redistribute it and/or modify it
+ * under the terms of the GNU General Public License as published by the
+ * Free Software Foundation, either version 2 of the License, or (at your
+ * option) any later version.
+ *
+ * HotswapAgent is distributed in the hope that it will be useful, but
+ * WITHOUT ANY WARRANTY; without even the implied warranty of
+ * MERCHANTABILITY or FITNESS FOR A PARTICULAR PURPOSE. See the GNU General
+ * Public License for more details.
+ *
+ * You should have received a copy of the GNU General Public License along
+ * with HotswapAgent. If not, see http://www.gnu.org/licenses/.
+ */
+package org.hotswap.agent.plugin.spring.getbean;
+
+import java.lang.ref.Reference;
+import java.lang.ref.ReferenceQueue;
+import java.lang.ref.WeakReference;
+import java.lang.reflect.Proxy;
+import java.util.Collection;
+import java.util.Collections;
+import java.util.IdentityHashMap;
+import java.util.Set;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.concurrent.ConcurrentMap;
+
+import org.springframework.beans.factory.BeanFactoryUtils;
+import org.springframework.beans.factory.ListableBeanFactory;
+import org.springframework.core.SimpleAliasRegistry;
+
+/**
+ * Weak index of live DetachableBeanHolders by bean name and bean class name.
+ * <p>
+ * A holder is registered under the canonical names of the beans it may resolve to - the bean name
+ * of getBean(String, ...) lookups (with factory prefix and aliases resolved) or names of the beans
+ * of the requested type of getBean(Class, ...) lookups - and under the user class name of the bean.
+ * Holders which can not be keyed exactly are kept in a separate bucket and detached on every invalidation.
+ * Cleared references are removed from their buckets through a reference queue each time a holder
+ * is registered, there is no full scan of the index.
+ */
+class DetachableBeanHolderIndex {
+
+    private static final String CGLIB_CLASS_SEPARATOR = "$$";
+
+    private final ReferenceQueue<DetachableBeanHolder> queue = new ReferenceQueue<>();
+
+    private final Set<HolderReference> all = newConcurrentSet();
+
+    private final Set<HolderReference> unindexed = newConcurrentSet();
+
+    private final ConcurrentMap<String, Set<HolderReference>> byBeanName = new ConcurrentHashMap<>();
+
+    private final ConcurrentMap<String, Set<HolderReference>> byClassName = new ConcurrentHashMap<>();
+
+    /**
+     * Register a holder with keys resolved from the bean factory and factory method arguments.
+     *
+     * @param holder      the holder
+     * @param beanFactory factory which produced the bean
+     * @param bean        bean returned by the factory (may be null)
+     * @param paramValues factory method arguments
+     */
+    void register(DetachableBeanHolder holder, Object beanFactory, Object bean, Object[] paramValues) {
+        expungeStaleEntries();
+
+        String[] beanNames = resolveBeanNames(beanFactory, paramValues);
+        String beanClassName = beanNames != null ? getUserClassName(bean) : null;
+
+        HolderReference ref = new HolderReference(holder, queue, beanNames, beanClassName);
+        all.add(ref);
+        if (beanNames == null) {
+            unindexed.add(ref);
+            return;
+        }
+        for (String beanName : beanNames) {
+            bucket(byBeanName, beanName).add(ref);
+        }
+        if (beanClassName != null) {
+            bucket(byClassName, beanClassName).add(ref);
+        }
+    }
+
+    /**
+     * Canonical names of beans the factory method arguments may resolve to.
+     *
+     * @return bean names or null if the names can not be resolved exactly
+     */
+    private static String[] resolveBeanNames(Object beanFactory, Object[] paramValues) {
+        if (!(beanFactory instanceof ListableBeanFactory) || paramValues == null || paramValues.length == 0) {
+            return null;
+        }
+        ListableBeanFactory bf = (ListableBeanFactory) beanFactory;
+        try {
+            if (paramValues[0] instanceof String) {
+                String beanName = BeanFactoryUtils.transformedBeanName((String) paramValues[0]);
+                if (bf instanceof SimpleAliasRegistry) {
+                    beanName = ((SimpleAliasRegistry) bf).canonicalName(beanName);
+                }
+                return bf.containsBeanDefinition(beanName) ? new String[]{beanName} : null;
+            } else if (paramValues[0] instanceof Class) {
+                // all candidates, getBean(Class) may select any of them (primary, priority)
+                String[] beanNames = bf.getBeanNamesForType((Class<?>) paramValues[0], true, false);
+                return beanNames.length > 0 ? beanNames : null;
+            }
+        } catch (RuntimeException e) {
+            // not resolvable, always detach
+        }
+        return null;
+    }
+
+    /**
+     * Detach all holders.
+     *
+     * @return number of detached holders
+     */
+    int detachAll() {
+        expungeStaleEntries();
+        return detach(all, null);
+    }
+
+    /**
+     * Detach holders registered under any of bean names or bean class names and all holders without a key.
+     *
+     * @param beanNames      bean names
+     * @param beanClassNames bean class names
+     * @return number of detached holders
+     */
+    int detach(Collection<String> beanNames, Collection<String> beanClassNames) {
+        expungeStaleEntries();
+        Set<HolderReference> detached = Collections.newSetFromMap(new IdentityHashMap<HolderReference, Boolean>());
+        detach(unindexed, detached);
+        for (String beanName : beanNames) {
+            Set<HolderReference> refs = byBeanName.get(beanName);
+            if (refs != null) {
+                detach(refs, detached);
+            }
+        }
+        for (String beanClassName : beanClassNames) {
+            Set<HolderReference> refs = byClassName.get(beanClassName);
+            if (refs != null) {
+                detach(refs, detached);
+            }
+        }
+        return detached.size();
+    }
+
+    private int detach(Set<HolderReference> refs, Set<HolderReference> detached) {
+        int count = 0;
+        for (HolderReference ref : refs) {
+            DetachableBeanHolder holder = ref.get();
+            if (holder != null && (detached == null || detached.add(ref))) {
+                holder.detach();
+                count++;
+            }
+        }
+        return count;
+    }
+
+    /**
+     * Remove references cleared by the garbage collector from their buckets.
+     */
+    private void expungeStaleEntries() {
+        for (Reference<? extends DetachableBeanHolder> polled; (polled = queue.poll()) != null; ) {
+            HolderReference ref = (HolderReference) polled;
+            all.remove(ref);
+            if (ref.beanNames == null) {
+                unindexed.remove(ref);
+            } else {
+                for (String beanName : ref.beanNames) {
+                    removeFromBucket(byBeanName, beanName, ref);
+                }
+            }
+            removeFromBucket(byClassName, ref.beanClassName, ref);
+        }
+    }
+
+    private static void removeFromBucket(ConcurrentMap<String, Set<HolderReference>> index, String key, HolderReference ref) {
+        if (key == null) {
+            return;
+        }
+        Set<HolderReference> refs = index.get(key);
+        if (refs != null) {
+            refs.remove(ref);
+        }
+    }
+
+    private static Set<HolderReference> bucket(ConcurrentMap<String, Set<HolderReference>> index, String key) {
+        Set<HolderReference> refs = index.get(key);
+        if (refs == null) {
+            refs = newConcurrentSet();
+            Set<HolderReference> existing = index.putIfAbsent(key, refs);
+            if (existing != null) {
+                refs = existing;
+            }
+        }
+        return refs;
+    }
+
+    private static Set<HolderReference> newConcurrentSet() {
+        return Collections.newSetFromMap(new ConcurrentHashMap<HolderReference, Boolean>());
+    }
+
+    /**
+     * Name of the user class of the bean - cglib subclasses are resolved to their superclass,
+     * JDK proxies do not expose the target class and return null.
+     */
+    private static String getUserClassName(Object bean) {
+        if (bean == null || Proxy.isProxyClass(bean.getClass())) {
+            return null;
+        }
+        Class<?> beanClass = bean.getClass();
+        while (beanClass.getName().contains(CGLIB_CLASS_SEPARATOR) && beanClass.getSuperclass() != null
+                && beanClass.getSuperclass() != Object.class) {
+            beanClass = beanClass.getSuperclass();
+        }
+        return beanClass.getName();
+    }
+
+    /**
+     * Weak reference to a holder remembering the keys it is registered under. Identity equality is inherited.
+     */
+    private static class HolderReference extends WeakReference<DetachableBeanHolder> {
+        // null for an unindexed holder
+        final String[] beanNames;
+        final String beanClassName;
+
+        HolderReference(DetachableBeanHolder holder, ReferenceQueue<DetachableBeanHolder> queue,
+                        String[] beanNames, String beanClassName) {
+            super(holder, queue);
+            this.beanNames = beanNames;
+            this.beanClassName = beanClassName;
+        }
+    }
+}
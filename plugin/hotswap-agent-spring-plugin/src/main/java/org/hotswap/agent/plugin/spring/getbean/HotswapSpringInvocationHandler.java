@@ -18,9 +18,14 @@
  */
 package org.hotswap.agent.plugin.spring.getbean;
 
+import java.lang.invoke.MethodHandle;
+import java.lang.invoke.MethodHandles;
+import java.lang.invoke.MethodType;
 import java.lang.reflect.InvocationHandler;
 import java.lang.reflect.InvocationTargetException;
 import java.lang.reflect.Method;
+import java.util.Map;
+import java.util.concurrent.ConcurrentHashMap;
 
 /**
  * MethodInterceptor for java.lang.reflect bean Proxies. If the bean inside the proxy is cleared, it will be retrieved
@@ -33,6 +38,33 @@ public class HotswapSpringInvocationHandler extends DetachableBeanHolder impleme
 
     private static final long serialVersionUID = 8037007940960065166L;
 
+    private static final String INFRASTRUCTURE_PROXY = "org.springframework.core.InfrastructureProxy";
+
+    /**
+     * Invokers of proxied methods, grouped by the declaring class of the method.
+     */
+    private static final ClassValue<Map<Method, MethodInvoker>> INVOKERS = new ClassValue<Map<Method, MethodInvoker>>() {
+        @Override
+        protected Map<Method, MethodInvoker> computeValue(Class<?> type) {
+            return new ConcurrentHashMap<>();
+        }
+    };
+
+    /**
+     * Whether a bean class implements InfrastructureProxy.
+     */
+    private static final ClassValue<Boolean> INFRASTRUCTURE_PROXY_BEANS = new ClassValue<Boolean>() {
+        @Override
+        protected Boolean computeValue(Class<?> type) {
+            for (Class<?> beanInterface : type.getInterfaces()) {
+                if (beanInterface.getName().equals(INFRASTRUCTURE_PROXY)) {
+                    return Boolean.TRUE;
+                }
+            }
+            return Boolean.FALSE;
+        }
+    };
+
     /**
      *
      * @param beanFactry
@@ -52,23 +84,58 @@ public class HotswapSpringInvocationHandler extends DetachableBeanHolder impleme
 
     @Override
     public Object invoke(Object proxy, Method method, Object[] args) throws Throwable {
-        if (method.getName().equals("getWrappedObject")
-                && method.getDeclaringClass().getName().equals("org.springframework.core.InfrastructureProxy")) {
-            for (Class<?> beanInterface : getBean().getClass().getInterfaces()) {
-                if (beanInterface.getName().equals("org.springframework.core.InfrastructureProxy")) {
-                    return doInvoke(method, args);
-                }
-            }
-            return getBean();
+        MethodInvoker invoker = getInvoker(method);
+        Object target = resolveBean();
+        if (invoker.wrappedObjectAccessor && !INFRASTRUCTURE_PROXY_BEANS.get(target.getClass())) {
+            return target;
         }
-        return doInvoke(method, args);
+        return (Object) invoker.handle.invokeExact(target, args);
     }
 
-    private Object doInvoke(Method method, Object[] args) throws Throwable {
+    private Object resolveBean() throws Throwable {
         try {
-            return method.invoke(getBean(), args);
+            return getBean();
         } catch (InvocationTargetException e) {
             throw e.getCause();
         }
     }
+
+    private static MethodInvoker getInvoker(Method method) throws IllegalAccessException, NoSuchMethodException {
+        Map<Method, MethodInvoker> invokers = INVOKERS.get(method.getDeclaringClass());
+        MethodInvoker invoker = invokers.get(method);
+        if (invoker == null) {
+            invoker = new MethodInvoker(method);
+            invokers.put(method, invoker);
+        }
+        return invoker;
+    }
+
+    /**
+     * Resolved invocation of a single proxied method. The handle has type (Object target, Object[] args)Object.
+     */
+    private static class MethodInvoker {
+        private static final MethodType INVOKER_TYPE = MethodType.methodType(Object.class, Object.class, Object[].class);
+
+        final MethodHandle handle;
+        final boolean wrappedObjectAccessor;
+
+        MethodInvoker(Method method) throws IllegalAccessException, NoSuchMethodException {
+            this.wrappedObjectAccessor = method.getName().equals("getWrappedObject")
+                    && method.getDeclaringClass().getName().equals(INFRASTRUCTURE_PROXY);
+            this.handle = resolve(method);
+        }
+
+        private static MethodHandle resolve(Method method) throws IllegalAccessException, NoSuchMethodException {
+            MethodHandle direct;
+            try {
+                direct = MethodHandles.publicLookup().unreflect(method);
+            } catch (IllegalAccessException e) {
+                // non-public interface, the proxy's Method instance is shared, so open a private copy
+                Method accessible = method.getDeclaringClass().getDeclaredMethod(method.getName(), method.getParameterTypes());
+                accessible.setAccessible(true);
+                direct = MethodHandles.lookup().unreflect(accessible);
+            }
+            return direct.asSpreader(Object[].class, method.getParameterCount()).asType(INVOKER_TYPE);
+        }
+    }
 }
@@ -21,6 +21,7 @@ package org.hotswap.agent.plugin.spring.getbean;
 import java.lang.reflect.InvocationHandler;
 import java.lang.reflect.Proxy;
 import java.util.Arrays;
+import java.util.Collection;
 
 import org.hotswap.agent.logging.AgentLogger;
 import org.hotswap.agent.plugin.spring.SpringPlugin;
@@ -46,6 +47,18 @@ public class ProxyReplacer {
         DetachableBeanHolder.detachBeans();
     }
 
+    /**
+     * Clears the bean references inside the proxies of the given beans
+     *
+     * @param beanNames
+     *            names of the changed beans and the beans depending on them
+     * @param beanClassNames
+     *            class names of the changed beans and the beans depending on them
+     */
+    public static void clearProxies(Collection<String> beanNames, Collection<String> beanClassNames) {
+        DetachableBeanHolder.detachBeans(beanNames, beanClassNames);
+    }
+
     /**
      * Creates a proxied Spring bean. Called from within WebApp code by modification of Spring classes
      *
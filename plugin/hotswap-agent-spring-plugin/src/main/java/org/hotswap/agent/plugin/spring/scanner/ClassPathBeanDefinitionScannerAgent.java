@@ -19,8 +19,11 @@
 package org.hotswap.agent.plugin.spring.scanner;
 
 import java.io.IOException;
+import java.util.ArrayDeque;
+import java.util.Deque;
 import java.util.HashMap;
 import java.util.HashSet;
+import java.util.LinkedHashSet;
 import java.util.Map;
 import java.util.Set;
 
@@ -32,6 +35,7 @@ import org.hotswap.agent.plugin.spring.SpringPlugin;
 import org.hotswap.agent.plugin.spring.getbean.ProxyReplacer;
 import org.hotswap.agent.util.PluginManagerInvoker;
 import org.hotswap.agent.util.ReflectionHelper;
+import org.hotswap.agent.util.classloader.ClassLoaderHelper;
 import org.springframework.beans.factory.annotation.AnnotatedBeanDefinition;
 import org.springframework.beans.factory.config.BeanDefinition;
 import org.springframework.beans.factory.config.BeanDefinitionHolder;
@@ -143,22 +147,40 @@ public class ClassPathBeanDefinitionScannerAgent {
      * @throws IOException error working with classDefinition
      */
     public static void refreshClass(ClassLoader appClassLoader, String basePackage, byte[] classDefinition) throws IOException {
-        ResetSpringStaticCaches.reset();
-
         ClassPathBeanDefinitionScannerAgent scannerAgent = getInstance(basePackage);
         if (scannerAgent == null) {
+            ResetSpringStaticCaches.reset();
             LOGGER.error("basePackage '{}' not associated with any scannerAgent", basePackage);
             return;
         }
 
-        BeanDefinition beanDefinition = scannerAgent.resolveBeanDefinition(appClassLoader, classDefinition);
+        Resource resource = new ByteArrayResource(classDefinition);
+        scannerAgent.resetCachingMetadataReaderFactoryCache();
+        MetadataReader metadataReader = scannerAgent.getMetadataReader(appClassLoader, resource);
+
+        Set<Class<?>> changedClasses = getLoadedClasses(appClassLoader, metadataReader.getClassMetadata().getClassName());
+        ResetSpringStaticCaches.reset(changedClasses);
+
+        BeanDefinition beanDefinition = scannerAgent.resolveBeanDefinition(resource, metadataReader);
         if (beanDefinition != null) {
-            scannerAgent.defineBean(beanDefinition);
+            scannerAgent.defineBean(beanDefinition, changedClasses);
         }
 
         reloadFlag = false;
     }
 
+    // a class not loaded yet has no cache entries
+    private static Set<Class<?>> getLoadedClasses(ClassLoader classLoader, String className) {
+        Set<Class<?>> result = new HashSet<>();
+        if (classLoader != null && className != null && ClassLoaderHelper.isClassLoaded(classLoader, className)) {
+            try {
+                result.add(classLoader.loadClass(className));
+            } catch (ClassNotFoundException e) {
+                LOGGER.trace("Class '{}' not found in classLoader {}", className, classLoader);
+            }
+        }
+        return result;
+    }
 
     /**
      * Resolve candidate to a bean definition and (re)load in Spring.
@@ -168,6 +190,19 @@ public class ClassPathBeanDefinitionScannerAgent {
      * @param candidate the candidate to reload
      */
     public void defineBean(BeanDefinition candidate) {
+        DefaultListableBeanFactory bf = maybeRegistryToBeanFactory();
+        ClassLoader classLoader = bf != null ? bf.getBeanClassLoader() : getClass().getClassLoader();
+        defineBean(candidate, getLoadedClasses(classLoader, candidate.getBeanClassName()));
+    }
+
+    /**
+     * Resolve candidate to a bean definition and (re)load in Spring. Only the bean and beans depending on it
+     * are destroyed (and recreated by Spring on next access), only cache entries of changed classes are evicted.
+     *
+     * @param candidate      the candidate to reload
+     * @param changedClasses redefined classes
+     */
+    private void defineBean(BeanDefinition candidate, Set<Class<?>> changedClasses) {
         synchronized (getClass()) { // TODO sychronize on DefaultListableFactory.beanDefinitionMap?
 
             ScopeMetadata scopeMetadata = this.scopeMetadataResolver.resolveScopeMetadata(candidate);
@@ -181,7 +216,12 @@ public class ClassPathBeanDefinitionScannerAgent {
                 processCommonDefinitionAnnotations((AnnotatedBeanDefinition) candidate);
             }
 
-            removeIfExists(beanName);
+            // collect before removal, removing the definition destroys dependent singletons and their dependency records
+            DefaultListableBeanFactory bf = maybeRegistryToBeanFactory();
+            Set<String> changedBeanNames = bf != null ? getDependentBeansTransitive(bf, beanName) : null;
+            Set<String> changedClassNames = bf != null ? getBeanClassNames(bf, changedBeanNames) : null;
+
+            removeIfExists(beanName, changedBeanNames, changedClasses);
             if (checkCandidate(beanName, candidate)) {
 
                 BeanDefinitionHolder definitionHolder = new BeanDefinitionHolder(candidate, beanName);
@@ -191,11 +231,16 @@ public class ClassPathBeanDefinitionScannerAgent {
                 LOGGER.debug("Bean definition '{}'", beanName, candidate);
                 registerBeanDefinition(definitionHolder, registry);
 
-                DefaultListableBeanFactory bf = maybeRegistryToBeanFactory();
-                if (bf != null)
+                if (bf != null) {
                     ResetRequestMappingCaches.reset(bf);
 
-                ProxyReplacer.clearAllProxies();
+                    if (candidate.getBeanClassName() != null) {
+                        changedClassNames.add(candidate.getBeanClassName());
+                    }
+                    ProxyReplacer.clearProxies(changedBeanNames, changedClassNames);
+                } else {
+                    ProxyReplacer.clearAllProxies();
+                }
                 freezeConfiguration();
             }
         }
@@ -204,11 +249,13 @@ public class ClassPathBeanDefinitionScannerAgent {
     }
 
     /**
-     * If registry contains the bean, remove it first (destroying existing singletons).
+     * If registry contains the bean, remove it first (destroying existing singletons together with dependent beans).
      *
-     * @param beanName name of the bean
+     * @param beanName         name of the bean
+     * @param changedBeanNames name of the bean and names of dependent beans, null if registry is not a bean factory
+     * @param changedClasses   redefined classes
      */
-    private void removeIfExists(String beanName) {
+    private void removeIfExists(String beanName, Set<String> changedBeanNames, Set<Class<?>> changedClasses) {
         if (registry.containsBeanDefinition(beanName)) {
             LOGGER.debug("Removing bean definition '{}'", beanName);
             DefaultListableBeanFactory bf = maybeRegistryToBeanFactory();
@@ -217,13 +264,50 @@ public class ClassPathBeanDefinitionScannerAgent {
             }
             registry.removeBeanDefinition(beanName);
 
-            ResetSpringStaticCaches.reset();
+            ResetSpringStaticCaches.reset(changedClasses);
             if (bf != null) {
-                ResetBeanPostProcessorCaches.reset(bf);
+                ResetBeanPostProcessorCaches.reset(bf, changedBeanNames, changedClasses);
             }
         }
     }
 
+    /**
+     * Bean name together with names of all beans depending on it, directly or transitively.
+     *
+     * @param bf       the bean factory
+     * @param beanName name of the changed bean
+     * @return set of bean names, including beanName
+     */
+    private static Set<String> getDependentBeansTransitive(DefaultListableBeanFactory bf, String beanName) {
+        Set<String> result = new LinkedHashSet<>();
+        Deque<String> toVisit = new ArrayDeque<>();
+        toVisit.add(beanName);
+        while (!toVisit.isEmpty()) {
+            String name = toVisit.poll();
+            if (result.add(name)) {
+                for (String dependent : bf.getDependentBeans(name)) {
+                    if (!result.contains(dependent)) {
+                        toVisit.add(dependent);
+                    }
+                }
+            }
+        }
+        return result;
+    }
+
+    private static Set<String> getBeanClassNames(DefaultListableBeanFactory bf, Set<String> beanNames) {
+        Set<String> result = new HashSet<>();
+        for (String beanName : beanNames) {
+            if (bf.containsBeanDefinition(beanName)) {
+                String beanClassName = bf.getBeanDefinition(beanName).getBeanClassName();
+                if (beanClassName != null) {
+                    result.add(beanClassName);
+                }
+            }
+        }
+        return result;
+    }
+
     private DefaultListableBeanFactory maybeRegistryToBeanFactory() {
         if (registry instanceof DefaultListableBeanFactory) {
             return (DefaultListableBeanFactory) registry;
@@ -254,7 +338,10 @@ public class ClassPathBeanDefinitionScannerAgent {
         Resource resource = new ByteArrayResource(bytes);
         resetCachingMetadataReaderFactoryCache();
         MetadataReader metadataReader = getMetadataReader(appClassLoader, resource);
+        return resolveBeanDefinition(resource, metadataReader);
+    }
 
+    private BeanDefinition resolveBeanDefinition(Resource resource, MetadataReader metadataReader) {
         if (isCandidateComponent(metadataReader)) {
             ScannedGenericBeanDefinition sbd = new ScannedGenericBeanDefinition(metadataReader);
             sbd.setResource(resource);
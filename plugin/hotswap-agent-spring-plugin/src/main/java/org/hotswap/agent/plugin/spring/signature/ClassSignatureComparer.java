@@ -19,6 +19,7 @@
 package org.hotswap.agent.plugin.spring.signature;
 
 import org.hotswap.agent.javassist.ClassPool;
+import org.hotswap.agent.util.signature.ClassSignatureDigest;
 import org.hotswap.agent.util.signature.ClassSignatureElement;
 import org.hotswap.agent.util.signature.ClassSignatureComparerHelper;
 
@@ -48,4 +49,8 @@ public class ClassSignatureComparer {
     public static boolean isPoolClassDifferent(Class<?> classBeingRedefined, ClassPool cp) {
         return ClassSignatureComparerHelper.isPoolClassDifferent(classBeingRedefined, cp, SIGNATURE_ELEMENTS);
     }
+
+    public static ClassSignatureDigest getSignatureDigest(byte[] classfileBuffer) throws Exception {
+        return ClassSignatureComparerHelper.getClassFileSignatureDigest(classfileBuffer, SIGNATURE_ELEMENTS);
+    }
 }
@@ -0,0 +1,60 @@
+/*
+ * Copyright 2013-2023 the HotswapAgent authors.
+ *
+ * This file is part of HotswapAgent.
+ *
+ * HotswapAgent is free software: you can redistribute it and/or modify it
+ * under the terms of the GNU General Public License as published by the
+ * Free Software Foundation, either version 2 of the License, or (at your
+ * option) any later version.
+ *
+ * HotswapAgent is distributed in the hope that it will be useful, but
+ * WITHOUT ANY WARRANTY; without even the implied warranty of
+ * MERCHANTABILITY or FITNESS FOR A PARTICULAR PURPOSE. See the GNU General
+ * Public License for more details.
+ *
+ * You should have received a copy of the GNU General Public License along
+ * with HotswapAgent. If not, see http://www.gnu.org/licenses/.
+ */
+package org.hotswap.agent.plugin.spring;
+
+import static org.junit.Assert.assertFalse;
+import static org.junit.Assert.assertTrue;
+
+import org.hotswap.agent.javassist.ClassPool;
+import org.hotswap.agent.javassist.CtClass;
+import org.hotswap.agent.javassist.LoaderClassPath;
+import org.hotswap.agent.plugin.spring.testBeans.Pojo;
+import org.hotswap.agent.plugin.spring.testBeansHotswap.Pojo2;
+import org.junit.Test;
+
+public class SpringChangesAnalyzerTest {
+
+    @Test
+    public void testSignatureDigest() throws Exception {
+        SpringChangesAnalyzer analyzer = new SpringChangesAnalyzer(getClass().getClassLoader());
+
+        // first redefinition compares with the loaded class
+        assertFalse(analyzer.isReloadNeeded(Pojo.class, getBytes(Pojo.class, null)));
+
+        // then with the digest of the previous redefinition
+        assertTrue("Method added", analyzer.isReloadNeeded(Pojo.class, getBytes(Pojo2.class, null)));
+        assertFalse("Method body changed",
+                analyzer.isReloadNeeded(Pojo.class, getBytes(Pojo2.class, "System.out.println();")));
+        assertFalse("Unchanged", analyzer.isReloadNeeded(Pojo.class, getBytes(Pojo2.class, null)));
+        assertTrue("Method removed", analyzer.isReloadNeeded(Pojo.class, getBytes(Pojo.class, null)));
+    }
+
+    // bytes of the class renamed to Pojo, optionally with a statement inserted into method test()
+    private byte[] getBytes(Class<?> clazz, String insertBefore) throws Exception {
+        ClassPool classPool = new ClassPool();
+        classPool.appendSystemPath();
+        classPool.appendClassPath(new LoaderClassPath(getClass().getClassLoader()));
+        CtClass ctClass = classPool.get(clazz.getName());
+        if (insertBefore != null) {
+            ctClass.getDeclaredMethod("test").insertBefore(insertBefore);
+        }
+        ctClass.replaceClassName(clazz.getName(), Pojo.class.getName());
+        return ctClass.toBytecode();
+    }
+}
@@ -0,0 +1,64 @@
+/*
+ * Copyright 2013-2023 the HotswapAgent authors.
+ *
+ * This file is part of HotswapAgent.
+ *
+ * HotswapAgent is free software: you can redistribute it and/or modify it
+ * under the terms of the GNU General Public License as published by the
+ * Free Software Foundation, either version 2 of the License, or (at your
+ * option) any later version.
+ *
+ * HotswapAgent is distributed in the hope that it will be useful, but
+ * WITHOUT ANY WARRANTY; without even the implied warranty of
+ * MERCHANTABILITY or FITNESS FOR A PARTICULAR PURPOSE. See the GNU General
+ * Public License for more details.
+ *
+ * You should have received a copy of the GNU General Public License along
+ * with HotswapAgent. If not, see http://www.gnu.org/licenses/.
+ */
+package org.hotswap.agent.plugin.spring.scanner;
+
+import static org.junit.Assert.assertNotSame;
+import static org.junit.Assert.assertSame;
+
+import org.hotswap.agent.plugin.spring.reloadBeans.ChangedBean;
+import org.hotswap.agent.plugin.spring.reloadBeans.DependentBean;
+import org.hotswap.agent.plugin.spring.reloadBeans.TransitiveDependentBean;
+import org.hotswap.agent.plugin.spring.reloadBeans.UnrelatedBean;
+import org.hotswap.agent.util.IOUtils;
+import org.junit.Test;
+import org.springframework.context.annotation.ClassPathBeanDefinitionScanner;
+import org.springframework.context.support.GenericApplicationContext;
+
+public class ClassPathBeanDefinitionScannerAgentTest {
+
+    /**
+     * Only the changed bean and beans depending on it are recreated, other singletons keep their identity.
+     */
+    @Test
+    public void testDefineBeanRefreshesDependents() throws Exception {
+        GenericApplicationContext context = new GenericApplicationContext();
+        ClassPathBeanDefinitionScanner scanner = new ClassPathBeanDefinitionScanner(context);
+        scanner.scan(ChangedBean.class.getPackage().getName());
+        context.refresh();
+        try {
+            ChangedBean changed = context.getBean(ChangedBean.class);
+            DependentBean dependent = context.getBean(DependentBean.class);
+            TransitiveDependentBean transitiveDependent = context.getBean(TransitiveDependentBean.class);
+            UnrelatedBean unrelated = context.getBean(UnrelatedBean.class);
+
+            ClassPathBeanDefinitionScannerAgent agent = ClassPathBeanDefinitionScannerAgent.getInstance(scanner);
+            byte[] bytes = IOUtils.toByteArray(ChangedBean.class.getResource("ChangedBean.class").toURI());
+            agent.defineBean(agent.resolveBeanDefinition(getClass().getClassLoader(), bytes));
+
+            assertNotSame(changed, context.getBean(ChangedBean.class));
+            DependentBean newDependent = context.getBean(DependentBean.class);
+            assertNotSame(dependent, newDependent);
+            assertSame(context.getBean(ChangedBean.class), newDependent.getChangedBean());
+            assertNotSame(transitiveDependent, context.getBean(TransitiveDependentBean.class));
+            assertSame(unrelated, context.getBean(UnrelatedBean.class));
+        } finally {
+            context.close();
+        }
+    }
+}
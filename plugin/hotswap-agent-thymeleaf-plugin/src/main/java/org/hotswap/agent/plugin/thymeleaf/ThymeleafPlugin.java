@@ -18,32 +18,75 @@
  */
 package org.hotswap.agent.plugin.thymeleaf;
 
+import java.io.File;
+import java.net.URISyntaxException;
+import java.net.URL;
+
+import org.hotswap.agent.annotation.Init;
 import org.hotswap.agent.annotation.OnClassLoadEvent;
+import org.hotswap.agent.annotation.OnResourceFileEvent;
 import org.hotswap.agent.annotation.Plugin;
 import org.hotswap.agent.javassist.CannotCompileException;
 import org.hotswap.agent.javassist.ClassPool;
 import org.hotswap.agent.javassist.CtClass;
+import org.hotswap.agent.javassist.CtConstructor;
+import org.hotswap.agent.javassist.CtField;
 import org.hotswap.agent.javassist.CtMethod;
 import org.hotswap.agent.javassist.NotFoundException;
 import org.hotswap.agent.logging.AgentLogger;
+import org.hotswap.agent.util.PluginManagerInvoker;
+import org.hotswap.agent.util.ReflectionHelper;
 
 @Plugin(name = "Thymeleaf",
-        description = "Clear cache from TemplateManager when template is modified.",
+        description = "Evict templates from TemplateManager cache when template is modified.",
         testedVersions = {"3.0.15"},
         expectedVersions = {"3.0.15"}
 )
 public class ThymeleafPlugin {
     private static final AgentLogger LOGGER = AgentLogger.getLogger(ThymeleafPlugin.class);
 
+    private static final String GENERATION_FIELD = "$$ha$templateGeneration";
+
+    private static final String CLEAR_ON_RENDER_FIELD = "$$ha$clearOnRender";
+
+    @Init
+    ClassLoader appClassLoader;
+
     @OnClassLoadEvent(classNameRegexp = "org.thymeleaf.engine.TemplateManager")
     public static void patchParseAndProcess(ClassPool classPool, final CtClass ctClass) {
         try {
+            ctClass.addField(CtField.make("private volatile int " + GENERATION_FIELD + ";", ctClass));
+            ctClass.addField(CtField.make("private Boolean " + CLEAR_ON_RENDER_FIELD + ";", ctClass));
+            for (CtConstructor constructor : ctClass.getDeclaredConstructors()) {
+                constructor.insertAfter(PluginManagerInvoker.buildInitializePlugin(ThymeleafPlugin.class));
+            }
             CtMethod method = ctClass.getDeclaredMethod("parseAndProcess", new CtClass[]{
                     classPool.get("org.thymeleaf.TemplateSpec"), classPool.get("org.thymeleaf.context.IContext"),
                     classPool.get("java.io.Writer")});
-            method.insertBefore("clearCachesFor($1.getTemplate());");
+            String changes = ThymeleafTemplateChanges.class.getName();
+            method.insertBefore(
+                    "if (" + CLEAR_ON_RENDER_FIELD + " == null) {" +
+                        CLEAR_ON_RENDER_FIELD + " = Boolean.valueOf(" + changes + ".isClearOnRender(this));" +
+                    "}" +
+                    "if (" + CLEAR_ON_RENDER_FIELD + ".booleanValue()) {" +
+                        "clearCachesFor($1.getTemplate());" +
+                    "} else if (" + GENERATION_FIELD + " != " + changes + ".generation) {" +
+                        GENERATION_FIELD + " = " + changes + ".evictChanged(this, " + GENERATION_FIELD + ");" +
+                    "}");
         } catch (NotFoundException | CannotCompileException e) {
             LOGGER.debug("Cannot patch parseAndProcess method for {}", ctClass.getName(), e);
         }
     }
-}
\ No newline at end of file
+
+    @OnResourceFileEvent(path = "/", filter = ".*\\.(html|htm|xhtml|xml|txt|js|css)")
+    public void templateChanged(URL url) {
+        try {
+            // decoded path, template names are matched against it
+            String path = new File(url.toURI()).getPath();
+            Class<?> changesClass = appClassLoader.loadClass(ThymeleafTemplateChanges.class.getName());
+            ReflectionHelper.invoke(null, changesClass, "templateChanged", new Class[] {String.class}, path);
+        } catch (ClassNotFoundException | URISyntaxException e) {
+            LOGGER.error("Unable to register template change {}.", e, url);
+        }
+    }
+}
@@ -0,0 +1,183 @@
+/*
+ * Copyright 2013-2023 the HotswapAgent authors.
+ *
+ * This file is part of HotswapAgent.
+ *
+ * HotswapAgent is free software: you can redistribute it and/or modify it
+ * under the terms of the GNU General Public License as published by the
+ * Free Software Foundation, either version 2 of the License, or (at your
+ * option) any later version.
+ *
+ * HotswapAgent is distributed in the hope that it will be useful, but
+ * WITHOUT ANY WARRANTY; without even the implied warranty of
+ * MERCHANTABILITY or FITNESS FOR A PARTICULAR PURPOSE. See the GNU General
+ * Public License for more details.
+ *
+ * You should have received a copy of the GNU General Public License along
+ * with HotswapAgent. If not, see http://www.gnu.org/licenses/.
+ */
+package org.hotswap.agent.plugin.thymeleaf;
+
+import java.util.ArrayList;
+import java.util.Collection;
+import java.util.List;
+import java.util.Map;
+import java.util.Set;
+import java.util.concurrent.ConcurrentHashMap;
+
+import org.hotswap.agent.logging.AgentLogger;
+import org.hotswap.agent.util.ReflectionHelper;
+
+/**
+ * Changed template resources with a change generation. Loaded in the application classloader, the patched
+ * TemplateManager keeps the last seen generation and evicts cached templates only when the generation
+ * changes - i.e. a single volatile read per render if no template was modified.
+ * <p/>
+ * Only classpath resources are watched. If any template resolver of the TemplateManager resolves templates
+ * elsewhere (file system, servlet context, URL), the rendered template is evicted on each render instead.
+ */
+public class ThymeleafTemplateChanges {
+    private static final AgentLogger LOGGER = AgentLogger.getLogger(ThymeleafTemplateChanges.class);
+
+    /**
+     * Current change generation, incremented on each template resource change.
+     */
+    public static volatile int generation = 0;
+
+    // changed resource path -> generation of the last change
+    private static final Map<String, Integer> changedResources = new ConcurrentHashMap<>();
+
+    private static final String CLASSPATH_PREFIX = "classpath:";
+
+    /**
+     * Record template resource change (called by the plugin from watcher event).
+     *
+     * @param resourcePath path of the changed resource
+     */
+    public static synchronized void templateChanged(String resourcePath) {
+        int newGeneration = generation + 1;
+        changedResources.put(normalize(resourcePath), newGeneration);
+        generation = newGeneration;
+        LOGGER.trace("Template resource '{}' changed, generation {}", resourcePath, newGeneration);
+    }
+
+    /**
+     * Evict cached templates of the template manager changed after the seen generation. Called from the patched
+     * TemplateManager.parseAndProcess() only if the generation differs.
+     *
+     * @param templateManager the template manager
+     * @param seenGeneration  generation of the last eviction in the template manager
+     * @return current generation
+     */
+    public static int evictChanged(Object templateManager, int seenGeneration) {
+        int currentGeneration = generation;
+        List<String> changed = new ArrayList<>();
+        for (Map.Entry<String, Integer> entry : changedResources.entrySet()) {
+            int changeGeneration = entry.getValue();
+            if (changeGeneration > seenGeneration && changeGeneration <= currentGeneration) {
+                changed.add(entry.getKey());
+            }
+        }
+        if (!changed.isEmpty()) {
+            evict(templateManager, changed);
+        }
+        return currentGeneration;
+    }
+
+    /**
+     * Check template resolvers of the template manager. Called once from the patched TemplateManager.
+     *
+     * @param templateManager the template manager
+     * @return true if the rendered template should be evicted on each render - some resolver is not classpath based
+     */
+    public static boolean isClearOnRender(Object templateManager) {
+        try {
+            Object configuration = ReflectionHelper.get(templateManager, "configuration");
+            Set<?> resolvers = (Set<?>) ReflectionHelper.invoke(configuration, configuration.getClass(),
+                    "getTemplateResolvers", new Class[] {});
+            for (Object resolver : resolvers) {
+                if (!isClasspathResolver(resolver)) {
+                    LOGGER.debug("Template resolver {} is not classpath based, templates are evicted on each render.", resolver);
+                    return true;
+                }
+            }
+            return false;
+        } catch (Exception e) {
+            LOGGER.debug("Unable to check template resolvers, templates are evicted on each render.", e);
+            return true;
+        }
+    }
+
+    // ClassLoaderTemplateResolver or a resolver of "classpath:" resources (e.g. SpringResourceTemplateResolver)
+    private static boolean isClasspathResolver(Object resolver) {
+        if (resolver.getClass().getName().equals("org.thymeleaf.templateresolver.ClassLoaderTemplateResolver")) {
+            return true;
+        }
+        try {
+            Object prefix = ReflectionHelper.invoke(resolver, resolver.getClass(), "getPrefix", new Class[] {});
+            return prefix instanceof String && ((String) prefix).startsWith(CLASSPATH_PREFIX);
+        } catch (Exception e) {
+            return false;
+        }
+    }
+
+    private static void evict(Object templateManager, Collection<String> changed) {
+        try {
+            Object templateCache = ReflectionHelper.get(templateManager, "templateCache");
+            if (templateCache == null) {
+                return;
+            }
+            Set<?> keys = (Set<?>) ReflectionHelper.invoke(templateCache, templateCache.getClass(), "keySet", new Class[] {});
+            List<Object> keysToBeRemoved = new ArrayList<>();
+            for (Object key : keys) {
+                String template = (String) ReflectionHelper.invoke(key, key.getClass(), "getTemplate", new Class[] {});
+                String ownerTemplate = (String) ReflectionHelper.invoke(key, key.getClass(), "getOwnerTemplate", new Class[] {});
+                if (isChanged(template, changed) || isChanged(ownerTemplate, changed)) {
+                    keysToBeRemoved.add(key);
+                }
+            }
+            for (Object key : keysToBeRemoved) {
+                ReflectionHelper.invoke(templateCache, templateCache.getClass(), "clearKey", new Class[] {Object.class}, key);
+            }
+            LOGGER.debug("Thymeleaf template cache - {} entries of changed templates {} evicted.", keysToBeRemoved.size(), changed);
+        } catch (Exception e) {
+            LOGGER.debug("Unable to evict changed templates, clearing whole template cache.", e);
+            ReflectionHelper.invoke(templateManager, templateManager.getClass(), "clearCaches", new Class[] {});
+        }
+    }
+
+    /**
+     * Template name is resolved to the resource by the template resolver (prefix, suffix), compare
+     * the name with the end of the changed resource path with or without the extension.
+     */
+    static boolean isChanged(String template, Collection<String> changed) {
+        if (template == null) {
+            return false;
+        }
+        String name = normalize(template);
+        int schemeEnd = name.indexOf(':');
+        if (schemeEnd >= 0) {
+            name = name.substring(schemeEnd + 1);
+        }
+        while (name.startsWith("/")) {
+            name = name.substring(1);
+        }
+        if (name.isEmpty()) {
+            return false;
+        }
+        for (String path : changed) {
+            if (path.endsWith("/" + name)) {
+                return true;
+            }
+            int extensionStart = path.lastIndexOf('.');
+            if (extensionStart > path.lastIndexOf('/') && path.substring(0, extensionStart).endsWith("/" + name)) {
+                return true;
+            }
+        }
+        return false;
+    }
+
+    private static String normalize(String path) {
+        return path.replace('\\', '/');
+    }
+}
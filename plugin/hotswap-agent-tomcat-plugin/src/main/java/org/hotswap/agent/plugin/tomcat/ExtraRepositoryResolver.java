@@ -0,0 +1,199 @@
+/*
+ * Copyright 2013-2023 the HotswapAgent authors.
+ *
+ * This file is part of HotswapAgent.
+ *
+ * HotswapAgent is free software: you can redistribute it and/or modify it
+ * under the terms of the GNU General Public License as published by the
+ * Free Software Foundation, either version 2 of the License, or (at your
+ * option) any later version.
+ *
+ * HotswapAgent is distributed in the hope that it will be useful, but
+ * WITHOUT ANY WARRANTY; without even the implied warranty of
+ * MERCHANTABILITY or FITNESS FOR A PARTICULAR PURPOSE. See the GNU General
+ * Public License for more details.
+ *
+ * You should have received a copy of the GNU General Public License along
+ * with HotswapAgent. If not, see http://www.gnu.org/licenses/.
+ */
+package org.hotswap.agent.plugin.tomcat;
+
+import java.io.File;
+import java.net.URISyntaxException;
+import java.net.URL;
+import java.util.ArrayList;
+import java.util.Collection;
+import java.util.Collections;
+import java.util.Comparator;
+import java.util.List;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.concurrent.ConcurrentMap;
+
+import org.hotswap.agent.logging.AgentLogger;
+import org.hotswap.agent.watch.WatchEventListener;
+import org.hotswap.agent.watch.WatchFileEvent;
+
+/**
+ * Resolves resources of a webapp from extra repositories (extraClasspath, watchResources, webappDir).
+ * <p>
+ * Repositories are indexed by resource name prefix, the longest matching prefix wins. Lookup results, including
+ * misses, are cached per resource name. The cache is invalidated by the watcher on any change in a repository
+ * directory, see {@link #getInvalidationListener()}.
+ */
+class ExtraRepositoryResolver {
+    private static AgentLogger LOGGER = AgentLogger.getLogger(ExtraRepositoryResolver.class);
+
+    // upper bound of cached lookups, the cache is cleared when exceeded
+    private static final int MAX_CACHED_LOOKUPS = 10000;
+
+    private static final Resolved NOT_FOUND = new Resolved(null);
+
+    // repositories sorted by prefix length, longest first
+    private volatile List<Repository> repositories = Collections.emptyList();
+
+    private final ConcurrentMap<String, Resolved> lookupCache = new ConcurrentHashMap<>();
+
+    // incremented on each invalidation, lookup results computed concurrently with an invalidation are not cached
+    private volatile int changeCount;
+
+    private final WatchEventListener invalidationListener = new WatchEventListener() {
+        @Override
+        public void onEvent(WatchFileEvent event) {
+            invalidate();
+        }
+    };
+
+    /**
+     * Register repository classloader for resource name prefix.
+     *
+     * @param prefix      resource name prefix (e.g. /WEB-INF/classes/)
+     * @param classLoader classloader serving the resources
+     */
+    synchronized void put(String prefix, ClassLoader classLoader) {
+        List<Repository> newRepositories = new ArrayList<>();
+        for (Repository repository : repositories) {
+            if (!repository.prefix.equals(prefix)) {
+                newRepositories.add(repository);
+            }
+        }
+        newRepositories.add(new Repository(prefix, classLoader));
+        Collections.sort(newRepositories, new Comparator<Repository>() {
+            @Override
+            public int compare(Repository r1, Repository r2) {
+                return r2.prefix.length() - r1.prefix.length();
+            }
+        });
+        repositories = newRepositories;
+        invalidate();
+    }
+
+    /**
+     * @return classloaders of all repositories
+     */
+    Collection<ClassLoader> getClassLoaders() {
+        List<ClassLoader> result = new ArrayList<>();
+        for (Repository repository : repositories) {
+            result.add(repository.classLoader);
+        }
+        return result;
+    }
+
+    /**
+     * Listener to register in watcher for each repository directory. Registered after the repository classloader
+     * listeners, it is notified after the classloader has updated its state.
+     */
+    WatchEventListener getInvalidationListener() {
+        return invalidationListener;
+    }
+
+    void invalidate() {
+        changeCount++;
+        lookupCache.clear();
+    }
+
+    /**
+     * Find resource in the repository with longest prefix matching the name.
+     *
+     * @param name resource name as requested by Tomcat (e.g. /WEB-INF/classes/x.properties)
+     * @return resource URL or null
+     */
+    URL getResource(String name) {
+        return resolve(name).url;
+    }
+
+    /**
+     * Find resource file in the repository with longest prefix matching the name.
+     *
+     * @param name resource name as requested by Tomcat
+     * @return resource file or null if not found or not a file resource
+     */
+    File getResourceFile(String name) {
+        return resolve(name).getFile();
+    }
+
+    private Resolved resolve(String name) {
+        Resolved resolved = lookupCache.get(name);
+        if (resolved == null) {
+            int count = changeCount;
+            URL url = findResource(name);
+            resolved = url != null ? new Resolved(url) : NOT_FOUND;
+            if (lookupCache.size() >= MAX_CACHED_LOOKUPS) {
+                lookupCache.clear();
+            }
+            lookupCache.put(name, resolved);
+            if (count != changeCount) {
+                lookupCache.remove(name);
+            }
+        }
+        return resolved;
+    }
+
+    private URL findResource(String name) {
+        for (Repository repository : repositories) {
+            if (name.startsWith(repository.prefix)) {
+                String resourceName = name.substring(repository.prefix.length());
+                // since 7.0.65, the resource name is always starting with "/", trim it otherwise
+                // WatchResourcesClassLoader doesn't work
+                if (resourceName.startsWith("/")) {
+                    resourceName = resourceName.substring(1);
+                }
+                // return from associated classloader
+                return repository.classLoader.getResource(resourceName);
+            }
+        }
+        return null;
+    }
+
+    private static class Repository {
+        final String prefix;
+        final ClassLoader classLoader;
+
+        Repository(String prefix, ClassLoader classLoader) {
+            this.prefix = prefix;
+            this.classLoader = classLoader;
+        }
+    }
+
+    /**
+     * Cached lookup result, the file is created on first access.
+     */
+    private static class Resolved {
+        final URL url;
+        private volatile File file;
+
+        Resolved(URL url) {
+            this.url = url;
+        }
+
+        File getFile() {
+            if (file == null && url != null && "file".equals(url.getProtocol())) {
+                try {
+                    file = new File(url.toURI());
+                } catch (URISyntaxException | IllegalArgumentException e) {
+                    LOGGER.error("Unable to open file at URL {}", e, url);
+                }
+            }
+            return file;
+        }
+    }
+}
@@ -31,10 +31,10 @@ import java.io.IOException;
 import java.io.InputStream;
 import java.net.URISyntaxException;
 import java.net.URL;
-import java.util.HashMap;
 import java.util.HashSet;
 import java.util.Map;
 import java.util.Set;
+import java.util.concurrent.ConcurrentHashMap;
 
 /**
  * Catalina servlet container support.
@@ -77,10 +77,10 @@ public class TomcatPlugin {
     int tomcatMajorVersion = 8;
 
     // tomcat associated resource object to a web application classloader
-    static Map<Object, ClassLoader> registeredResourcesMap = new HashMap<>();
+    static Map<Object, ClassLoader> registeredResourcesMap = new ConcurrentHashMap<>();
 
-    // for each app classloader map of tomcat repository name to associated watch resource classloader
-    private static Map<ClassLoader, Map<String, ClassLoader>> extraRepositories = new HashMap<>();
+    // for each app classloader resolver of tomcat repository name to associated watch resource classloader
+    private static Map<ClassLoader, ExtraRepositoryResolver> extraRepositories = new ConcurrentHashMap<>();
 
     /**
      * Init the plugin during WebappLoader.start lifecycle. This method is invoked before the plugin is initialized.
@@ -108,6 +108,8 @@ public class TomcatPlugin {
 
             WatchResourcesClassLoader watchResourcesClassLoader = new WatchResourcesClassLoader(false);
 
+            ExtraRepositoryResolver resolver = getExtraRepositories(appClassLoader);
+
             URL[] extraClasspath = pluginConfiguration.getExtraClasspath();
             if (extraClasspath.length > 0) {
                 if (majorVersion > 7) {
@@ -127,7 +129,9 @@ public class TomcatPlugin {
             }
 
             // register special repo
-            getExtraRepositories(appClassLoader).put(WEB_INF_CLASSES, watchResourcesClassLoader);
+            resolver.put(WEB_INF_CLASSES, watchResourcesClassLoader);
+            watchForInvalidation(resolver, watchResourcesClassLoader, extraClasspath);
+            watchForInvalidation(resolver, watchResourcesClassLoader, watchResources);
 
             URL[] webappDir = pluginConfiguration.getWebappDir();
             if (webappDir.length > 0) {
@@ -137,7 +141,8 @@ public class TomcatPlugin {
                 WatchResourcesClassLoader webappDirClassLoader = new WatchResourcesClassLoader(false);
                 webappDirClassLoader.initExtraPath(webappDir);
 
-                getExtraRepositories(appClassLoader).put("/", webappDirClassLoader);
+                resolver.put("/", webappDirClassLoader);
+                watchForInvalidation(resolver, webappDirClassLoader, webappDir);
             }
         }
     }
@@ -158,14 +163,31 @@ public class TomcatPlugin {
     }
 
     public static void close(ClassLoader classLoader) {
-        Map<String, ClassLoader> registerMap = extraRepositories.remove(classLoader);
-        if (registerMap != null) {
-            for (ClassLoader loader : registerMap.values()) {
+        ExtraRepositoryResolver resolver = extraRepositories.remove(classLoader);
+        if (resolver != null) {
+            for (ClassLoader loader : resolver.getClassLoaders()) {
                 PluginManager.getInstance().getWatcher().closeClassLoader(loader);
             }
         }
     }
 
+    /**
+     * Invalidate resolver lookup cache on any change in repository directories. The listener is registered
+     * under the repository classloader to be closed with it.
+     */
+    private static void watchForInvalidation(ExtraRepositoryResolver resolver, ClassLoader repositoryClassLoader, URL[] urls) {
+        for (URL url : urls) {
+            try {
+                if ("file".equals(url.getProtocol()) && new File(url.toURI()).isDirectory()) {
+                    PluginManager.getInstance().getWatcher().addEventListener(repositoryClassLoader, url,
+                            resolver.getInvalidationListener());
+                }
+            } catch (URISyntaxException | IllegalArgumentException e) {
+                LOGGER.debug("Unable to watch repository '{}' for changes, resources are not cached.", url);
+            }
+        }
+    }
+
     private static void addRepositoriesAtStart(ClassLoader appClassLoader, URL[] newRepositories, boolean watchResources) {
 
         String[] currentRepositories = (String[]) ReflectionHelper.get(appClassLoader, "repositories");
@@ -193,7 +215,9 @@ public class TomcatPlugin {
                     watchResourcesClassLoader.initExtraPath(new URL[]{newRepositories[i]});
                 }
 
-                getExtraRepositories(appClassLoader).put(repositories[i], watchResourcesClassLoader);
+                ExtraRepositoryResolver resolver = getExtraRepositories(appClassLoader);
+                resolver.put(repositories[i], watchResourcesClassLoader);
+                watchForInvalidation(resolver, watchResourcesClassLoader, new URL[]{newRepositories[i]});
                 result2[i] = new File(newRepositories[i].toURI());
             } catch (URISyntaxException e) {
                 e.printStackTrace();
@@ -205,13 +229,22 @@ public class TomcatPlugin {
         ReflectionHelper.set(appClassLoader, "files", result2);
     }
 
-    private static Map<String, ClassLoader> getExtraRepositories(ClassLoader appClassLoader) {
-        if (!extraRepositories.containsKey(appClassLoader)) {
-            extraRepositories.put(appClassLoader, new HashMap<String, ClassLoader>());
+    private static ExtraRepositoryResolver getExtraRepositories(ClassLoader appClassLoader) {
+        ExtraRepositoryResolver resolver = extraRepositories.get(appClassLoader);
+        if (resolver == null) {
+            resolver = new ExtraRepositoryResolver();
+            ExtraRepositoryResolver existing = extraRepositories.putIfAbsent(appClassLoader, resolver);
+            if (existing != null) {
+                resolver = existing;
+            }
         }
-        return extraRepositories.get(appClassLoader);
+        return resolver;
     }
 
+    private static ExtraRepositoryResolver getResolver(Object resource) {
+        ClassLoader appClassLoader = registeredResourcesMap.get(resource);
+        return appClassLoader != null ? extraRepositories.get(appClassLoader) : null;
+    }
 
     public static InputStream getExtraResource(Object resource, String name) {
         URL url = getExtraResource0(resource, name);
@@ -227,43 +260,16 @@ public class TomcatPlugin {
     }
 
     public static File getExtraResourceFile(Object resource, String name) {
-        ClassLoader appClassLoader = registeredResourcesMap.get(resource);
-        if (appClassLoader == null)
-            return null;
-
-        Map<String, ClassLoader> classLoaderExtraRepositories = getExtraRepositories(appClassLoader);
-        if (name.startsWith(WEB_INF_CLASSES) && classLoaderExtraRepositories.containsKey(WEB_INF_CLASSES)) {
-            // strip of leading /WEB-INF/classes/ and search for the resources
-            String resourceName = name.substring(WEB_INF_CLASSES.length());
-            URL url = classLoaderExtraRepositories.get(WEB_INF_CLASSES).getResource(resourceName);
-            if (url != null) {
-                try {
-                    return new File(url.toURI());
-                } catch (Exception e) {
-                    LOGGER.error("Unable to open stream from URL {}", e, url);
-                }
-            }
-        } else if (classLoaderExtraRepositories.containsKey("/")) {
-            URL url = classLoaderExtraRepositories.get("/").getResource(name.substring(1)); // strip off leading "/"
-            if (url != null) {
-                try {
-                    return new File(url.toURI());
-                } catch (Exception e) {
-                    LOGGER.error("Unable to open stream from URL {}", e, url);
-                }
-            }
-        }
-
-        return null;
+        ExtraRepositoryResolver resolver = getResolver(resource);
+        return resolver != null ? resolver.getResourceFile(name) : null;
     }
 
     public static long getExtraResourceLength(Object resource, String name) {
-        URL url = getExtraResource0(resource, name);
-        if (url != null) {
-            try {
-                return new File(url.toURI()).length();
-            } catch (Exception e) {
-                LOGGER.error("Unable to open file at URL {}", e, url);
+        ExtraRepositoryResolver resolver = getResolver(resource);
+        if (resolver != null) {
+            File file = resolver.getResourceFile(name);
+            if (file != null) {
+                return file.length();
             }
         }
 
@@ -271,24 +277,8 @@ public class TomcatPlugin {
     }
 
     private static URL getExtraResource0(Object resource, String name) {
-        ClassLoader appClassLoader = registeredResourcesMap.get(resource);
-        if (appClassLoader == null)
-            return null;
-
-        for (Map.Entry<String, ClassLoader> repo : getExtraRepositories(appClassLoader).entrySet()) {
-            if (name.startsWith(repo.getKey())) {
-                String resourceName = name.substring(repo.getKey().length());
-                // since 7.0.65, the resource name is always starting with "/", trim it otherwise
-                // WatchResourcesClassLoader doesn't work
-                if (resourceName.startsWith("/")) {
-                    resourceName = resourceName.substring(1);
-                }
-                // return from associated classloader
-                return repo.getValue().getResource(resourceName);
-            }
-        }
-
-        return null;
+        ExtraRepositoryResolver resolver = getResolver(resource);
+        return resolver != null ? resolver.getResource(name) : null;
     }
 
 
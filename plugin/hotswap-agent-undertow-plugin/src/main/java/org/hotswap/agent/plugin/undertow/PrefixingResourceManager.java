@@ -21,7 +21,10 @@ package org.hotswap.agent.plugin.undertow;
 import java.io.File;
 import java.io.IOException;
 import java.util.ArrayList;
+import java.util.Iterator;
 import java.util.List;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.concurrent.ConcurrentMap;
 
 import org.hotswap.agent.logging.AgentLogger;
 import org.xnio.IoUtils;
@@ -33,12 +36,28 @@ import io.undertow.server.handlers.resource.ResourceManager;
 
 /**
  * Prefix Resource manager by extra class path, watch resources and webappdir
+ *
+ * Index of the delegate which served a path is cached, misses in extra resources are cached as well - the original
+ * resource manager is always asked. Extra resource directories are watched and cache entries of created or deleted
+ * files are invalidated, see {@link #invalidate(String)}.
  */
 public class PrefixingResourceManager implements ResourceManager {
 
     private static AgentLogger LOGGER = AgentLogger.getLogger(PrefixingResourceManager.class);
 
-    private List<ResourceManager> delegates;
+    // upper bound of cached paths, the cache is cleared when exceeded
+    private static final int MAX_CACHED_PATHS = 10000;
+
+    private volatile List<ResourceManager> delegates;
+
+    // number of leading delegates created from extra resources
+    private volatile int extraResourceCount;
+
+    // path -> index of the first delegate to ask
+    private final ConcurrentMap<String, Integer> resolvedDelegates = new ConcurrentHashMap<>();
+
+    // incremented on each invalidation, resolutions computed concurrently with an invalidation are not cached
+    private volatile int changeCount;
 
     public PrefixingResourceManager(ResourceManager delegate) {
         this.delegates = new ArrayList<>();
@@ -55,21 +74,63 @@ public class PrefixingResourceManager implements ResourceManager {
                 LOGGER.warning("Unable to create cannonical file from {}. File skipped.", resource.getName(), e);
             }
         }
-        delegates.addAll(this.delegates);
+        int extraResourceCount = delegates.size();
+        delegates.addAll(this.delegates.subList(this.extraResourceCount, this.delegates.size()));
         this.delegates = delegates;
+        this.extraResourceCount = extraResourceCount;
+        changeCount++;
+        resolvedDelegates.clear();
     }
 
     @Override
     public Resource getResource(String path) throws IOException {
-        for(ResourceManager d : delegates) {
-            Resource res = d.getResource(path);
+        List<ResourceManager> delegates = this.delegates;
+        int count = changeCount;
+        Integer cached = resolvedDelegates.get(path);
+        int start = cached != null ? Math.min(cached, delegates.size()) : 0;
+        for (int i = start; i < delegates.size(); i++) {
+            Resource res = delegates.get(i).getResource(path);
             if(res != null) {
+                cacheDelegate(path, cached, i, count);
                 return res;
             }
         }
+        cacheDelegate(path, cached, Math.max(start, Math.min(extraResourceCount, delegates.size())), count);
         return null;
     }
 
+    private void cacheDelegate(String path, Integer cached, int index, int count) {
+        if (cached == null || cached != index) {
+            if (resolvedDelegates.size() >= MAX_CACHED_PATHS) {
+                resolvedDelegates.clear();
+            }
+            resolvedDelegates.put(path, index);
+            if (count != changeCount) {
+                resolvedDelegates.remove(path);
+            }
+        }
+    }
+
+    /**
+     * Invalidate cached resolution of the path and of all paths below it. Called by the watcher on file create
+     * or delete in extra resource directories.
+     *
+     * @param path path relative to the extra resource directory, starting with '/'
+     */
+    public void invalidate(String path) {
+        String relativePath = path.startsWith("/") ? path.substring(1) : path;
+        changeCount++;
+        resolvedDelegates.remove("/" + relativePath);
+        resolvedDelegates.remove(relativePath);
+        String dirPrefix = relativePath + "/";
+        for (Iterator<String> it = resolvedDelegates.keySet().iterator(); it.hasNext(); ) {
+            String key = it.next();
+            if (key.startsWith(dirPrefix) || key.startsWith("/" + dirPrefix)) {
+                it.remove();
+            }
+        }
+    }
+
     @Override
     public boolean isResourceChangeListenerSupported() {
         return true;
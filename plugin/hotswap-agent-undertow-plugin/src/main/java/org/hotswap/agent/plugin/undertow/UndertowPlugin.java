@@ -26,12 +26,15 @@ import java.util.HashMap;
 import java.util.List;
 import java.util.Map;
 
+import org.hotswap.agent.annotation.FileEvent;
 import org.hotswap.agent.annotation.Plugin;
 import org.hotswap.agent.config.PluginConfiguration;
 import org.hotswap.agent.config.PluginManager;
 import org.hotswap.agent.logging.AgentLogger;
 import org.hotswap.agent.util.PluginManagerInvoker;
 import org.hotswap.agent.util.ReflectionHelper;
+import org.hotswap.agent.watch.WatchEventListener;
+import org.hotswap.agent.watch.WatchFileEvent;
 
 /**
  * Undertow plugin (http://undertow.io/)
@@ -76,6 +79,9 @@ public class UndertowPlugin {
 
         try {
             ReflectionHelper.invoke(resourceManager, resourceManager.getClass(), "setExtraResources", new Class[] { List.class }, extraResources);
+            for (File extraResource : extraResources) {
+                watchForInvalidation(appClassLoader, resourceManager, extraResource);
+            }
         } catch (Exception e) {
             LOGGER.error("init() exception {}.", e.getMessage());
         }
@@ -101,6 +107,28 @@ public class UndertowPlugin {
         }
     }
 
+    /**
+     * Invalidate cached path resolution in the resource manager on file create/delete in the extra resource directory.
+     * Listener is registered for the app classloader and removed with it.
+     */
+    private static void watchForInvalidation(ClassLoader appClassLoader, final Object resourceManager, File extraResource) {
+        final String root = extraResource.getAbsolutePath();
+        PluginManager.getInstance().getWatcher().addEventListener(appClassLoader, extraResource.toURI(), new WatchEventListener() {
+            @Override
+            public void onEvent(WatchFileEvent event) {
+                if (event.getEventType() != FileEvent.CREATE && event.getEventType() != FileEvent.DELETE) {
+                    return;
+                }
+                String path = new File(event.getURI()).getAbsolutePath();
+                if (path.startsWith(root)) {
+                    String relativePath = path.substring(root.length()).replace(File.separatorChar, '/');
+                    ReflectionHelper.invoke(resourceManager, resourceManager.getClass(), "invalidate",
+                            new Class[] { String.class }, relativePath);
+                }
+            }
+        });
+    }
+
     /**
      * Init plugin and resolve  version.
      *
@@ -0,0 +1,131 @@
+/*
+ * Copyright 2013-2023 the HotswapAgent authors.
+ *
+ * This file is part of HotswapAgent.
+ *
+ * HotswapAgent is free software: you can redistribute it and/or modify it
+ * under the terms of the GNU General Public License as published by the
+ * Free Software Foundation, either version 2 of the License, or (at your
+ * option) any later version.
+ *
+ * HotswapAgent is distributed in the hope that it will be useful, but
+ * WITHOUT ANY WARRANTY; without even the implied warranty of
+ * MERCHANTABILITY or FITNESS FOR A PARTICULAR PURPOSE. See the GNU General
+ * Public License for more details.
+ *
+ * You should have received a copy of the GNU General Public License along
+ * with HotswapAgent. If not, see http://www.gnu.org/licenses/.
+ */
+package org.hotswap.agent.plugin.undertow;
+
+import static org.junit.Assert.assertEquals;
+import static org.junit.Assert.assertNotNull;
+import static org.junit.Assert.assertNull;
+
+import java.io.File;
+import java.io.IOException;
+import java.nio.file.Files;
+import java.util.Collections;
+
+import org.junit.After;
+import org.junit.Before;
+import org.junit.Test;
+
+import io.undertow.server.handlers.resource.FileResourceManager;
+import io.undertow.server.handlers.resource.Resource;
+import io.undertow.server.handlers.resource.ResourceManager;
+
+public class PrefixingResourceManagerTest {
+
+    private File extraDir;
+    private File webappDir;
+
+    @Before
+    public void setUp() throws IOException {
+        extraDir = Files.createTempDirectory("extra").toFile();
+        webappDir = Files.createTempDirectory("webapp").toFile();
+    }
+
+    @After
+    public void tearDown() {
+        delete(extraDir);
+        delete(webappDir);
+    }
+
+    @Test
+    public void testCreateAfterMiss() throws Exception {
+        PrefixingResourceManager manager = newManager(new FileResourceManager(webappDir, 1024));
+
+        assertNull(manager.getResource("/page.html"));
+
+        write(new File(extraDir, "page.html"));
+        manager.invalidate("/page.html");
+
+        assertFromDir(extraDir, manager.getResource("/page.html"));
+    }
+
+    @Test
+    public void testDeleteAfterHit() throws Exception {
+        PrefixingResourceManager manager = newManager(new FileResourceManager(webappDir, 1024));
+        File extraFile = new File(extraDir, "page.html");
+        write(extraFile);
+        write(new File(webappDir, "page.html"));
+
+        assertFromDir(extraDir, manager.getResource("/page.html"));
+
+        Files.delete(extraFile.toPath());
+        manager.invalidate("/page.html");
+
+        assertFromDir(webappDir, manager.getResource("/page.html"));
+    }
+
+    @Test
+    public void testCreateDuringMiss() throws Exception {
+        final PrefixingResourceManager[] holder = new PrefixingResourceManager[1];
+        // file is created while the lookup walks the delegates, the miss must not be cached
+        PrefixingResourceManager manager = newManager(new FileResourceManager(webappDir, 1024) {
+            @Override
+            public Resource getResource(String path) {
+                try {
+                    File file = new File(extraDir, "page.html");
+                    if (!file.exists()) {
+                        write(file);
+                        holder[0].invalidate(path);
+                    }
+                } catch (IOException e) {
+                    throw new IllegalStateException(e);
+                }
+                return super.getResource(path);
+            }
+        });
+        holder[0] = manager;
+
+        assertNull(manager.getResource("/page.html"));
+        assertFromDir(extraDir, manager.getResource("/page.html"));
+    }
+
+    private PrefixingResourceManager newManager(ResourceManager original) {
+        PrefixingResourceManager manager = new PrefixingResourceManager(original);
+        manager.setExtraResources(Collections.singletonList(extraDir));
+        return manager;
+    }
+
+    private static void assertFromDir(File dir, Resource resource) throws IOException {
+        assertNotNull(resource);
+        assertEquals(dir.getCanonicalFile(), resource.getFile().getCanonicalFile().getParentFile());
+    }
+
+    private static void write(File file) throws IOException {
+        Files.write(file.toPath(), "test".getBytes());
+    }
+
+    private static void delete(File file) {
+        File[] children = file.listFiles();
+        if (children != null) {
+            for (File child : children) {
+                delete(child);
+            }
+        }
+        file.delete();
+    }
+}
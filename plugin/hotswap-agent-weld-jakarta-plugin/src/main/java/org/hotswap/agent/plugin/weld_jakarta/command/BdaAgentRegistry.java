@@ -33,6 +33,9 @@ public class BdaAgentRegistry {
     // map archive path -> BeanClassRefreshAgent
     private static Map<String, BeanClassRefreshAgent> INSTANCES = new ConcurrentHashMap<>();
 
+    // map bean class name -> archive path of beans defined after deployment
+    private static Map<String, String> DEFINED_BEAN_CLASSES = new ConcurrentHashMap<>();
+
     public static Map<String, BeanClassRefreshAgent> getInstances() {
         return INSTANCES;
     }
@@ -60,6 +63,10 @@ public class BdaAgentRegistry {
      * @return
      */
     public static String getArchiveByClassName(String className){
+        String definedArchivePath = DEFINED_BEAN_CLASSES.get(className);
+        if (definedArchivePath != null) {
+            return definedArchivePath;
+        }
         for(BeanClassRefreshAgent agent: INSTANCES.values()) {
             if(agent.getDeploymentArchive().getBeanClasses().contains(className)) {
                 return agent.getArchivePath();
@@ -67,4 +74,19 @@ public class BdaAgentRegistry {
         }
         return null;
     }
+
+    /**
+     * Register bean class of a bean defined after deployment, so it is found by {@link #getArchiveByClassName(String)}.
+     *
+     * @param bdaId the bean deployment archive id
+     * @param className the bean class name
+     */
+    public static void registerDefinedBeanClass(String bdaId, String className) {
+        for(BeanClassRefreshAgent agent: INSTANCES.values()) {
+            if(agent.getBdaId().equals(bdaId)) {
+                DEFINED_BEAN_CLASSES.put(className, agent.getArchivePath());
+                return;
+            }
+        }
+    }
 }
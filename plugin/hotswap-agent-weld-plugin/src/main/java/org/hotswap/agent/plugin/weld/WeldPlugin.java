@@ -25,8 +25,12 @@ import java.net.MalformedURLException;
 import java.net.URI;
 import java.net.URISyntaxException;
 import java.net.URL;
+import java.util.Collections;
+import java.util.LinkedHashMap;
 import java.util.Map;
+import java.util.Set;
 import java.util.WeakHashMap;
+import java.util.concurrent.ConcurrentHashMap;
 
 import org.hotswap.agent.annotation.Init;
 import org.hotswap.agent.annotation.LoadEvent;
@@ -37,6 +41,8 @@ import org.hotswap.agent.config.PluginConfiguration;
 import org.hotswap.agent.javassist.CtClass;
 import org.hotswap.agent.javassist.NotFoundException;
 import org.hotswap.agent.logging.AgentLogger;
+import org.hotswap.agent.plugin.cdi.HaCdiClassSignatureCache;
+import org.hotswap.agent.plugin.cdi.HaCdiCommons;
 import org.hotswap.agent.plugin.weld.command.BdaAgentRegistry;
 import org.hotswap.agent.plugin.weld.command.BeanClassRefreshCommand;
 import org.hotswap.agent.plugin.weld.transformer.AbstractClassBeanTransformer;
@@ -98,6 +104,15 @@ public class WeldPlugin {
 
     private Map<Object, Object> registeredProxiedBeans = new WeakHashMap<>();
 
+    // names of all types of registered proxied beans, proxy signature is taken only for these classes
+    private Set<String> proxiedTypeNames = Collections.newSetFromMap(new ConcurrentHashMap<String, Boolean>());
+
+    private HaCdiClassSignatureCache signatureCache = new HaCdiClassSignatureCache();
+
+    private static final String FULL_SIGNATURE = "full";
+    private static final String PROXY_SIGNATURE = "proxy";
+    private static final String STRATEGY_SIGNATURE = "strategy";
+
     private BeanReloadStrategy beanReloadStrategy;
 
     public void init() {
@@ -125,6 +140,19 @@ public class WeldPlugin {
     private void doInit() {
         initialized = true;
         beanReloadStrategy = setBeanReloadStrategy(pluginConfiguration.getProperty("weld.beanReloadStrategy"));
+        if (Boolean.parseBoolean(pluginConfiguration.getProperty("weld.trackWatchedArchivesOnly"))) {
+            setTrackWatchedArchivesOnly(appClassLoader);
+        }
+    }
+
+    private static void setTrackWatchedArchivesOnly(ClassLoader classLoader) {
+        try {
+            ReflectionHelper.invoke(null, Class.forName(HaCdiCommons.class.getName(), true, classLoader),
+                    "setTrackWatchedArchivesOnly", new Class[] {boolean.class}, true);
+            LOGGER.debug("Tracking bean instances of watched archives only.");
+        } catch (ClassNotFoundException e) {
+            LOGGER.error("setTrackWatchedArchivesOnly() exception {}.", e.getMessage());
+        }
     }
 
     private BeanReloadStrategy setBeanReloadStrategy(String property) {
@@ -207,6 +235,19 @@ public class WeldPlugin {
             }
             registeredProxiedBeans.put(bean, proxyFactory);
         }
+        proxiedTypeNames.add(proxiedBeanType.getName());
+        if (bean == null) {
+            return;
+        }
+        try {
+            for (Object type : (Set<?>) ReflectionHelper.invoke(bean, bean.getClass(), "getTypes", new Class[] {})) {
+                if (type instanceof Class) {
+                    proxiedTypeNames.add(((Class<?>) type).getName());
+                }
+            }
+        } catch (Exception e) {
+            LOGGER.debug("Unable to resolve types of bean '{}'", e, bean);
+        }
     }
 
     /**
@@ -241,28 +282,73 @@ public class WeldPlugin {
         }
 
         try {
-            String archivePath = getArchivePath(classLoader, ctClass, original.getName());
+            String beanArchivePath = getBeanArchivePath(classLoader, original.getName());
+            String archivePath = beanArchivePath != null ? beanArchivePath : getArchivePath(ctClass);
             if (isBdaRegistered(classLoader, archivePath)) {
                 LOGGER.debug("Class '{}' redefined for archive {} ", original.getName(), archivePath);
-                String oldSignatureForProxyCheck = WeldClassSignatureHelper.getSignatureForProxyClass(original);
-                String oldSignatureByStrategy = WeldClassSignatureHelper.getSignatureByStrategy(beanReloadStrategy, original);
-                String oldFullSignature = ClassSignatureComparerHelper.getJavaClassSignature(original, ClassSignatureElement.values());
-                scheduler.scheduleCommand(new BeanClassRefreshCommand(classLoader, archivePath, registeredProxiedBeans,
-                        original.getName(), oldFullSignature, oldSignatureForProxyCheck, oldSignatureByStrategy, beanReloadStrategy), WAIT_ON_REDEFINE);
+                // signatures are used only for known bean classes and types of proxied beans, other classes
+                // (e.g. new bean classes) do not pay signature computation
+                Map<String, HaCdiClassSignatureCache.Signer> signers = getSigners(beanArchivePath != null,
+                        proxiedTypeNames.contains(original.getName()));
+                HaCdiClassSignatureCache.Signatures signatures = signers.isEmpty() ? null : signatureCache.take(original, signers);
+                BeanClassRefreshCommand command = new BeanClassRefreshCommand(classLoader, archivePath, registeredProxiedBeans,
+                        original.getName(),
+                        signatures != null ? signatures.get(FULL_SIGNATURE) : null,
+                        signatures != null ? signatures.get(PROXY_SIGNATURE) : null,
+                        signatures != null ? signatures.get(STRATEGY_SIGNATURE) : null,
+                        beanReloadStrategy);
+                if (signatures != null) {
+                    command.setSignatureCache(signatureCache, signatures.getGeneration(), signers);
+                }
+                scheduler.scheduleCommand(command, WAIT_ON_REDEFINE);
             }
         } catch (Exception e) {
             LOGGER.error("classReload() exception {}.", e, e.getMessage());
         }
     }
 
-    private String getArchivePath(ClassLoader classLoader, CtClass ctClass, String knownClassName) throws NotFoundException {
+    private Map<String, HaCdiClassSignatureCache.Signer> getSigners(boolean beanClass, boolean proxiedType) {
+        Map<String, HaCdiClassSignatureCache.Signer> signers = new LinkedHashMap<>();
+        if (proxiedType) {
+            signers.put(PROXY_SIGNATURE, new HaCdiClassSignatureCache.Signer() {
+                @Override
+                public String getSignature(Class<?> clazz) {
+                    return WeldClassSignatureHelper.getSignatureForProxyClass(clazz);
+                }
+            });
+        }
+        if (beanClass) {
+            final BeanReloadStrategy strategy = beanReloadStrategy;
+            if (strategy == BeanReloadStrategy.METHOD_FIELD_SIGNATURE_CHANGE || strategy == BeanReloadStrategy.FIELD_SIGNATURE_CHANGE) {
+                signers.put(STRATEGY_SIGNATURE, new HaCdiClassSignatureCache.Signer() {
+                    @Override
+                    public String getSignature(Class<?> clazz) {
+                        return WeldClassSignatureHelper.getSignatureByStrategy(strategy, clazz);
+                    }
+                });
+            }
+            signers.put(FULL_SIGNATURE, new HaCdiClassSignatureCache.Signer() {
+                @Override
+                public String getSignature(Class<?> clazz) throws Exception {
+                    return ClassSignatureComparerHelper.getJavaClassSignatureDigest(clazz, ClassSignatureElement.values()).toString();
+                }
+            });
+        }
+        return signers;
+    }
+
+    // archive path of bean deployment archive containing the class as bean class
+    private String getBeanArchivePath(ClassLoader classLoader, String className) {
          try {
              return (String) ReflectionHelper.invoke(null, Class.forName(BdaAgentRegistry.class.getName(), true, classLoader),
-                     "getArchiveByClassName", new Class[] {String.class}, knownClassName);
+                     "getArchiveByClassName", new Class[] {String.class}, className);
          } catch (ClassNotFoundException e) {
              LOGGER.error("getArchivePath() exception {}.", e.getMessage());
          }
+         return null;
+    }
 
+    private String getArchivePath(CtClass ctClass) throws NotFoundException {
         String classFilePath = ctClass.getURL().getPath();
         String className = ctClass.getName().replace(".", "/");
         // archive path ends with '/', therefore we set end position before the '/' (-1)
@@ -21,7 +21,10 @@ package org.hotswap.agent.plugin.weld.command;
 import java.io.File;
 import java.io.IOException;
 import java.lang.reflect.Type;
+import java.util.ArrayList;
 import java.util.Collection;
+import java.util.Collections;
+import java.util.List;
 import java.util.Map;
 import java.util.Map.Entry;
 import java.util.Set;
@@ -30,6 +33,7 @@ import javax.enterprise.inject.spi.Bean;
 import javax.enterprise.inject.spi.CDI;
 
 import org.hotswap.agent.logging.AgentLogger;
+import org.hotswap.agent.plugin.cdi.HaCdiCommons;
 import org.hotswap.agent.plugin.weld.WeldClassSignatureHelper;
 import org.hotswap.agent.plugin.weld.WeldPlugin;
 import org.hotswap.agent.util.PluginManagerInvoker;
@@ -102,6 +106,7 @@ public class BeanClassRefreshAgent {
                     bdaAgent = new BeanClassRefreshAgent(beanArchive, archivePath);
                     ReflectionHelper.invoke(null, registryClass, "put", new Class[] {String.class, BeanClassRefreshAgent.class}, archivePath, bdaAgent);
                     bdaAgent.register();
+                    HaCdiCommons.registerWatchedArchive(archivePath);
                 }
             } catch (IllegalArgumentException e) {
                 LOGGER.warning("Unable to watch BeanDeploymentArchive with id={}", beanArchive.getId());
@@ -176,6 +181,23 @@ public class BeanClassRefreshAgent {
      */
     public static void reloadBean(ClassLoader classLoader, String archivePath, String beanClassName, Map<String, String> oldFullSignatures,
             Map<String, String> oldSignatures, String strReloadStrategy) throws IOException {
+        reloadBeans(classLoader, archivePath, Collections.singletonList(beanClassName), oldFullSignatures, oldSignatures, strReloadStrategy);
+    }
+
+    /**
+     * Reload beans of the archive in single pass according strategy, reinject bean instances. Called from
+     * BeanClassRefreshCommand for all merged commands of the archive.
+     *
+     * @param classLoader the class loader
+     * @param archivePath the archive path
+     * @param beanClassNames the bean class names
+     * @param oldFullSignatures the old full signatures
+     * @param oldSignatures the map of className to old signature
+     * @param strReloadStrategy the str reload strategy
+     * @throws IOException error working with classDefinition
+     */
+    public static void reloadBeans(ClassLoader classLoader, String archivePath, List<String> beanClassNames, Map<String, String> oldFullSignatures,
+            Map<String, String> oldSignatures, String strReloadStrategy) throws IOException {
 
         BeanClassRefreshAgent bdaAgent = BdaAgentRegistry.get(archivePath);
 
@@ -191,7 +213,14 @@ public class BeanClassRefreshAgent {
 
             // BDA classLoader can be different then appClassLoader for Wildfly/EAR deployment
             // therefore we use class loader from BdaAgent class which is classloader for BDA
-            Class<?> beanClass = bdaAgent.getClass().getClassLoader().loadClass(beanClassName);
+            List<Class<?>> beanClasses = new ArrayList<>();
+            for (String beanClassName : beanClassNames) {
+                try {
+                    beanClasses.add(bdaAgent.getClass().getClassLoader().loadClass(beanClassName));
+                } catch (ClassNotFoundException e) {
+                    LOGGER.error("Bean class '{}' not found.", e, beanClassName);
+                }
+            }
 
             BeanManagerImpl beanManager;
             if (CDI.current().getBeanManager() instanceof BeanManagerImpl) {
@@ -205,9 +234,9 @@ public class BeanClassRefreshAgent {
 
             // Execute reload in BeanManagerClassLoader since reloading creates weld classes used for bean redefinition
             // (like EnhancedAnnotatedType)
-            ReflectionHelper.invoke(null, bdaAgentClazz, "reloadBean",
-                    new Class[] {String.class, Class.class, Map.class, Map.class, String.class },
-                    bdaAgent.getBdaId(), beanClass, oldFullSignatures, oldSignatures, strReloadStrategy
+            ReflectionHelper.invoke(null, bdaAgentClazz, "reloadBeans",
+                    new Class[] {String.class, List.class, Map.class, Map.class, String.class },
+                    bdaAgent.getBdaId(), beanClasses, oldFullSignatures, oldSignatures, strReloadStrategy
             );
 
         } catch (Exception e) {
@@ -20,14 +20,18 @@ package org.hotswap.agent.plugin.weld.command;
 
 import java.lang.reflect.InvocationTargetException;
 import java.lang.reflect.Method;
+import java.util.ArrayList;
 import java.util.HashMap;
+import java.util.LinkedHashSet;
 import java.util.List;
 import java.util.Map;
+import java.util.Set;
 
 import org.hotswap.agent.annotation.FileEvent;
 import org.hotswap.agent.command.Command;
 import org.hotswap.agent.command.MergeableCommand;
 import org.hotswap.agent.logging.AgentLogger;
+import org.hotswap.agent.plugin.cdi.HaCdiClassSignatureCache;
 import org.hotswap.agent.plugin.weld.BeanReloadStrategy;
 import org.hotswap.agent.watch.WatchFileEvent;
 
@@ -36,7 +40,7 @@ import org.hotswap.agent.watch.WatchFileEvent;
  *
  * 1. Merge all commands (definition, redefinition) for single archive to single command.
  * 2. Call proxy redefinitions in BeanClassRefreshAgent for all merged commands
- * 3. Call bean class reload in BeanDepoymentArchiveAgent for all merged commands
+ * 3. Call bean class reload in BeanDepoymentArchiveAgent for all merged commands in a single call
  *
  * @author Vladimir Dvorak
  */
@@ -61,6 +65,11 @@ public class BeanClassRefreshCommand extends MergeableCommand {
 
     Map<Object, Object> registeredProxiedBeans;
 
+    // refresh of signature snapshot after reload
+    private HaCdiClassSignatureCache signatureCache;
+    private int signatureGeneration;
+    private Map<String, HaCdiClassSignatureCache.Signer> signers;
+
     // either event or classDefinition is set by constructor (watcher or transformer)
     WatchFileEvent event;
 
@@ -76,6 +85,21 @@ public class BeanClassRefreshCommand extends MergeableCommand {
         this.strBeanReloadStrategy = beanReloadStrategy != null ? beanReloadStrategy.toString() : null;
     }
 
+    /**
+     * Refresh signature snapshot of the class in the cache after the bean is reloaded, so that the next redefinition
+     * of the class does not compute old signatures.
+     *
+     * @param signatureCache the signature cache
+     * @param signatureGeneration the generation returned by the cache for this redefinition
+     * @param signers the signature kinds to refresh
+     */
+    public void setSignatureCache(HaCdiClassSignatureCache signatureCache, int signatureGeneration,
+            Map<String, HaCdiClassSignatureCache.Signer> signers) {
+        this.signatureCache = signatureCache;
+        this.signatureGeneration = signatureGeneration;
+        this.signers = signers;
+    }
+
     public BeanClassRefreshCommand(ClassLoader classLoader, String normalizedArchivePath, WatchFileEvent event) {
         this.classLoader = classLoader;
         this.archivePath = normalizedArchivePath;
@@ -125,24 +149,42 @@ public class BeanClassRefreshCommand extends MergeableCommand {
                 oldSignatures.put(bcrCmd.className, bcrCmd.oldSignatureByStrategy);
             }
 
+            // each class is reloaded once, subclasses of other merged classes are skipped
+            Set<String> reloadedClassNames = new LinkedHashSet<>();
             for (Command cmd1: mergedCommands) {
                 BeanClassRefreshCommand bcrCmd1 = (BeanClassRefreshCommand) cmd1;
+                if (bcrCmd1.className == null || bcrCmd1.beanClass == null || bcrCmd1.isDeleteEvent(mergedCommands)) {
+                    continue;
+                }
                 boolean found = false;
                 for (Command cmd2: mergedCommands) {
                     BeanClassRefreshCommand bcrCmd2 = (BeanClassRefreshCommand) cmd2;
-                    if (bcrCmd1 != bcrCmd2 && !bcrCmd1.beanClass.equals(bcrCmd2.beanClass) && bcrCmd2.beanClass.isAssignableFrom(bcrCmd1.beanClass)) {
+                    if (bcrCmd1 != bcrCmd2 && bcrCmd2.beanClass != null && !bcrCmd1.beanClass.equals(bcrCmd2.beanClass) && bcrCmd2.beanClass.isAssignableFrom(bcrCmd1.beanClass)) {
                         found = true;
                         break;
                     }
                 }
                 if (!found) {
-                    bcrCmd1.reloadBean(mergedCommands, oldFullSignatures, oldSignatures);
+                    reloadedClassNames.add(bcrCmd1.className);
                 }
             }
+            if (!reloadedClassNames.isEmpty()) {
+                reloadBeans(new ArrayList<>(reloadedClassNames), oldFullSignatures, oldSignatures);
+            }
+
+            for (Command cmd: mergedCommands) {
+                ((BeanClassRefreshCommand) cmd).refreshSignatures();
+            }
             mergedCommands = popMergedCommands();
         } while (!mergedCommands.isEmpty());
     }
 
+    private void refreshSignatures() {
+        if (signatureCache != null && beanClass != null) {
+            signatureCache.refresh(beanClass, signatureGeneration, signers);
+        }
+    }
+
     private void recreateProxy(List<Command> mergedCommands) {
 
         if (isDeleteEvent(mergedCommands)) {
@@ -181,43 +223,35 @@ public class BeanClassRefreshCommand extends MergeableCommand {
         }
     }
 
-    private void reloadBean(List<Command> mergedCommands, Map<String, String> oldFullSignatures, Map<String, String> oldSignatures) {
-
-        if (isDeleteEvent(mergedCommands)) {
-            LOGGER.trace("Skip WELD refresh bean class for delete event on class '{}'", className);
-            return;
-        }
-
-        if (className != null) {
-            try {
-                LOGGER.debug("Executing BeanClassRefreshAgent.reloadBean('{}')", className);
-                Class<?> bdaAgentClazz = Class.forName(BeanClassRefreshAgent.class.getName(), true, classLoader);
-                Method refreshBean  = bdaAgentClazz.getDeclaredMethod("reloadBean",
-                        new Class[] { ClassLoader.class,
-                                      String.class,
-                                      String.class,
-                                      Map.class,
-                                      Map.class,
-                                      String.class
-                        }
-                );
-                refreshBean.invoke(null,
-                        classLoader,
-                        archivePath,
-                        className,
-                        oldFullSignatures,
-                        oldSignatures,
-                        strBeanReloadStrategy // passed as String since BeanClassRefreshAgent has different classloader
-                );
-            } catch (NoSuchMethodException e) {
-                throw new IllegalStateException("Plugin error, method not found", e);
-            } catch (InvocationTargetException e) {
-                LOGGER.error("Error reloadBean class '{}' in classLoader '{}'", e, className, classLoader);
-            } catch (IllegalAccessException e) {
-                throw new IllegalStateException("Plugin error, illegal access", e);
-            } catch (ClassNotFoundException e) {
-                throw new IllegalStateException("Plugin error, CDI class not found in classloader", e);
-            }
+    private void reloadBeans(List<String> classNames, Map<String, String> oldFullSignatures, Map<String, String> oldSignatures) {
+        try {
+            LOGGER.debug("Executing BeanClassRefreshAgent.reloadBeans('{}')", classNames);
+            Class<?> bdaAgentClazz = Class.forName(BeanClassRefreshAgent.class.getName(), true, classLoader);
+            Method refreshBeans  = bdaAgentClazz.getDeclaredMethod("reloadBeans",
+                    new Class[] { ClassLoader.class,
+                                  String.class,
+                                  List.class,
+                                  Map.class,
+                                  Map.class,
+                                  String.class
+                    }
+            );
+            refreshBeans.invoke(null,
+                    classLoader,
+                    archivePath,
+                    classNames,
+                    oldFullSignatures,
+                    oldSignatures,
+                    strBeanReloadStrategy // passed as String since BeanClassRefreshAgent has different classloader
+            );
+        } catch (NoSuchMethodException e) {
+            throw new IllegalStateException("Plugin error, method not found", e);
+        } catch (InvocationTargetException e) {
+            LOGGER.error("Error reloadBeans classes '{}' in classLoader '{}'", e, classNames, classLoader);
+        } catch (IllegalAccessException e) {
+            throw new IllegalStateException("Plugin error, illegal access", e);
+        } catch (ClassNotFoundException e) {
+            throw new IllegalStateException("Plugin error, CDI class not found in classloader", e);
         }
     }
 
@@ -23,6 +23,7 @@ import java.lang.reflect.InvocationTargetException;
 import java.lang.reflect.Method;
 import java.util.Collections;
 import java.util.HashSet;
+import java.util.LinkedHashSet;
 import java.util.List;
 import java.util.Map;
 import java.util.Set;
@@ -79,13 +80,24 @@ public class BeanReloadExecutor {
      */
     public static void reloadBean(String bdaId, Class<?> beanClass, Map<String, String> oldFullSignatures,
             Map<String, String> oldSignatures, String strReloadStrategy) {
+        reloadBeans(bdaId, Collections.<Class<?>>singletonList(beanClass), oldFullSignatures, oldSignatures, strReloadStrategy);
+    }
 
-        BeanReloadStrategy reloadStrategy;
+    /**
+     * Reload beans of single bean deployment archive in existing bean manager. Bean manager, class transformer and
+     * context map are resolved once for all bean classes, instances of all affected beans are reinjected
+     * after all beans are reloaded.
+     *
+     * @param bdaId the Bean Deployment Archive ID
+     * @param beanClasses the bean classes
+     * @param oldFullSignatures the old full signatures
+     * @param oldSignatures the old signatures
+     * @param strReloadStrategy the str reload strategy
+     */
+    public static void reloadBeans(String bdaId, List<Class<?>> beanClasses, Map<String, String> oldFullSignatures,
+            Map<String, String> oldSignatures, String strReloadStrategy) {
 
-        // check if it is Object descendant (not interface)
-        if (!Object.class.isAssignableFrom(beanClass)) {
-            return;
-        }
+        BeanReloadStrategy reloadStrategy;
 
         try {
             reloadStrategy = BeanReloadStrategy.valueOf(strReloadStrategy);
@@ -93,13 +105,6 @@ public class BeanReloadExecutor {
             reloadStrategy = BeanReloadStrategy.NEVER;
         }
 
-        doReloadBean(bdaId, beanClass, oldFullSignatures, oldSignatures, reloadStrategy);
-    }
-
-    @SuppressWarnings({ "rawtypes", "unchecked", "serial" })
-    private static void doReloadBean(String bdaId, Class<?> beanClass, Map<String, String> oldFullSignatures,
-            Map<String, String> oldSignatures, BeanReloadStrategy reloadStrategy) {
-
         BeanManagerImpl beanManager = null;
         BeanManager bm = CDI.current().getBeanManager();
 
@@ -111,6 +116,35 @@ public class BeanReloadExecutor {
             beanManager = (BeanManagerImpl) bm;
         }
 
+        ReloadBatch batch = new ReloadBatch(beanManager);
+
+        for (Class<?> beanClass : beanClasses) {
+            // check if it is Object descendant (not interface)
+            if (!Object.class.isAssignableFrom(beanClass)) {
+                continue;
+            }
+            try {
+                doReloadBean(batch, bdaId, beanClass, oldFullSignatures, oldSignatures, reloadStrategy);
+            } catch (Exception e) {
+                LOGGER.error("Bean '{}' reloading failed.", e, beanClass.getName());
+            }
+        }
+
+        for (AbstractClassBean<?> bean : batch.reinjectedBeans) {
+            try {
+                doReinjectBean(beanManager, bean);
+            } catch (Exception e) {
+                LOGGER.error("Bean '{}' reinjection failed.", e, bean.getBeanClass().getName());
+            }
+        }
+    }
+
+    @SuppressWarnings({ "rawtypes", "unchecked", "serial" })
+    private static void doReloadBean(ReloadBatch batch, String bdaId, Class<?> beanClass, Map<String, String> oldFullSignatures,
+            Map<String, String> oldSignatures, BeanReloadStrategy reloadStrategy) {
+
+        BeanManagerImpl beanManager = batch.beanManager;
+
         // TODO: check if archive is excluded
 
         Set<Bean<?>> beans = beanManager.getBeans(beanClass, new AnnotationLiteral<Any>() {});
@@ -125,11 +159,11 @@ public class BeanReloadExecutor {
                     continue;
                 }
                 if (bean instanceof AbstractClassBean) {
-                    EnhancedAnnotatedType eat = createAnnotatedTypeForExistingBeanClass(bdaId, bean);
+                    EnhancedAnnotatedType eat = createAnnotatedTypeForExistingBeanClass(batch.classTransformer, bdaId, bean);
                     if (!eat.isAbstract() || !eat.getJavaClass().isInterface()) { // injectionTargetCannotBeCreatedForInterface
                         ((AbstractClassBean)bean).setProducer(beanManager.getLocalInjectionTargetFactory(eat).createInjectionTarget(eat, bean, false));
                         if (isReinjectingContext(bean) || HaCdiCommons.isInExtraScope(bean)) {
-                            doReloadAbstractClassBean(beanManager, (AbstractClassBean) bean, oldSignatures, reloadStrategy);
+                            doReloadAbstractClassBean(batch, (AbstractClassBean) bean, oldSignatures, reloadStrategy);
                             LOGGER.debug("Bean reloaded '{}'", bean.getBeanClass().getName());
                             continue;
                         }
@@ -140,7 +174,7 @@ public class BeanReloadExecutor {
                 }
             }
         } else {
-            doDefineNewManagedBean(beanManager, bdaId, beanClass);
+            doDefineNewManagedBean(beanManager, batch.classTransformer, bdaId, beanClass);
         }
     }
 
@@ -148,25 +182,30 @@ public class BeanReloadExecutor {
         return bean.getScope() != RequestScoped.class && bean.getScope() != Dependent.class;
     }
 
+    // signature is taken on redefinition only for bean classes known to the archive, a bean without the old
+    // signature (e.g. missing in BDA bean classes) is reloaded
     private static boolean fullSignatureChanged(Bean<?> bean, Map<String, String> oldFullSignatures) {
 
         try {
-            String newSignature = ClassSignatureComparerHelper.getJavaClassSignature(bean.getBeanClass(), ClassSignatureElement.values());
             String oldSignature = oldFullSignatures.get(bean.getBeanClass().getName());
-            return oldSignature != null && newSignature != null && !oldSignature.equals(newSignature);
+            if (oldSignature == null) {
+                LOGGER.debug("Old signature of bean '{}' not available, reloading.", bean.getBeanClass().getName());
+                return true;
+            }
+            String newSignature = ClassSignatureComparerHelper.getJavaClassSignatureDigest(bean.getBeanClass(), ClassSignatureElement.values()).toString();
+            return newSignature != null && !oldSignature.equals(newSignature);
         } catch (Exception e) {
             LOGGER.error("Full signature evaluation failed beanClass='{}'", e, bean.getBeanClass().getName());
         }
         return true;
     }
 
-    private static EnhancedAnnotatedType<?> createAnnotatedTypeForExistingBeanClass(String bdaId, Bean<?> bean) {
-        ClassTransformer classTransformer = getClassTransformer();
+    private static EnhancedAnnotatedType<?> createAnnotatedTypeForExistingBeanClass(ClassTransformer classTransformer, String bdaId, Bean<?> bean) {
         SlimAnnotatedType<?> annotatedType = classTransformer.getBackedAnnotatedType(bean.getBeanClass(), bdaId);
         return EnhancedAnnotatedTypeImpl.of(annotatedType, classTransformer);
     }
 
-    private static void doReloadAbstractClassBean(BeanManagerImpl beanManager, AbstractClassBean<?> bean, Map<String, String> oldSignatures, BeanReloadStrategy reloadStrategy) {
+    private static void doReloadAbstractClassBean(ReloadBatch batch, AbstractClassBean<?> bean, Map<String, String> oldSignatures, BeanReloadStrategy reloadStrategy) {
 
         String signatureByStrategy = WeldClassSignatureHelper.getSignatureByStrategy(reloadStrategy, bean.getBeanClass());
 
@@ -177,10 +216,10 @@ public class BeanReloadExecutor {
                 (reloadStrategy != BeanReloadStrategy.NEVER && signatureByStrategy != null && !signatureByStrategy.equals(oldSignature)))
                 ) {
             // Reload bean in contexts - invalidates existing instances
-            doReloadBeanInBeanContexts(beanManager, (ManagedBean<?>) bean);
+            doReloadBeanInBeanContexts(batch, (ManagedBean<?>) bean);
         } else {
-            // Reinjects bean instances in aproperiate contexts
-            doReinjectBean(beanManager, bean);
+            // Reinjects bean instances in aproperiate contexts after all beans are reloaded
+            batch.reinjectedBeans.add(bean);
         }
     }
 
@@ -239,15 +278,13 @@ public class BeanReloadExecutor {
         }
     }
 
-    private static void doReloadBeanInBeanContexts(BeanManagerImpl beanManager, ManagedBean<?> managedBean) {
+    private static void doReloadBeanInBeanContexts(ReloadBatch batch, ManagedBean<?> managedBean) {
         try {
-            Map<Class<? extends Annotation>, List<Context>> contexts = getContextMap(beanManager);
-
-            List<Context> ctxList = contexts.get(managedBean.getScope());
+            List<Context> ctxList = batch.getContextMap().get(managedBean.getScope());
 
             if (ctxList != null) {
                 for(Context context: ctxList) {
-                    doReloadBeanInContext(beanManager, managedBean, context);
+                    doReloadBeanInContext(batch, managedBean, context);
                 }
             } else {
                 LOGGER.debug("No active contexts for bean '{}' in scope '{}'", managedBean.getBeanClass().getName(),  managedBean.getScope());
@@ -272,19 +309,18 @@ public class BeanReloadExecutor {
     }
 
     @SuppressWarnings({ "unchecked", "rawtypes" })
-    private static void doReloadBeanInContext(BeanManagerImpl beanManager, ManagedBean managedBean, Context context) {
+    private static void doReloadBeanInContext(ReloadBatch batch, ManagedBean managedBean, Context context) {
         if(ContextualReloadHelper.addToReloadSet(context, managedBean)) {
             LOGGER.debug("Bean {}, added to reload set in context '{}'", managedBean, context.getClass());
         } else {
             // fallback for not patched contexts
-            doReinjectBean(beanManager, managedBean);
+            batch.reinjectedBeans.add(managedBean);
         }
     }
 
     @SuppressWarnings({ "rawtypes", "unchecked" })
-    private static void doDefineNewManagedBean(BeanManagerImpl beanManager, String bdaId, Class<?> beanClass) {
+    private static void doDefineNewManagedBean(BeanManagerImpl beanManager, ClassTransformer classTransformer, String bdaId, Class<?> beanClass) {
         try {
-            ClassTransformer classTransformer = getClassTransformer();
             SlimAnnotatedType<?> annotatedType = classTransformer.getBackedAnnotatedType(beanClass, bdaId);
             boolean managedBeanOrDecorator = Beans.isTypeManagedBeanOrDecoratorOrInterceptor(annotatedType);
 
@@ -296,6 +332,7 @@ public class BeanReloadExecutor {
                 beanManager.addBean(bean);
                 beanManager.getBeanResolver().clear();
                 bean.initializeAfterBeanDiscovery();
+                BdaAgentRegistry.registerDefinedBeanClass(bdaId, beanClass.getName());
                 LOGGER.debug("Bean defined '{}'", beanClass.getName());
             } else {
                 // TODO : define session bean
@@ -314,4 +351,24 @@ public class BeanReloadExecutor {
         return classTransformer;
     }
 
+    /**
+     * State shared by reload of all bean classes of a single reloadBeans() call.
+     */
+    private static class ReloadBatch {
+        final BeanManagerImpl beanManager;
+        final ClassTransformer classTransformer = getClassTransformer();
+        final Set<AbstractClassBean<?>> reinjectedBeans = new LinkedHashSet<>();
+        private Map<Class<? extends Annotation>, List<Context>> contextMap;
+
+        ReloadBatch(BeanManagerImpl beanManager) {
+            this.beanManager = beanManager;
+        }
+
+        Map<Class<? extends Annotation>, List<Context>> getContextMap() {
+            if (contextMap == null) {
+                contextMap = BeanReloadExecutor.getContextMap(beanManager);
+            }
+            return contextMap;
+        }
+    }
 }
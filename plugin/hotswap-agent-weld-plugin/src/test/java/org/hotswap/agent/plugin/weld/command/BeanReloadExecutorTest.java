@@ -0,0 +1,111 @@
+/*
+ * Copyright 2013-2023 the HotswapAgent authors.
+ *
+ * This file is part of HotswapAgent.
+ *
+ * HotswapAgent is free software: you can redistribute it and/or modify it
+ * under the terms of the GNU General Public License as published by the
+ * Free Software Foundation, either version 2 of the License, or (at your
+ * option) any later version.
+ *
+ * HotswapAgent is distributed in the hope that it will be useful, but
+ * WITHOUT ANY WARRANTY; without even the implied warranty of
+ * MERCHANTABILITY or FITNESS FOR A PARTICULAR PURPOSE. See the GNU General
+ * Public License for more details.
+ *
+ * You should have received a copy of the GNU General Public License along
+ * with HotswapAgent. If not, see http://www.gnu.org/licenses/.
+ */
+package org.hotswap.agent.plugin.weld.command;
+
+import static org.junit.Assert.assertNotSame;
+import static org.junit.Assert.assertSame;
+
+import java.util.Arrays;
+import java.util.Collections;
+import java.util.HashMap;
+import java.util.Map;
+
+import javax.enterprise.inject.spi.Bean;
+import javax.enterprise.inject.spi.BeanManager;
+import javax.enterprise.inject.spi.CDI;
+
+import org.hotswap.agent.plugin.weld.BeanReloadStrategy;
+import org.hotswap.agent.plugin.weld.WeldJUnit4Runner;
+import org.hotswap.agent.plugin.weld.testBeans.BatchBean1;
+import org.hotswap.agent.plugin.weld.testBeans.BatchBean2;
+import org.hotswap.agent.plugin.weld.testBeans.HelloProducer1;
+import org.hotswap.agent.util.signature.ClassSignatureComparerHelper;
+import org.hotswap.agent.util.signature.ClassSignatureElement;
+import org.jboss.weld.manager.BeanManagerImpl;
+import org.jboss.weld.manager.api.WeldManager;
+import org.junit.Test;
+import org.junit.runner.RunWith;
+
+/**
+ * Reload of bean classes in existing bean manager, the classes are not redefined - changes are simulated
+ * by old signatures.
+ */
+@RunWith(WeldJUnit4Runner.class)
+public class BeanReloadExecutorTest {
+
+    /**
+     * Two beans of one archive reloaded in one batch, instances of both are reinjected.
+     */
+    @Test
+    public void testReloadBeansInOneBatch() throws Exception {
+        BatchBean1 bean1 = getBeanInstance(BatchBean1.class);
+        BatchBean2 bean2 = getBeanInstance(BatchBean2.class);
+        HelloProducer1 producer1 = bean1.getHelloProducer();
+        HelloProducer1 producer2 = bean2.getHelloProducer();
+
+        Map<String, String> oldFullSignatures = new HashMap<>();
+        oldFullSignatures.put(BatchBean1.class.getName(), "changed");
+        oldFullSignatures.put(BatchBean2.class.getName(), "changed");
+        reloadBeans(oldFullSignatures);
+
+        assertSame(bean1, getBeanInstance(BatchBean1.class));
+        assertSame(bean2, getBeanInstance(BatchBean2.class));
+        assertNotSame(producer1, bean1.getHelloProducer());
+        assertNotSame(producer2, bean2.getHelloProducer());
+    }
+
+    /**
+     * Unchanged signature skips the reload, missing signature (not a known bean class on redefinition) reloads.
+     */
+    @Test
+    public void testReloadBeansBySignature() throws Exception {
+        BatchBean1 bean1 = getBeanInstance(BatchBean1.class);
+        BatchBean2 bean2 = getBeanInstance(BatchBean2.class);
+        HelloProducer1 producer1 = bean1.getHelloProducer();
+        HelloProducer1 producer2 = bean2.getHelloProducer();
+
+        Map<String, String> oldFullSignatures = new HashMap<>();
+        oldFullSignatures.put(BatchBean1.class.getName(), ClassSignatureComparerHelper
+                .getJavaClassSignatureDigest(BatchBean1.class, ClassSignatureElement.values()).toString());
+        reloadBeans(oldFullSignatures);
+
+        assertSame(producer1, bean1.getHelloProducer());
+        assertNotSame(producer2, bean2.getHelloProducer());
+    }
+
+    private static void reloadBeans(Map<String, String> oldFullSignatures) {
+        BeanReloadExecutor.reloadBeans(getBeanManager().getId(), Arrays.<Class<?>>asList(BatchBean1.class, BatchBean2.class),
+                oldFullSignatures, Collections.<String, String>emptyMap(), BeanReloadStrategy.NEVER.name());
+    }
+
+    private static BeanManagerImpl getBeanManager() {
+        BeanManager beanManager = CDI.current().getBeanManager();
+        if (beanManager instanceof WeldManager) {
+            beanManager = ((WeldManager) beanManager).unwrap();
+        }
+        return (BeanManagerImpl) beanManager;
+    }
+
+    @SuppressWarnings("unchecked")
+    private static <T> T getBeanInstance(Class<T> beanClass) {
+        BeanManager beanManager = CDI.current().getBeanManager();
+        Bean<T> bean = (Bean<T>) beanManager.resolve(beanManager.getBeans(beanClass));
+        return beanManager.getContext(bean.getScope()).get(bean, beanManager.createCreationalContext(bean));
+    }
+}